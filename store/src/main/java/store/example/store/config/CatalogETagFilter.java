@@ -0,0 +1,106 @@
+package store.example.store.config;
+
+import store.example.store.service.CatalogResponseCache;
+import store.example.store.service.CatalogVersion;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.util.Set;
+
+/**
+ * Filtre de requêtes conditionnelles (ETag / If-None-Match) pour le catalogue
+ *
+ * Les lectures de /api/products/** calculées à partir de la base (ou du cache
+ * des réponses, indexé par version) ne dépendent que du catalogue : leur ETag
+ * est dérivé de la version du catalogue et du codage accepté (certaines
+ * réponses sont servies compressées). Si le client présente un ETag à jour,
+ * une réponse 304 est renvoyée sans appeler le contrôleur.
+ *
+ * Les réponses servies par les structures en mémoire (index de recherche,
+ * suggestions, liste de surveillance des stocks, décomptes par catégorie) n'ont
+ * pas d'ETag : ces structures sont mises à jour à leur propre rythme (écouteurs
+ * non ordonnés avec l'incrément de version, reconstruction périodique des
+ * suggestions, popularité), et la version courante ne garantit pas leur contenu.
+ */
+@Component
+public class CatalogETagFilter extends OncePerRequestFilter {
+
+    private static final String CATALOG_PATH = "/api/products";
+
+    /**
+     * Lectures servies par les structures en mémoire, exclues du filtre
+     */
+    private static final Set<String> IN_MEMORY_PATHS = Set.of(
+            CATALOG_PATH + "/search",
+            CATALOG_PATH + "/suggest",
+            CATALOG_PATH + "/categories",
+            CATALOG_PATH + "/categories/facets",
+            CATALOG_PATH + "/low-stock",
+            CATALOG_PATH + "/out-of-stock");
+
+    @Autowired
+    private CatalogVersion catalogVersion;
+
+    /**
+     * Le filtre ne concerne que les lectures du catalogue calculées à partir de
+     * la base (hors endpoint de test et structures en mémoire)
+     */
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        String path = request.getRequestURI().substring(request.getContextPath().length());
+        boolean catalogPath = path.equals(CATALOG_PATH) || path.startsWith(CATALOG_PATH + "/");
+        return !catalogPath
+                || path.equals(CATALOG_PATH + "/test")
+                || IN_MEMORY_PATHS.contains(path)
+                || !("GET".equals(request.getMethod()) || "HEAD".equals(request.getMethod()));
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request,
+                                    HttpServletResponse response,
+                                    FilterChain filterChain) throws ServletException, IOException {
+        boolean gzip = CatalogResponseCache.acceptsGzip(request.getHeader(HttpHeaders.ACCEPT_ENCODING));
+        String etag = "\"c" + catalogVersion.current() + (gzip ? "-gz" : "") + "\"";
+        response.addHeader(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+
+        if (matches(request.getHeader(HttpHeaders.IF_NONE_MATCH), etag)) {
+            response.setStatus(HttpServletResponse.SC_NOT_MODIFIED);
+            response.setHeader(HttpHeaders.ETAG, etag);
+            return;
+        }
+
+        response.setHeader(HttpHeaders.ETAG, etag);
+        response.setHeader(HttpHeaders.CACHE_CONTROL, "no-cache");
+        filterChain.doFilter(request, response);
+    }
+
+    /**
+     * Vérifie si l'en-tête If-None-Match contient l'ETag courant
+     *
+     * @param ifNoneMatch Valeur de l'en-tête (peut contenir plusieurs ETags)
+     * @param etag        ETag courant
+     * @return true si le client possède déjà la version courante
+     */
+    private static boolean matches(String ifNoneMatch, String etag) {
+        if (ifNoneMatch == null || ifNoneMatch.isBlank()) {
+            return false;
+        }
+        for (String candidate : ifNoneMatch.split(",")) {
+            String tag = candidate.trim();
+            if (tag.startsWith("W/")) {
+                tag = tag.substring(2);
+            }
+            if (tag.equals("*") || tag.equals(etag)) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
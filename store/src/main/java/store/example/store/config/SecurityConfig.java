@@ -1,5 +1,10 @@
 package store.example.store.config;
 
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import store.example.store.security.CalibratedBCryptPasswordEncoder;
 import store.example.store.security.JwtAuthenticationFilter;
 import store.example.store.security.UserDetailsServiceImpl;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -11,17 +16,21 @@ import org.springframework.security.config.annotation.authentication.configurati
 import org.springframework.security.config.annotation.method.configuration.EnableMethodSecurity;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.config.annotation.web.configuration.EnableWebSecurity;
-import org.springframework.security.config.http.SessionCreationPolicy;
+import org.springframework.security.config.annotation.web.configurers.AbstractHttpConfigurer;
 import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.DelegatingPasswordEncoder;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.security.web.SecurityFilterChain;
 import org.springframework.security.web.authentication.UsernamePasswordAuthenticationFilter;
+import org.springframework.security.web.context.RequestAttributeSecurityContextRepository;
+import org.springframework.security.web.savedrequest.NullRequestCache;
 import org.springframework.web.cors.CorsConfiguration;
 import org.springframework.web.cors.CorsConfigurationSource;
 import org.springframework.web.cors.UrlBasedCorsConfigurationSource;
 
 import java.util.Arrays;
 import java.util.List;
+import java.util.Map;
 
 /**
  * Configuration de sécurité Spring Security
@@ -31,6 +40,20 @@ import java.util.List;
 @EnableMethodSecurity(prePostEnabled = true)
 public class SecurityConfig {
 
+    private static final Logger log = LoggerFactory.getLogger(SecurityConfig.class);
+
+    /**
+     * Routes accessibles sans authentification
+     * 
+     * Le filtre JWT n'y vérifie le token que si le traitement de la requête
+     * a besoin de l'utilisateur connecté (ex. déconnexion).
+     */
+    public static final String[] PUBLIC_ROUTES = {
+            "/api/auth/**",
+            "/api/products/**",
+            "/h2-console/**"
+    };
+
     @Autowired
     private UserDetailsServiceImpl userDetailsService;
 
@@ -41,12 +64,34 @@ public class SecurityConfig {
     @Value("${cors.allowed-origins}")
     private String allowedOrigins;
 
+    // Coût BCrypt imposé (0 = calibrage au démarrage selon le budget ci-dessous)
+    @Value("${auth.password.bcrypt-strength:0}")
+    private int bcryptStrength;
+
+    // Durée visée pour un hachage de mot de passe
+    @Value("${auth.password.hash-budget-ms:250}")
+    private long hashBudgetMs;
+
     /**
      * Encodeur de mots de passe avec BCrypt
+     * 
+     * Le coût est calibré au démarrage. Les hachages sont préfixés par {bcrypt} ;
+     * les anciens hachages sans préfixe restent reconnus, et tout hachage dont le
+     * coût diffère est ré-encodé à la connexion suivante. Le coût retenu est
+     * exposé par la jauge auth.hashing.bcrypt.strength.
      */
     @Bean
-    public PasswordEncoder passwordEncoder() {
-        return new BCryptPasswordEncoder();
+    public PasswordEncoder passwordEncoder(MeterRegistry meterRegistry) {
+        int strength = bcryptStrength > 0 ? bcryptStrength : CalibratedBCryptPasswordEncoder.calibrate(hashBudgetMs);
+        log.info("Coût BCrypt retenu : {}", strength);
+        Gauge.builder("auth.hashing.bcrypt.strength", () -> strength)
+                .description("Coût BCrypt des nouveaux hachages de mots de passe")
+                .register(meterRegistry);
+
+        DelegatingPasswordEncoder encoder = new DelegatingPasswordEncoder("bcrypt",
+                Map.of("bcrypt", new CalibratedBCryptPasswordEncoder(strength)));
+        encoder.setDefaultPasswordEncoderForMatches(new BCryptPasswordEncoder());
+        return encoder;
     }
 
     /**
@@ -87,15 +132,22 @@ public class SecurityConfig {
             // Désactivation CSRF pour API REST
             .csrf(csrf -> csrf.disable())
 
-            // Sessions désactivées (stateless pour JWT)
-            .sessionManagement(session -> session.sessionCreationPolicy(SessionCreationPolicy.STATELESS))
+            // Sessions désactivées (stateless pour JWT) : le contexte de sécurité ne vit que le temps
+            // de la requête et aucune requête n'est mémorisée en session. La gestion de session est
+            // désactivée plutôt que configurée STATELESS : son filtre lirait le contexte de sécurité
+            // à chaque requête et annulerait l'authentification différée des routes publiques
+            .sessionManagement(AbstractHttpConfigurer::disable)
+            .securityContext(context -> context.securityContextRepository(new RequestAttributeSecurityContextRepository()))
+            .requestCache(cache -> cache.requestCache(new NullRequestCache()))
+
+            // L'utilisateur est lu via SecurityContextHolder, jamais via HttpServletRequest#getUserPrincipal.
+            // Sans cette intégration, Spring MVC ne lit plus l'utilisateur de chaque requête
+            // (ServletRequestHandledEvent), lecture qui annulerait l'authentification différée
+            .servletApi(AbstractHttpConfigurer::disable)
 
             // Autorisations par endpoint
             .authorizeHttpRequests(authz -> authz
-                .requestMatchers("/api/auth/**").permitAll()
-                .requestMatchers("/api/products/**").permitAll()
-                .requestMatchers("/api/products/categories").permitAll()
-                .requestMatchers("/h2-console/**").permitAll()
+                .requestMatchers(PUBLIC_ROUTES).permitAll()
                 .requestMatchers("/api/cart/**").authenticated()
                 .requestMatchers("/api/orders/**").authenticated()
                 .requestMatchers("/api/users/**").authenticated()
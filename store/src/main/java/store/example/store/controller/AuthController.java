@@ -3,9 +3,14 @@ package store.example.store.controller;
 import store.example.store.dto.request.LoginRequest;
 import store.example.store.dto.request.RegisterRequest;
 import store.example.store.dto.reponse.AuthResponse;
+import store.example.store.exception.ServiceUnavailableException;
+import store.example.store.exception.TooManyRequestsException;
 import store.example.store.service.AuthService;
+import jakarta.servlet.http.HttpServletRequest;
 import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.security.core.context.SecurityContextHolder;
@@ -30,16 +35,22 @@ public class AuthController {
      * Endpoint pour l'inscription d'un nouvel utilisateur
      * 
      * @param registerRequest Données d'inscription
+     * @param request Requête HTTP (adresse IP du client)
      * @return Réponse d'authentification avec le token JWT
      */
     @PostMapping("/register")
-    public ResponseEntity<?> registerUser(@Valid @RequestBody RegisterRequest registerRequest) {
+    public ResponseEntity<?> registerUser(@Valid @RequestBody RegisterRequest registerRequest,
+            HttpServletRequest request) {
         try {
-            AuthResponse authResponse = authService.registerUser(registerRequest);
+            AuthResponse authResponse = authService.registerUser(registerRequest, request.getRemoteAddr());
             return ResponseEntity.ok(authResponse);
         } catch (IllegalArgumentException e) {
             return ResponseEntity.badRequest()
                     .body(Map.of("error", e.getMessage()));
+        } catch (TooManyRequestsException e) {
+            return tooManyRequests(e);
+        } catch (ServiceUnavailableException e) {
+            return serviceUnavailable(e);
         } catch (Exception e) {
             return ResponseEntity.internalServerError()
                     .body(Map.of("error", "Erreur lors de l'inscription"));
@@ -50,16 +61,22 @@ public class AuthController {
      * Endpoint pour la connexion d'un utilisateur existant
      *
      * @param loginRequest Données de connexion
+     * @param request Requête HTTP (adresse IP du client)
      * @return Réponse d'authentification avec le token JWT
      */
     @PostMapping("/login")
-    public ResponseEntity<?> authenticateUser(@Valid @RequestBody LoginRequest loginRequest) {
+    public ResponseEntity<?> authenticateUser(@Valid @RequestBody LoginRequest loginRequest,
+            HttpServletRequest request) {
         try {
-            AuthResponse authResponse = authService.authenticateUser(loginRequest);
+            AuthResponse authResponse = authService.authenticateUser(loginRequest, request.getRemoteAddr());
             return ResponseEntity.ok(authResponse);
         } catch (IllegalArgumentException e) {
             return ResponseEntity.badRequest()
                     .body(Map.of("error", e.getMessage()));
+        } catch (TooManyRequestsException e) {
+            return tooManyRequests(e);
+        } catch (ServiceUnavailableException e) {
+            return serviceUnavailable(e);
         } catch (Exception e) {
             return ResponseEntity.internalServerError()
                     .body(Map.of("error", "Erreur lors de la connexion"));
@@ -69,16 +86,20 @@ public class AuthController {
     /**
      * Endpoint pour la déconnexion d'un utilisateur
      *
+     * @param authorization En-tête Authorization portant le token à révoquer
      * @return Message de confirmation de déconnexion
      */
     @PostMapping("/logout")
-    public ResponseEntity<?> logoutUser() {
+    public ResponseEntity<?> logoutUser(
+            @RequestHeader(value = HttpHeaders.AUTHORIZATION, required = false) String authorization) {
         try {
-            // La déconnexion côté serveur est principalement pour les logs ou la révocation de tokens si implémenté
-            // Avec JWT, la gestion de la déconnexion est souvent côté client (suppression du token)
-            // Ici, nous allons simplement effacer le contexte de sécurité si un utilisateur est authentifié
+            // Le token présenté est révoqué : il est refusé dès la requête suivante,
+            // même s'il n'a pas encore expiré
             String email = SecurityContextHolder.getContext().getAuthentication().getName();
-            authService.logoutUser(email);
+            String token = authorization != null && authorization.startsWith("Bearer ")
+                    ? authorization.substring(7)
+                    : null;
+            authService.logoutUser(email, token);
             return ResponseEntity.ok(Map.of("message", "Déconnexion réussie pour l'utilisateur: " + email));
         } catch (Exception e) {
             return ResponseEntity.internalServerError()
@@ -103,4 +124,28 @@ public class AuthController {
                     .body(Map.of("valid", false, "error", "Erreur lors de la validation du token"));
         }
     }
-}
\ No newline at end of file
+
+    /**
+     * Réponse 503 renvoyée lorsque le pool de hachage des mots de passe est saturé
+     * 
+     * @param e Exception de saturation
+     * @return Réponse 503 avec l'en-tête Retry-After
+     */
+    private ResponseEntity<?> serviceUnavailable(ServiceUnavailableException e) {
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, "1")
+                .body(Map.of("error", e.getMessage()));
+    }
+
+    /**
+     * Réponse 429 renvoyée lorsque la limite de tentatives est atteinte
+     * 
+     * @param e Exception de dépassement de limite
+     * @return Réponse 429 avec l'en-tête Retry-After
+     */
+    private ResponseEntity<?> tooManyRequests(TooManyRequestsException e) {
+        return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                .header(HttpHeaders.RETRY_AFTER, String.valueOf(e.getRetryAfterSeconds()))
+                .body(Map.of("error", e.getMessage()));
+    }
+}
@@ -1,10 +1,13 @@
 package store.example.store.controller;
 
+import store.example.store.dto.request.CartBatchRequest;
 import store.example.store.dto.request.CartItemRequest;
+import store.example.store.dto.reponse.CartBatchResponse;
+import store.example.store.dto.reponse.CartDeltaResponse;
 import store.example.store.dto.reponse.CartResponse;
-import store.example.store.entity.User;
+import store.example.store.dto.reponse.CartSummaryResponse;
+import store.example.store.security.UserPrincipal;
 import store.example.store.service.CartService;
-import store.example.store.service.UserService;
 import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.ResponseEntity;
@@ -28,9 +31,6 @@ public class CartController {
     @Autowired
     private CartService cartService;
 
-    @Autowired
-    private UserService userService;
-
     /**
      * Récupère le contenu du panier de l'utilisateur connecté
      * 
@@ -52,14 +52,14 @@ public class CartController {
      * Ajoute un article au panier
      * 
      * @param request Données de l'article à ajouter
-     * @return Panier mis à jour
+     * @return Ligne ajoutée ou modifiée et nouveaux totaux du panier
      */
     @PostMapping("/items")
     public ResponseEntity<?> addToCart(@Valid @RequestBody CartItemRequest request) {
         try {
             Long userId = getCurrentUserId();
-            CartResponse cart = cartService.addToCart(userId, request);
-            return ResponseEntity.ok(cart);
+            CartDeltaResponse delta = cartService.addToCart(userId, request);
+            return ResponseEntity.ok(delta);
         } catch (IllegalArgumentException e) {
             return ResponseEntity.badRequest()
                     .body(Map.of("error", e.getMessage()));
@@ -69,20 +69,42 @@ public class CartController {
         }
     }
 
+    /**
+     * Applique plusieurs opérations au panier en une seule requête
+     * (commande à nouveau, liste enregistrée...)
+     * 
+     * @param request Opérations à appliquer, dans l'ordre
+     * @return Panier final et résultat de chaque opération
+     */
+    @PostMapping("/items/batch")
+    public ResponseEntity<?> applyBatch(@Valid @RequestBody CartBatchRequest request) {
+        try {
+            Long userId = getCurrentUserId();
+            CartBatchResponse batch = cartService.applyBatch(userId, request);
+            return ResponseEntity.ok(batch);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest()
+                    .body(Map.of("error", e.getMessage()));
+        } catch (Exception e) {
+            return ResponseEntity.internalServerError()
+                    .body(Map.of("error", "Erreur lors de la mise à jour du panier"));
+        }
+    }
+
     /**
      * Met à jour la quantité d'un article dans le panier
      * 
      * @param itemId  ID de l'article dans le panier
      * @param request Nouvelle quantité
-     * @return Panier mis à jour
+     * @return Ligne modifiée et nouveaux totaux du panier
      */
     @PutMapping("/items/{itemId}")
     public ResponseEntity<?> updateCartItem(@PathVariable Long itemId,
             @Valid @RequestBody CartItemRequest request) {
         try {
             Long userId = getCurrentUserId();
-            CartResponse cart = cartService.updateCartItem(userId, itemId, request.getQuantity());
-            return ResponseEntity.ok(cart);
+            CartDeltaResponse delta = cartService.updateCartItem(userId, itemId, request.getQuantity());
+            return ResponseEntity.ok(delta);
         } catch (IllegalArgumentException e) {
             return ResponseEntity.badRequest()
                     .body(Map.of("error", e.getMessage()));
@@ -96,14 +118,14 @@ public class CartController {
      * Supprime un article du panier
      * 
      * @param itemId ID de l'article à supprimer
-     * @return Panier mis à jour
+     * @return ID de la ligne supprimée et nouveaux totaux du panier
      */
     @DeleteMapping("/items/{itemId}")
     public ResponseEntity<?> removeFromCart(@PathVariable Long itemId) {
         try {
             Long userId = getCurrentUserId();
-            CartResponse cart = cartService.removeFromCart(userId, itemId);
-            return ResponseEntity.ok(cart);
+            CartDeltaResponse delta = cartService.removeFromCart(userId, itemId);
+            return ResponseEntity.ok(delta);
         } catch (IllegalArgumentException e) {
             return ResponseEntity.badRequest()
                     .body(Map.of("error", e.getMessage()));
@@ -130,6 +152,23 @@ public class CartController {
         }
     }
 
+    /**
+     * Récupère le résumé du panier (nombre d'articles, quantité et montant totaux)
+     * 
+     * @return Résumé du panier
+     */
+    @GetMapping("/summary")
+    public ResponseEntity<?> getCartSummary() {
+        try {
+            Long userId = getCurrentUserId();
+            CartSummaryResponse summary = cartService.getCartSummary(userId);
+            return ResponseEntity.ok(summary);
+        } catch (Exception e) {
+            return ResponseEntity.internalServerError()
+                    .body(Map.of("error", "Erreur lors de la récupération du résumé du panier"));
+        }
+    }
+
     /**
      * Récupère le nombre d'articles dans le panier
      * 
@@ -190,14 +229,10 @@ public class CartController {
      */
     private Long getCurrentUserId() {
         Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
-        String email = authentication.getName();
-
-        try {
-            // Récupérer l'utilisateur depuis la base de données par son email
-            User user = userService.findByEmail(email);
-            return user.getId(); // Retourner le vrai ID de l'utilisateur
-        } catch (Exception e) {
-            throw new RuntimeException("Impossible de récupérer l'utilisateur connecté: " + email, e);
+        if (authentication != null && authentication.getPrincipal() instanceof UserPrincipal principal) {
+            // L'ID est porté par le token : aucune requête en base n'est nécessaire
+            return principal.getId();
         }
+        throw new RuntimeException("Impossible de récupérer l'utilisateur connecté");
     }
 }
\ No newline at end of file
@@ -1,13 +1,16 @@
 package store.example.store.controller;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 import store.example.store.entity.Product;
 import store.example.store.entity.Order;
 import store.example.store.service.ProductService;
 import store.example.store.service.OrderService;
+import store.example.store.service.StockWatchList;
 
 import java.util.List;
 
@@ -28,6 +31,9 @@ public class ManagerController {
     @Autowired
     private OrderService orderService;
 
+    @Autowired
+    private StockWatchList stockWatchList;
+
     /**
      * Obtenir toutes les commandes (pour gestion)
      * 
@@ -96,6 +102,19 @@ public class ManagerController {
         return ResponseEntity.ok(updatedProduct);
     }
 
+    /**
+     * S'abonner aux alertes de stock (Server-Sent Events)
+     * 
+     * Un événement « stock » est envoyé chaque fois qu'un produit passe
+     * en stock faible, en rupture ou revient en stock.
+     * 
+     * @return Flux d'alertes de stock
+     */
+    @GetMapping(value = "/stock/alerts", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter subscribeToStockAlerts() {
+        return stockWatchList.subscribe();
+    }
+
     /**
      * Obtenir les statistiques des ventes
      * 
@@ -3,9 +3,8 @@ package store.example.store.controller;
 import store.example.store.dto.request.OrderRequest;
 import store.example.store.dto.reponse.OrderResponse;
 import store.example.store.entity.Order;
-import store.example.store.entity.User;
+import store.example.store.security.UserPrincipal;
 import store.example.store.service.OrderService;
-import store.example.store.service.UserService;
 import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.Page;
@@ -31,9 +30,6 @@ public class OrderController {
     @Autowired
     private OrderService orderService;
 
-    @Autowired
-    private UserService userService;
-
     /**
      * Crée une nouvelle commande à partir du panier
      * 
@@ -245,14 +241,10 @@ public class OrderController {
      */
     private Long getCurrentUserId() {
         Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
-        String email = authentication.getName();
-
-        try {
-            // Récupérer l'utilisateur depuis la base de données par son email
-            User user = userService.findByEmail(email);
-            return user.getId(); // Retourner le vrai ID de l'utilisateur
-        } catch (Exception e) {
-            throw new RuntimeException("Impossible de récupérer l'utilisateur connecté: " + email, e);
+        if (authentication != null && authentication.getPrincipal() instanceof UserPrincipal principal) {
+            // L'ID est porté par le token : aucune requête en base n'est nécessaire
+            return principal.getId();
         }
+        throw new RuntimeException("Impossible de récupérer l'utilisateur connecté");
     }
 }
\ No newline at end of file
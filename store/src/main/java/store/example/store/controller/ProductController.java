@@ -1,8 +1,18 @@
 package store.example.store.controller;
 
+import store.example.store.dto.reponse.CategoryFacetResponse;
+import store.example.store.dto.reponse.ProductBatchResponse;
+import store.example.store.dto.reponse.ProductPageResponse;
 import store.example.store.dto.reponse.ProductResponse;
+import store.example.store.dto.reponse.SuggestionResponse;
+import store.example.store.dto.request.ProductBatchRequest;
+import store.example.store.service.CatalogResponseCache;
 import store.example.store.service.ProductService;
+import store.example.store.service.ProductSuggester;
+import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
@@ -23,16 +33,87 @@ public class ProductController {
     @Autowired
     private ProductService productService;
 
+    @Autowired
+    private ProductSuggester productSuggester;
+
+    @Autowired
+    private CatalogResponseCache catalogResponseCache;
+
     /**
      * Récupère tous les produits disponibles
      * 
-     * @return Liste des produits disponibles
+     * @param acceptEncoding Codages acceptés par le client
+     * @return Liste des produits disponibles (JSON pré-sérialisé)
      */
     @GetMapping
-    public ResponseEntity<List<ProductResponse>> getAllProducts() {
+    public ResponseEntity<byte[]> getAllProducts(
+            @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding) {
         try {
-            List<ProductResponse> products = productService.getAllAvailableProducts();
-            return ResponseEntity.ok(products);
+            CatalogResponseCache.CachedBody body = catalogResponseCache.get(
+                    "products", productService::getAllAvailableProducts);
+            return cachedJson(body, acceptEncoding);
+        } catch (Exception e) {
+            return ResponseEntity.internalServerError().build();
+        }
+    }
+
+    /**
+     * Récupère une page de produits disponibles (pagination par curseur)
+     * 
+     * @param cursor Curseur opaque renvoyé par la page précédente
+     * @param size   Nombre de produits par page
+     * @param sort   Option de tri (ID, NEWEST, PRICE_ASC, PRICE_DESC, NAME)
+     * @return Page de produits et curseur de la page suivante
+     */
+    @GetMapping("/page")
+    public ResponseEntity<?> getProductsPage(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer size,
+            @RequestParam(defaultValue = "ID") String sort) {
+        try {
+            ProductPageResponse page = productService.getAvailableProductsPage(cursor, size, sort);
+            return ResponseEntity.ok(page);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest()
+                    .body(Map.of("error", e.getMessage()));
+        } catch (Exception e) {
+            return ResponseEntity.internalServerError().build();
+        }
+    }
+
+    /**
+     * Récupère plusieurs produits par leurs IDs
+     * 
+     * @param ids IDs des produits (séparés par des virgules)
+     * @return Produits trouvés dans l'ordre demandé et IDs introuvables
+     */
+    @GetMapping("/batch")
+    public ResponseEntity<?> getProductsByIds(@RequestParam List<Long> ids) {
+        try {
+            ProductBatchResponse batch = productService.getProductsByIds(ids);
+            return ResponseEntity.ok(batch);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest()
+                    .body(Map.of("error", e.getMessage()));
+        } catch (Exception e) {
+            return ResponseEntity.internalServerError().build();
+        }
+    }
+
+    /**
+     * Récupère plusieurs produits par leurs IDs (variante POST pour les longues listes)
+     * 
+     * @param request Liste des IDs des produits
+     * @return Produits trouvés dans l'ordre demandé et IDs introuvables
+     */
+    @PostMapping("/batch")
+    public ResponseEntity<?> getProductsByIds(@Valid @RequestBody ProductBatchRequest request) {
+        try {
+            ProductBatchResponse batch = productService.getProductsByIds(request.getIds());
+            return ResponseEntity.ok(batch);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest()
+                    .body(Map.of("error", e.getMessage()));
         } catch (Exception e) {
             return ResponseEntity.internalServerError().build();
         }
@@ -57,45 +138,88 @@ public class ProductController {
     /**
      * Récupère les produits par catégorie
      * 
-     * @param category Catégorie recherchée
-     * @return Liste des produits de cette catégorie
+     * @param category       Catégorie recherchée
+     * @param acceptEncoding Codages acceptés par le client
+     * @return Liste des produits de cette catégorie (JSON pré-sérialisé)
      */
     @GetMapping("/category/{category}")
-    public ResponseEntity<List<ProductResponse>> getProductsByCategory(@PathVariable String category) {
+    public ResponseEntity<byte[]> getProductsByCategory(@PathVariable String category,
+            @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding) {
         try {
-            List<ProductResponse> products = productService.getProductsByCategory(category);
-            return ResponseEntity.ok(products);
+            CatalogResponseCache.CachedBody body = catalogResponseCache.get(
+                    "category:" + category, () -> productService.getProductsByCategory(category));
+            return cachedJson(body, acceptEncoding);
         } catch (Exception e) {
             return ResponseEntity.internalServerError().build();
         }
     }
 
     /**
-     * Recherche des produits par nom
+     * Recherche des produits par nom, description ou catégorie
      * 
-     * @param name Nom ou partie du nom à rechercher
-     * @return Liste des produits correspondants
+     * @param name  Texte à rechercher (insensible à la casse et aux accents)
+     * @param limit Nombre maximal de résultats
+     * @param fuzzy true pour tolérer les fautes de frappe
+     * @return Liste des produits correspondants, classés par pertinence
      */
     @GetMapping("/search")
-    public ResponseEntity<List<ProductResponse>> searchProducts(@RequestParam String name) {
+    public ResponseEntity<List<ProductResponse>> searchProducts(@RequestParam String name,
+            @RequestParam(defaultValue = "20") int limit,
+            @RequestParam(defaultValue = "false") boolean fuzzy) {
         try {
-            List<ProductResponse> products = productService.searchProductsByName(name);
+            List<ProductResponse> products = productService.searchProducts(name, limit, fuzzy);
             return ResponseEntity.ok(products);
         } catch (Exception e) {
             return ResponseEntity.internalServerError().build();
         }
     }
 
+    /**
+     * Suggestions d'autocomplétion (produits et catégories) pour un préfixe
+     * 
+     * @param prefix Texte en cours de saisie
+     * @param limit  Nombre maximal de suggestions
+     * @return Suggestions classées par popularité
+     */
+    @GetMapping("/suggest")
+    public ResponseEntity<List<SuggestionResponse>> suggest(@RequestParam String prefix,
+            @RequestParam(defaultValue = "10") int limit) {
+        try {
+            List<SuggestionResponse> suggestions = productSuggester.suggest(prefix, limit);
+            return ResponseEntity.ok(suggestions);
+        } catch (Exception e) {
+            return ResponseEntity.internalServerError().build();
+        }
+    }
+
     /**
      * Récupère toutes les catégories disponibles
      * 
-     * @return Liste des catégories
+     * @param acceptEncoding Codages acceptés par le client
+     * @return Liste des catégories (JSON pré-sérialisé)
      */
     @GetMapping("/categories")
-    public ResponseEntity<List<String>> getAllCategories() {
+    public ResponseEntity<byte[]> getAllCategories(
+            @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding) {
         try {
-            List<String> categories = productService.getAllCategories();
-            return ResponseEntity.ok(categories);
+            CatalogResponseCache.CachedBody body = catalogResponseCache.get(
+                    "categories", productService::getAllCategories);
+            return cachedJson(body, acceptEncoding);
+        } catch (Exception e) {
+            return ResponseEntity.internalServerError().build();
+        }
+    }
+
+    /**
+     * Récupère les catégories avec leur nombre de produits disponibles et en stock
+     * 
+     * @return Décomptes par catégorie
+     */
+    @GetMapping("/categories/facets")
+    public ResponseEntity<List<CategoryFacetResponse>> getCategoryFacets() {
+        try {
+            List<CategoryFacetResponse> facets = productService.getCategoryFacets();
+            return ResponseEntity.ok(facets);
         } catch (Exception e) {
             return ResponseEntity.internalServerError().build();
         }
@@ -166,4 +290,19 @@ public class ProductController {
                 "message", "L'API des produits fonctionne correctement",
                 "timestamp", System.currentTimeMillis()));
     }
+
+    /**
+     * Construit une réponse à partir d'un corps JSON pré-sérialisé
+     * 
+     * @param body           Corps en cache
+     * @param acceptEncoding Codages acceptés par le client
+     * @return Réponse contenant directement les octets (compressés si possible)
+     */
+    private ResponseEntity<byte[]> cachedJson(CatalogResponseCache.CachedBody body, String acceptEncoding) {
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok().contentType(MediaType.APPLICATION_JSON);
+        if (body.useGzip(acceptEncoding)) {
+            return response.header(HttpHeaders.CONTENT_ENCODING, "gzip").body(body.gzip());
+        }
+        return response.body(body.json());
+    }
 }
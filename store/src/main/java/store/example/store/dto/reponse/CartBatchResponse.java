@@ -0,0 +1,67 @@
+package store.example.store.dto.reponse;
+
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * DTO pour la réponse d'une modification du panier par lot
+ * 
+ * Le panier est renvoyé une seule fois, dans son état final,
+ * avec le résultat de chaque opération dans l'ordre de la demande.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class CartBatchResponse {
+
+    /**
+     * Panier après application des opérations réussies
+     */
+    private CartResponse cart;
+
+    /**
+     * Résultat de chaque opération, dans l'ordre de la demande
+     */
+    private List<OperationResult> results;
+
+    /**
+     * Nombre d'opérations refusées
+     */
+    private int failed;
+
+    /**
+     * Résultat d'une opération du lot
+     */
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    @Builder
+    public static class OperationResult {
+
+        /**
+         * Position de l'opération dans la demande (à partir de 0)
+         */
+        private int index;
+
+        /**
+         * ID du produit concerné
+         */
+        private Long productId;
+
+        /**
+         * Indique si l'opération a été appliquée
+         */
+        private boolean success;
+
+        /**
+         * Raison du refus (null si l'opération a été appliquée)
+         */
+        private String error;
+    }
+}
@@ -0,0 +1,47 @@
+package store.example.store.dto.reponse;
+
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+
+/**
+ * DTO pour la réponse d'une modification du panier
+ * 
+ * Seule la ligne modifiée est renvoyée, avec les nouveaux totaux du panier ;
+ * le panier complet reste disponible via GET /api/cart.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class CartDeltaResponse {
+
+    /**
+     * Ligne ajoutée ou modifiée (null si la ligne a été supprimée)
+     */
+    private CartResponse.CartItemResponse item;
+
+    /**
+     * ID de la ligne supprimée (null sinon)
+     */
+    private Long removedItemId;
+
+    /**
+     * Nombre total d'articles dans le panier
+     */
+    private int totalItems;
+
+    /**
+     * Quantité totale de tous les articles
+     */
+    private int totalQuantity;
+
+    /**
+     * Montant total du panier
+     */
+    private BigDecimal totalAmount;
+}
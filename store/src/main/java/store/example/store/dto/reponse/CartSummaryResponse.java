@@ -0,0 +1,66 @@
+package store.example.store.dto.reponse;
+
+
+import store.example.store.entity.CartSummary;
+import store.example.store.repository.CartTotalsView;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+
+/**
+ * DTO pour la réponse du résumé du panier (badge de l'en-tête)
+ * 
+ * Cette classe contient les totaux du panier, sans ses articles.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class CartSummaryResponse {
+
+    /**
+     * Nombre total d'articles dans le panier
+     */
+    private int totalItems;
+
+    /**
+     * Quantité totale de tous les articles
+     */
+    private int totalQuantity;
+
+    /**
+     * Montant total du panier
+     */
+    private BigDecimal totalAmount;
+
+    /**
+     * Crée un CartSummaryResponse à partir d'une entité CartSummary
+     * 
+     * @param summary L'entité CartSummary
+     * @return Un CartSummaryResponse
+     */
+    public static CartSummaryResponse fromEntity(CartSummary summary) {
+        return CartSummaryResponse.builder()
+                .totalItems(summary.getLineCount())
+                .totalQuantity(summary.getTotalQuantity())
+                .totalAmount(summary.getTotalAmount())
+                .build();
+    }
+
+    /**
+     * Crée un CartSummaryResponse à partir des totaux du panier
+     * 
+     * @param totals Totaux du panier
+     * @return Un CartSummaryResponse
+     */
+    public static CartSummaryResponse fromTotals(CartTotalsView totals) {
+        return CartSummaryResponse.builder()
+                .totalItems(totals.getTotalItems().intValue())
+                .totalQuantity(totals.getTotalQuantity().intValue())
+                .totalAmount(totals.getTotalAmount())
+                .build();
+    }
+}
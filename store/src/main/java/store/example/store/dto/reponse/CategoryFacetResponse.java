@@ -0,0 +1,32 @@
+package store.example.store.dto.reponse;
+
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * DTO pour le décompte des produits d'une catégorie
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class CategoryFacetResponse {
+
+    /**
+     * Nom de la catégorie
+     */
+    private String category;
+
+    /**
+     * Nombre de produits disponibles dans la catégorie
+     */
+    private long availableCount;
+
+    /**
+     * Nombre de produits disponibles et en stock dans la catégorie
+     */
+    private long inStockCount;
+}
@@ -0,0 +1,32 @@
+package store.example.store.dto.reponse;
+
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * DTO pour la réponse d'une récupération de plusieurs produits
+ * 
+ * Les produits sont renvoyés dans l'ordre des IDs demandés ;
+ * les IDs inexistants sont listés séparément.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class ProductBatchResponse {
+
+    /**
+     * Produits trouvés, dans l'ordre de la demande
+     */
+    private List<ProductResponse> products;
+
+    /**
+     * IDs demandés qui ne correspondent à aucun produit
+     */
+    private List<Long> missingIds;
+}
@@ -0,0 +1,47 @@
+package store.example.store.dto.reponse;
+
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * DTO pour une page du catalogue paginée par curseur
+ * 
+ * Cette classe contient les produits de la page ainsi qu'un curseur opaque
+ * permettant de récupérer la page suivante, sans calcul du nombre total d'éléments.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class ProductPageResponse {
+
+    /**
+     * Produits de la page (sans la description)
+     */
+    private List<ProductSummaryResponse> items;
+
+    /**
+     * Nombre de produits demandés par page
+     */
+    private int size;
+
+    /**
+     * Option de tri appliquée
+     */
+    private String sort;
+
+    /**
+     * Curseur opaque de la page suivante (null s'il n'y a plus de page)
+     */
+    private String nextCursor;
+
+    /**
+     * Indique s'il existe une page suivante
+     */
+    private boolean hasMore;
+}
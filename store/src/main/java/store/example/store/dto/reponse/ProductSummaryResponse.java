@@ -0,0 +1,92 @@
+package store.example.store.dto.reponse;
+
+
+import store.example.store.repository.ProductSummaryView;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * DTO allégé pour les listes de produits
+ * 
+ * Cette classe reprend les informations d'un produit sans sa description.
+ * Elle est construite par fromView à partir de la projection ProductSummaryView
+ * (pagination du catalogue), sans charger d'entité Product dans le contexte de
+ * persistance.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class ProductSummaryResponse {
+
+    /**
+     * ID du produit
+     */
+    private Long id;
+
+    /**
+     * Nom du produit
+     */
+    private String name;
+
+    /**
+     * Prix du produit
+     */
+    private BigDecimal price;
+
+    /**
+     * Catégorie du produit
+     */
+    private String category;
+
+    /**
+     * URL de l'image du produit
+     */
+    private String imageUrl;
+
+    /**
+     * Disponibilité du produit
+     */
+    private boolean available;
+
+    /**
+     * Quantité en stock
+     */
+    private int stockQuantity;
+
+    /**
+     * Date de création du produit
+     */
+    private LocalDateTime createdAt;
+
+    /**
+     * Indique si le produit est en stock
+     */
+    public boolean isInStock() {
+        return available && stockQuantity > 0;
+    }
+
+    /**
+     * Crée un ProductSummaryResponse à partir d'une projection
+     * 
+     * @param view Projection des colonnes du produit
+     * @return Un ProductSummaryResponse
+     */
+    public static ProductSummaryResponse fromView(ProductSummaryView view) {
+        return ProductSummaryResponse.builder()
+                .id(view.getId())
+                .name(view.getName())
+                .price(view.getPrice())
+                .category(view.getCategory())
+                .imageUrl(view.getImageUrl())
+                .available(view.isAvailable())
+                .stockQuantity(view.getStockQuantity())
+                .createdAt(view.getCreatedAt())
+                .build();
+    }
+}
@@ -0,0 +1,45 @@
+package store.example.store.dto.reponse;
+
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * DTO pour une alerte de franchissement de seuil de stock
+ * 
+ * Une alerte est envoyée aux managers abonnés lorsqu'un produit disponible
+ * change de niveau de stock (en stock, stock faible, rupture).
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class StockAlertResponse {
+
+    /**
+     * ID du produit
+     */
+    private Long productId;
+
+    /**
+     * Nom du produit
+     */
+    private String name;
+
+    /**
+     * Niveau de stock précédent (IN_STOCK, LOW_STOCK ou OUT_OF_STOCK)
+     */
+    private String previousLevel;
+
+    /**
+     * Nouveau niveau de stock (IN_STOCK, LOW_STOCK ou OUT_OF_STOCK)
+     */
+    private String level;
+
+    /**
+     * Quantité en stock après la modification
+     */
+    private int stockQuantity;
+}
@@ -0,0 +1,34 @@
+package store.example.store.dto.reponse;
+
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * DTO pour une suggestion d'autocomplétion
+ * 
+ * Une suggestion correspond soit à un produit, soit à une catégorie.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class SuggestionResponse {
+
+    /**
+     * Texte proposé à l'utilisateur
+     */
+    private String text;
+
+    /**
+     * Type de suggestion (PRODUCT ou CATEGORY)
+     */
+    private String type;
+
+    /**
+     * ID du produit suggéré (null pour une catégorie)
+     */
+    private Long productId;
+}
@@ -0,0 +1,66 @@
+package store.example.store.dto.request;
+
+
+import jakarta.validation.constraints.NotEmpty;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * DTO pour les requêtes de modification du panier par lot
+ * 
+ * Cette classe contient la liste des opérations (ajout, mise à jour, suppression)
+ * à appliquer au panier en une seule fois, dans l'ordre. Les opérations visent
+ * les lignes par ID de produit : un panier contient au plus une ligne par produit.
+ * Chaque opération est validée séparément, une opération invalide n'empêche pas
+ * l'application des autres.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class CartBatchRequest {
+
+    /**
+     * Opérations à appliquer, dans l'ordre
+     */
+    @NotEmpty(message = "La liste des opérations est obligatoire")
+    private List<Operation> operations;
+
+    /**
+     * Types d'opération disponibles
+     */
+    public enum OperationType {
+        /** Ajoute la quantité à la ligne du produit (la crée si besoin) */
+        ADD,
+        /** Remplace la quantité de la ligne du produit (la crée si besoin) */
+        UPDATE,
+        /** Supprime la ligne du produit */
+        REMOVE
+    }
+
+    /**
+     * Opération sur une ligne du panier
+     */
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Operation {
+
+        /**
+         * Type d'opération
+         */
+        private OperationType type;
+
+        /**
+         * ID du produit concerné
+         */
+        private Long productId;
+
+        /**
+         * Quantité (ignorée pour une suppression)
+         */
+        private Integer quantity;
+    }
+}
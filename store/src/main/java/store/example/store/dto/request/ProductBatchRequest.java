@@ -0,0 +1,26 @@
+package store.example.store.dto.request;
+
+
+import jakarta.validation.constraints.NotEmpty;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * DTO pour les requêtes de récupération de plusieurs produits
+ * 
+ * Cette classe contient la liste des IDs de produits à récupérer en une seule fois.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ProductBatchRequest {
+
+    /**
+     * IDs des produits demandés, dans l'ordre souhaité
+     */
+    @NotEmpty(message = "La liste des IDs est obligatoire")
+    private List<Long> ids;
+}
@@ -0,0 +1,98 @@
+package store.example.store.dto.request;
+
+import org.springframework.data.domain.Sort;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * Options de tri disponibles pour la pagination du catalogue
+ * 
+ * Chaque option définit une clé de tri suivie de l'ID du produit,
+ * ce qui garantit un ordre total et stable pour la pagination par curseur.
+ */
+public enum ProductSort {
+
+    ID(null),
+    NEWEST("createdAt"),
+    PRICE_ASC("price"),
+    PRICE_DESC("price"),
+    NAME("name");
+
+    /**
+     * Propriété de tri principale (null si le tri se fait uniquement sur l'ID)
+     */
+    private final String property;
+
+    ProductSort(String property) {
+        this.property = property;
+    }
+
+    public String getProperty() {
+        return property;
+    }
+
+    /**
+     * Sens du tri pour cette option
+     * 
+     * @return Direction du tri
+     */
+    public Sort.Direction getDirection() {
+        return this == NEWEST || this == PRICE_DESC ? Sort.Direction.DESC : Sort.Direction.ASC;
+    }
+
+    /**
+     * Construit le tri Spring Data correspondant, départagé par l'ID
+     * 
+     * @return Tri à appliquer à la requête
+     */
+    public Sort toSort() {
+        Sort byId = Sort.by(getDirection(), "id");
+        return property == null ? byId : Sort.by(getDirection(), property).and(byId);
+    }
+
+    /**
+     * Convertit la valeur textuelle d'une clé de curseur dans le type de la propriété
+     * 
+     * @param raw Valeur textuelle
+     * @return Valeur typée
+     */
+    public Object parseKey(String raw) {
+        return switch (this) {
+            case NEWEST -> LocalDateTime.parse(raw);
+            case PRICE_ASC, PRICE_DESC -> new BigDecimal(raw);
+            default -> raw;
+        };
+    }
+
+    /**
+     * Convertit une clé de curseur en texte
+     * 
+     * @param value Valeur typée
+     * @return Valeur textuelle
+     */
+    public String formatKey(Object value) {
+        if (value instanceof BigDecimal decimal) {
+            return decimal.toPlainString();
+        }
+        return String.valueOf(value);
+    }
+
+    /**
+     * Résout une option de tri à partir du paramètre de requête
+     * 
+     * @param value Valeur du paramètre (insensible à la casse)
+     * @return Option de tri
+     * @throws IllegalArgumentException Si l'option est inconnue
+     */
+    public static ProductSort fromParam(String value) {
+        if (value == null || value.isBlank()) {
+            return ID;
+        }
+        try {
+            return ProductSort.valueOf(value.trim().toUpperCase());
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Tri invalide : " + value);
+        }
+    }
+}
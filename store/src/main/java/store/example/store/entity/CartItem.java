@@ -5,6 +5,7 @@ package store.example.store.entity;
 import jakarta.persistence.*;
 import lombok.*;
 import org.hibernate.annotations.CreationTimestamp;
+import org.hibernate.annotations.UpdateTimestamp;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
@@ -14,9 +15,14 @@ import java.time.LocalDateTime;
  * 
  * Cette classe fait le lien entre un utilisateur et un produit,
  * en stockant la quantité souhaitée.
+ * 
+ * Un produit n'apparaît qu'une fois dans le panier d'un utilisateur
+ * (contrainte unique sur user_id, product_id) : deux ajouts simultanés
+ * du même produit ne peuvent pas créer de doublon.
  */
 @Entity
-@Table(name = "cart_items")
+@Table(name = "cart_items", uniqueConstraints = @UniqueConstraint(
+        name = "uk_cart_items_user_product", columnNames = { "user_id", "product_id" }))
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
@@ -41,6 +47,13 @@ public class CartItem {
     @CreationTimestamp
     private LocalDateTime createdAt;
 
+    /**
+     * Date de la dernière modification de la ligne (les requêtes SQL directes la renseignent aussi) ;
+     * sert à repérer les paniers abandonnés
+     */
+    @UpdateTimestamp
+    private LocalDateTime updatedAt;
+
     /**
      * Calcule le prix total pour cet article (prix unitaire × quantité)
      * 
@@ -0,0 +1,48 @@
+package store.example.store.entity;
+
+
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.math.BigDecimal;
+
+/**
+ * Entité représentant le résumé du panier d'un utilisateur
+ * 
+ * Cette classe dénormalise le nombre de lignes, la quantité totale et le montant
+ * total du panier. Le résumé est mis à jour par chaque modification du panier, dans
+ * la même transaction, ce qui permet d'afficher le badge du panier par une simple
+ * lecture par clé primaire.
+ * 
+ * Le montant dépend du prix des produits : il est recalculé lorsque les prix
+ * ont changé depuis son calcul (voir priceVersion). Le nombre de lignes et la
+ * quantité n'en dépendent pas.
+ */
+@Entity
+@Table(name = "cart_summaries")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class CartSummary {
+
+    @Id
+    @Column(name = "user_id")
+    private Long userId;
+
+    @Column(nullable = false)
+    private int lineCount;
+
+    @Column(nullable = false)
+    private int totalQuantity;
+
+    @Column(nullable = false, precision = 12, scale = 2)
+    private BigDecimal totalAmount;
+
+    /**
+     * Version des prix au moment du calcul du montant (voir PriceVersion)
+     */
+    @Column(nullable = false)
+    private long priceVersion;
+}
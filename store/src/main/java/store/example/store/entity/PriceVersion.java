@@ -0,0 +1,33 @@
+package store.example.store.entity;
+
+
+
+import jakarta.persistence.*;
+import lombok.*;
+
+/**
+ * Entité représentant la version des prix du catalogue
+ * 
+ * La table ne contient qu'une ligne, incrémentée dans la transaction de chaque
+ * changement de prix ou suppression de produit. Elle est partagée par toutes les
+ * instances de l'application, contrairement à la version du catalogue en mémoire.
+ */
+@Entity
+@Table(name = "price_versions")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class PriceVersion {
+
+    /**
+     * ID de l'unique ligne de la table
+     */
+    public static final long SINGLETON_ID = 1L;
+
+    @Id
+    private Long id;
+
+    @Column(nullable = false)
+    private long version;
+}
@@ -15,7 +15,11 @@ import java.time.LocalDateTime;
  * nom, description, prix, catégorie, image, disponibilité et stock.
  */
 @Entity
-@Table(name = "products")
+@Table(name = "products", indexes = {
+        @Index(name = "idx_products_available_created", columnList = "available, created_at, id"),
+        @Index(name = "idx_products_available_price", columnList = "available, price, id"),
+        @Index(name = "idx_products_available_name", columnList = "available, name, id")
+})
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
@@ -0,0 +1,82 @@
+package store.example.store.event;
+
+
+import store.example.store.dto.reponse.ProductResponse;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * Événement publié après chaque modification d'un produit
+ * 
+ * Cet événement permet aux structures en mémoire (index de recherche, caches, etc.)
+ * de se mettre à jour de manière incrémentale, une fois la transaction validée.
+ */
+@Getter
+@AllArgsConstructor
+public class ProductChangedEvent {
+
+    /**
+     * ID du produit modifié
+     */
+    private final Long productId;
+
+    /**
+     * État du produit après modification (null si le produit a été supprimé)
+     */
+    private final ProductResponse product;
+
+    /**
+     * État du produit avant modification (null si le produit vient d'être créé,
+     * ou s'il a été supprimé)
+     */
+    private final ProductResponse previous;
+
+    /**
+     * Indique si le produit a été supprimé
+     * 
+     * @return true si le produit n'existe plus
+     */
+    public boolean isDeleted() {
+        return product == null;
+    }
+
+    /**
+     * Indique si le produit vient d'être créé
+     * 
+     * @return true si le produit n'avait pas d'état précédent
+     */
+    public boolean isCreated() {
+        return product != null && previous == null;
+    }
+
+    /**
+     * Crée un événement de création
+     * 
+     * @param product État du produit créé
+     * @return Événement correspondant
+     */
+    public static ProductChangedEvent created(ProductResponse product) {
+        return new ProductChangedEvent(product.getId(), product, null);
+    }
+
+    /**
+     * Crée un événement de mise à jour
+     * 
+     * @param previous État du produit avant modification
+     * @param product  État du produit après modification
+     * @return Événement correspondant
+     */
+    public static ProductChangedEvent updated(ProductResponse previous, ProductResponse product) {
+        return new ProductChangedEvent(product.getId(), product, previous);
+    }
+
+    /**
+     * Crée un événement de suppression
+     * 
+     * @param productId ID du produit supprimé
+     * @return Événement correspondant
+     */
+    public static ProductChangedEvent deleted(Long productId) {
+        return new ProductChangedEvent(productId, null, null);
+    }
+}
@@ -0,0 +1,31 @@
+package store.example.store.exception;
+
+
+
+/**
+ * Exception levée lorsqu'un service est temporairement saturé
+ * 
+ * Cette exception est utilisée pour refuser rapidement une requête
+ * (réponse 503) plutôt que de la laisser attendre une ressource saturée.
+ */
+public class ServiceUnavailableException extends RuntimeException {
+
+    /**
+     * Constructeur avec message d'erreur
+     * 
+     * @param message Message décrivant l'erreur
+     */
+    public ServiceUnavailableException(String message) {
+        super(message);
+    }
+
+    /**
+     * Constructeur avec message et cause
+     * 
+     * @param message Message décrivant l'erreur
+     * @param cause Cause de l'exception
+     */
+    public ServiceUnavailableException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
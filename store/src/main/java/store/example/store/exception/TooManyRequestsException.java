@@ -0,0 +1,34 @@
+package store.example.store.exception;
+
+
+
+/**
+ * Exception levée lorsqu'un client dépasse la limite de débit d'une route
+ *
+ * Cette exception est utilisée pour refuser une requête (réponse 429)
+ * avant tout traitement coûteux, en indiquant quand réessayer.
+ */
+public class TooManyRequestsException extends RuntimeException {
+
+    private final long retryAfterSeconds;
+
+    /**
+     * Constructeur avec message d'erreur et délai avant nouvel essai
+     *
+     * @param message Message décrivant l'erreur
+     * @param retryAfterSeconds Délai avant nouvel essai, en secondes
+     */
+    public TooManyRequestsException(String message, long retryAfterSeconds) {
+        super(message);
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+
+    /**
+     * Délai avant nouvel essai
+     *
+     * @return Délai en secondes
+     */
+    public long getRetryAfterSeconds() {
+        return retryAfterSeconds;
+    }
+}
@@ -4,12 +4,15 @@ package store.example.store.repository;
 
 import store.example.store.entity.CartItem;
 import store.example.store.entity.User;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -38,6 +41,18 @@ public interface CartItemRepository extends JpaRepository<CartItem, Long> {
      */
     List<CartItem> findByUserId(Long userId);
 
+    /**
+     * Trouve tous les articles du panier d'un utilisateur avec leurs produits
+     * 
+     * Les produits sont chargés par la même requête (JOIN FETCH) : le nombre
+     * de requêtes ne dépend pas du nombre d'articles.
+     * 
+     * @param userId L'ID de l'utilisateur
+     * @return Liste des articles du panier, dans l'ordre d'ajout
+     */
+    @Query("SELECT c FROM CartItem c JOIN FETCH c.product WHERE c.user.id = :userId ORDER BY c.id")
+    List<CartItem> findWithProductByUserId(@Param("userId") Long userId);
+
     /**
      * Trouve un article spécifique dans le panier d'un utilisateur
      * 
@@ -47,6 +62,60 @@ public interface CartItemRepository extends JpaRepository<CartItem, Long> {
      */
     Optional<CartItem> findByUserIdAndProductId(Long userId, Long productId);
 
+    /**
+     * Trouve un article spécifique dans le panier d'un utilisateur, avec son produit
+     * 
+     * @param userId L'ID de l'utilisateur
+     * @param productId L'ID du produit
+     * @return Un Optional contenant l'article s'il existe
+     */
+    @Query("SELECT c FROM CartItem c JOIN FETCH c.product WHERE c.user.id = :userId AND c.product.id = :productId")
+    Optional<CartItem> findWithProductByUserIdAndProductId(@Param("userId") Long userId,
+            @Param("productId") Long productId);
+
+    /**
+     * Ajoute une quantité d'un produit au panier en une seule requête (MySQL)
+     * 
+     * La ligne est créée, ou sa quantité incrémentée si elle existe déjà
+     * (ON DUPLICATE KEY UPDATE sur la contrainte unique user_id, product_id).
+     * Rien n'est écrit si le produit n'existe pas, n'est pas disponible ou si
+     * son stock ne couvre pas la quantité totale obtenue.
+     * 
+     * @param userId L'ID de l'utilisateur
+     * @param productId L'ID du produit
+     * @param quantity Quantité à ajouter
+     * @return 0 si l'ajout est refusé, sinon une valeur positive
+     */
+    @Modifying(clearAutomatically = true)
+    @Query(value = "INSERT INTO cart_items (user_id, product_id, quantity, created_at, updated_at) "
+            + "SELECT :userId, p.id, :quantity, CURRENT_TIMESTAMP, CURRENT_TIMESTAMP FROM products p "
+            + "WHERE p.id = :productId AND p.available = TRUE AND p.stock_quantity >= :quantity + COALESCE("
+            + "(SELECT i.quantity FROM cart_items i WHERE i.user_id = :userId AND i.product_id = :productId), 0) "
+            + "ON DUPLICATE KEY UPDATE quantity = cart_items.quantity + :quantity, updated_at = CURRENT_TIMESTAMP",
+            nativeQuery = true)
+    int upsertQuantity(@Param("userId") Long userId, @Param("productId") Long productId,
+            @Param("quantity") int quantity);
+
+    /**
+     * Équivalent de {@link #upsertQuantity} en SQL standard (MERGE), pour les
+     * autres bases (H2 dans les tests)
+     * 
+     * @param userId L'ID de l'utilisateur
+     * @param productId L'ID du produit
+     * @param quantity Quantité à ajouter
+     * @return 0 si l'ajout est refusé, sinon 1
+     */
+    @Modifying(clearAutomatically = true)
+    @Query(value = "MERGE INTO cart_items c USING (SELECT p.id FROM products p "
+            + "WHERE p.id = :productId AND p.available = TRUE AND p.stock_quantity >= :quantity + COALESCE("
+            + "(SELECT i.quantity FROM cart_items i WHERE i.user_id = :userId AND i.product_id = :productId), 0)) s "
+            + "ON c.user_id = :userId AND c.product_id = s.id "
+            + "WHEN MATCHED THEN UPDATE SET quantity = c.quantity + :quantity, updated_at = CURRENT_TIMESTAMP "
+            + "WHEN NOT MATCHED THEN INSERT (user_id, product_id, quantity, created_at, updated_at) "
+            + "VALUES (:userId, s.id, :quantity, CURRENT_TIMESTAMP, CURRENT_TIMESTAMP)", nativeQuery = true)
+    int mergeQuantity(@Param("userId") Long userId, @Param("productId") Long productId,
+            @Param("quantity") int quantity);
+
     /**
      * Compte le nombre d'articles dans le panier d'un utilisateur
      * 
@@ -65,6 +134,68 @@ public interface CartItemRepository extends JpaRepository<CartItem, Long> {
     @Query("SELECT COALESCE(SUM(c.quantity), 0) FROM CartItem c WHERE c.user.id = :userId")
     int getTotalQuantityByUserId(@Param("userId") Long userId);
 
+    /**
+     * Compte les articles du panier d'un utilisateur dont le produit n'est plus
+     * disponible ou dont le stock est insuffisant
+     * 
+     * @param userId L'ID de l'utilisateur
+     * @return Le nombre d'articles indisponibles
+     */
+    @Query("SELECT COUNT(c) FROM CartItem c JOIN c.product p WHERE c.user.id = :userId "
+            + "AND (p.available = false OR p.stockQuantity < c.quantity)")
+    long countUnavailableByUserId(@Param("userId") Long userId);
+
+    /**
+     * Calcule les totaux du panier d'un utilisateur en une seule requête
+     * 
+     * @param userId L'ID de l'utilisateur
+     * @return Nombre de lignes, quantité totale et montant total
+     */
+    @Query("SELECT COUNT(c) AS totalItems, COALESCE(SUM(c.quantity), 0) AS totalQuantity, "
+            + "COALESCE(SUM(c.quantity * p.price), 0) AS totalAmount "
+            + "FROM CartItem c JOIN c.product p WHERE c.user.id = :userId")
+    CartTotalsView findTotalsByUserId(@Param("userId") Long userId);
+
+    /**
+     * Trouve les utilisateurs dont le panier n'a pas été modifié depuis une date,
+     * par ordre d'ID (pagination par clé)
+     * 
+     * @param afterUserId ID à partir duquel chercher (exclu)
+     * @param cutoff Date de dernière modification limite
+     * @param limit Nombre maximal d'utilisateurs
+     * @return IDs des utilisateurs dont le panier est inactif
+     */
+    @Query("SELECT c.user.id FROM CartItem c WHERE c.user.id > :afterUserId GROUP BY c.user.id "
+            + "HAVING MAX(COALESCE(c.updatedAt, c.createdAt)) < :cutoff ORDER BY c.user.id")
+    List<Long> findIdleUserIds(@Param("afterUserId") Long afterUserId, @Param("cutoff") LocalDateTime cutoff,
+            Limit limit);
+
+    /**
+     * Supprime les paniers de plusieurs utilisateurs qui sont toujours inactifs
+     * 
+     * L'inactivité est revérifiée par panier dans la requête : un panier dont une ligne
+     * a été ajoutée ou modifiée depuis la date limite est conservé en entier. La table
+     * dérivée (idle) évite l'erreur MySQL 1093 (sous-requête sur la table modifiée).
+     * 
+     * @param userIds IDs des utilisateurs
+     * @param cutoff Date de dernière modification limite
+     * @return Le nombre d'articles supprimés
+     */
+    @Modifying
+    @Query(value = "DELETE FROM cart_items WHERE user_id IN (SELECT user_id FROM ("
+            + "SELECT user_id FROM cart_items WHERE user_id IN (:userIds) GROUP BY user_id "
+            + "HAVING MAX(COALESCE(updated_at, created_at)) < :cutoff) idle)", nativeQuery = true)
+    int deleteIdleByUserIds(@Param("userIds") Collection<Long> userIds, @Param("cutoff") LocalDateTime cutoff);
+
+    /**
+     * Compte, parmi plusieurs utilisateurs, ceux dont le panier contient des articles
+     * 
+     * @param userIds IDs des utilisateurs
+     * @return Le nombre de paniers non vides
+     */
+    @Query("SELECT COUNT(DISTINCT c.user.id) FROM CartItem c WHERE c.user.id IN :userIds")
+    long countNonEmptyCarts(@Param("userIds") Collection<Long> userIds);
+
     /**
      * Supprime tous les articles du panier d'un utilisateur
      * 
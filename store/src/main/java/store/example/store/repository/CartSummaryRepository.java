@@ -0,0 +1,113 @@
+package store.example.store.repository;
+
+
+
+import store.example.store.entity.CartSummary;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.math.BigDecimal;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Repository pour l'entité CartSummary
+ * 
+ * Les mises à jour sont faites par requêtes directes : un incrément est atomique
+ * et ne nécessite pas de lire le résumé au préalable.
+ */
+@Repository
+public interface CartSummaryRepository extends JpaRepository<CartSummary, Long> {
+
+    /**
+     * Lit les totaux du résumé d'un utilisateur (toujours depuis la base)
+     * 
+     * @param userId L'ID de l'utilisateur
+     * @return Un Optional contenant les totaux si le résumé existe
+     */
+    @Query("SELECT s.lineCount AS totalItems, s.totalQuantity AS totalQuantity, s.totalAmount AS totalAmount "
+            + "FROM CartSummary s WHERE s.userId = :userId")
+    Optional<CartTotalsView> findTotalsByUserId(@Param("userId") Long userId);
+
+    /**
+     * Lit le résumé d'un utilisateur avec la version courante des prix, en une
+     * seule requête et sans verrou
+     * 
+     * @param userId L'ID de l'utilisateur
+     * @return Un Optional contenant le résumé s'il existe
+     */
+    @Query("SELECT s.lineCount AS totalItems, s.totalQuantity AS totalQuantity, s.totalAmount AS totalAmount, "
+            + "s.priceVersion AS priceVersion, "
+            + "COALESCE((SELECT v.version FROM PriceVersion v), 0) AS currentPriceVersion "
+            + "FROM CartSummary s WHERE s.userId = :userId")
+    Optional<CartSummaryView> findSummaryByUserId(@Param("userId") Long userId);
+
+    /**
+     * Verrouille le résumé d'un utilisateur jusqu'à la fin de la transaction (SELECT ... FOR UPDATE)
+     * 
+     * @param userId L'ID de l'utilisateur
+     * @return Un Optional contenant l'ID de l'utilisateur si le résumé existe
+     */
+    @Query(value = "SELECT user_id FROM cart_summaries WHERE user_id = :userId FOR UPDATE", nativeQuery = true)
+    Optional<Long> lockByUserId(@Param("userId") Long userId);
+
+    /**
+     * Ajoute des écarts au résumé d'un utilisateur, s'il a été calculé
+     * pour la version courante des prix
+     * 
+     * @param userId       L'ID de l'utilisateur
+     * @param lines        Écart du nombre de lignes
+     * @param quantity     Écart de la quantité totale
+     * @param amount       Écart du montant total
+     * @param priceVersion Version courante des prix
+     * @return Le nombre de résumés modifiés (0 si le résumé est absent ou périmé)
+     */
+    @Modifying
+    @Query("UPDATE CartSummary s SET s.lineCount = s.lineCount + :lines, "
+            + "s.totalQuantity = s.totalQuantity + :quantity, s.totalAmount = s.totalAmount + :amount "
+            + "WHERE s.userId = :userId AND s.priceVersion = :priceVersion")
+    int increment(@Param("userId") Long userId, @Param("lines") int lines, @Param("quantity") int quantity,
+            @Param("amount") BigDecimal amount, @Param("priceVersion") long priceVersion);
+
+    /**
+     * Remplace les totaux du résumé d'un utilisateur
+     * 
+     * @param userId       L'ID de l'utilisateur
+     * @param lines        Nombre de lignes
+     * @param quantity     Quantité totale
+     * @param amount       Montant total
+     * @param priceVersion Version des prix utilisée pour le montant
+     * @return Le nombre de résumés modifiés (0 si le résumé n'existe pas encore)
+     */
+    @Modifying
+    @Query("UPDATE CartSummary s SET s.lineCount = :lines, s.totalQuantity = :quantity, "
+            + "s.totalAmount = :amount, s.priceVersion = :priceVersion WHERE s.userId = :userId")
+    int overwrite(@Param("userId") Long userId, @Param("lines") int lines, @Param("quantity") int quantity,
+            @Param("amount") BigDecimal amount, @Param("priceVersion") long priceVersion);
+
+    /**
+     * Verrouille les résumés de plusieurs utilisateurs jusqu'à la fin de la transaction,
+     * par ID croissant (SELECT ... FOR UPDATE)
+     * 
+     * @param userIds IDs des utilisateurs
+     * @return Les IDs des utilisateurs dont le résumé existe
+     */
+    @Query(value = "SELECT user_id FROM cart_summaries WHERE user_id IN (:userIds) ORDER BY user_id FOR UPDATE",
+            nativeQuery = true)
+    List<Long> lockByUserIds(@Param("userIds") Collection<Long> userIds);
+
+    /**
+     * Supprime les résumés des paniers vides de plusieurs utilisateurs
+     * 
+     * @param userIds IDs des utilisateurs
+     * @return Le nombre de résumés supprimés
+     */
+    @Modifying
+    @Query("DELETE FROM CartSummary s WHERE s.userId IN :userIds "
+            + "AND NOT EXISTS (SELECT c.id FROM CartItem c WHERE c.user.id = s.userId)")
+    int deleteEmptyByUserIds(@Param("userIds") Collection<Long> userIds);
+}
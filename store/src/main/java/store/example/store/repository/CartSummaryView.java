@@ -0,0 +1,22 @@
+package store.example.store.repository;
+
+
+/**
+ * Projection du résumé du panier d'un utilisateur
+ * 
+ * Le résumé est lu avec la version courante des prix : le montant n'est à jour
+ * que si les prix n'ont pas changé depuis son calcul.
+ */
+public interface CartSummaryView extends CartTotalsView {
+
+    Long getPriceVersion();
+
+    Long getCurrentPriceVersion();
+
+    /**
+     * @return true si le montant a été calculé avec les prix courants
+     */
+    default boolean isAmountCurrent() {
+        return getPriceVersion().equals(getCurrentPriceVersion());
+    }
+}
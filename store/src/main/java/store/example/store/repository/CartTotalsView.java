@@ -0,0 +1,19 @@
+package store.example.store.repository;
+
+
+import java.math.BigDecimal;
+
+/**
+ * Projection des totaux du panier d'un utilisateur
+ * 
+ * Les totaux sont calculés par une seule requête d'agrégation,
+ * sans charger les articles ni les produits.
+ */
+public interface CartTotalsView {
+
+    Long getTotalItems();
+
+    Long getTotalQuantity();
+
+    BigDecimal getTotalAmount();
+}
@@ -91,6 +91,14 @@ public interface OrderRepository extends JpaRepository<Order, Long> {
     @Query("SELECT COALESCE(SUM(o.totalAmount), 0) FROM Order o WHERE o.user.id = :userId")
     double getTotalAmountByUserId(@Param("userId") Long userId);
 
+    /**
+     * Calcule la quantité totale vendue de chaque produit
+     * 
+     * @return Lignes [ID du produit, quantité vendue]
+     */
+    @Query("SELECT oi.product.id, SUM(oi.quantity) FROM OrderItem oi GROUP BY oi.product.id")
+    List<Object[]> sumQuantitiesByProduct();
+
     /**
      * Trouve les commandes récentes (dernières 24 heures)
      * 
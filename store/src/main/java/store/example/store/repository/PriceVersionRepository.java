@@ -0,0 +1,35 @@
+package store.example.store.repository;
+
+
+
+import store.example.store.entity.PriceVersion;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+
+import java.util.Optional;
+
+/**
+ * Repository pour l'entité PriceVersion
+ */
+@Repository
+public interface PriceVersionRepository extends JpaRepository<PriceVersion, Long> {
+
+    /**
+     * Lit la version des prix, sans verrou
+     * 
+     * @return Un Optional contenant la version si la ligne existe
+     */
+    @Query("SELECT v.version FROM PriceVersion v WHERE v.id = " + PriceVersion.SINGLETON_ID)
+    Optional<Long> findCurrent();
+
+    /**
+     * Incrémente la version des prix
+     * 
+     * @return Le nombre de lignes modifiées (0 si la ligne n'existe pas encore)
+     */
+    @Modifying
+    @Query("UPDATE PriceVersion v SET v.version = v.version + 1 WHERE v.id = " + PriceVersion.SINGLETON_ID)
+    int increment();
+}
@@ -1,7 +1,12 @@
 package store.example.store.repository;
 
 
+import store.example.store.dto.reponse.ProductResponse;
 import store.example.store.entity.Product;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Window;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
@@ -18,6 +23,17 @@ import java.util.List;
 @Repository
 public interface ProductRepository extends JpaRepository<Product, Long> {
 
+    /**
+     * Expression constructeur JPQL remplissant directement un ProductResponse
+     * 
+     * Les arguments sont passés par position au constructeur généré par Lombok :
+     * ils suivent l'ordre des champs de ProductResponse. Un champ ajouté ou déplacé
+     * doit l'être ici aussi (vérifié par ProductProjectionTests).
+     */
+    String PRODUCT_RESPONSE = "new store.example.store.dto.reponse.ProductResponse("
+            + "p.id, p.name, p.description, p.price, p.category, p.imageUrl, p.available, p.stockQuantity, "
+            + "p.createdAt, CASE WHEN p.available = true AND p.stockQuantity > 0 THEN true ELSE false END)";
+
     /**
      * Trouve tous les produits disponibles
      * 
@@ -25,6 +41,49 @@ public interface ProductRepository extends JpaRepository<Product, Long> {
      */
     List<Product> findByAvailableTrue();
 
+    /**
+     * Parcourt les produits disponibles par pagination keyset
+     * 
+     * La position est traduite en prédicat sur les clés de tri, ce qui rend
+     * le coût d'une page indépendant de sa profondeur et évite tout COUNT.
+     * 
+     * @param position Position de départ (dernière clé lue)
+     * @param sort Tri à appliquer (doit se terminer par l'ID)
+     * @param limit Nombre maximal de produits à renvoyer
+     * @return Fenêtre de produits disponibles
+     */
+    Window<Product> findByAvailableTrue(ScrollPosition position, Sort sort, Limit limit);
+
+    /**
+     * Parcourt les produits disponibles par pagination keyset, sous forme de projection
+     * 
+     * Seules les colonnes du type demandé sont lues et aucune entité n'est chargée.
+     * 
+     * @param position Position de départ (dernière clé lue)
+     * @param sort Tri à appliquer (doit se terminer par l'ID)
+     * @param limit Nombre maximal de produits à renvoyer
+     * @param type Type de projection
+     * @return Fenêtre de projections des produits disponibles
+     */
+    <T> Window<T> findByAvailableTrue(ScrollPosition position, Sort sort, Limit limit, Class<T> type);
+
+    /**
+     * Récupère les produits disponibles directement sous forme de DTO, sans charger les entités
+     * 
+     * @return Liste des produits disponibles
+     */
+    @Query("SELECT " + PRODUCT_RESPONSE + " FROM Product p WHERE p.available = true")
+    List<ProductResponse> findAvailableProductResponses();
+
+    /**
+     * Récupère les produits disponibles d'une catégorie, sans charger les entités
+     * 
+     * @param category La catégorie recherchée
+     * @return Liste des produits disponibles de cette catégorie
+     */
+    @Query("SELECT " + PRODUCT_RESPONSE + " FROM Product p WHERE p.category = :category AND p.available = true")
+    List<ProductResponse> findAvailableResponsesByCategory(@Param("category") String category);
+
     /**
      * Trouve tous les produits d'une catégorie donnée
      * 
@@ -65,20 +124,39 @@ public interface ProductRepository extends JpaRepository<Product, Long> {
     @Query("SELECT DISTINCT p.category FROM Product p WHERE p.available = true")
     List<String> findDistinctCategories();
 
+    /**
+     * Récupère la catégorie et le stock de chaque produit disponible, sans charger les entités
+     * 
+     * @return Lignes [ID, catégorie, quantité en stock]
+     */
+    @Query("SELECT p.id, p.category, p.stockQuantity FROM Product p WHERE p.available = true")
+    List<Object[]> findAvailableCategoryStock();
+
+    /**
+     * Compte les produits disponibles et en stock de chaque catégorie
+     * 
+     * @return Lignes [catégorie, nombre de produits disponibles, nombre de produits en stock],
+     *         triées par catégorie
+     */
+    @Query("SELECT p.category, COUNT(p), SUM(CASE WHEN p.stockQuantity > 0 THEN 1 ELSE 0 END) FROM Product p "
+            + "WHERE p.available = true AND p.category IS NOT NULL GROUP BY p.category ORDER BY p.category")
+    List<Object[]> countAvailableByCategory();
+
     /**
      * Trouve les produits avec un stock faible (moins de la quantité spécifiée)
      * 
      * @param threshold Seuil de stock faible
-     * @return Liste des produits avec un stock faible
+     * @return Liste des produits avec un stock faible, triés par stock croissant
      */
-    @Query("SELECT p FROM Product p WHERE p.available = true AND p.stockQuantity < :threshold")
-    List<Product> findProductsWithLowStock(@Param("threshold") int threshold);
+    @Query("SELECT " + PRODUCT_RESPONSE + " FROM Product p WHERE p.available = true AND p.stockQuantity < :threshold"
+            + " ORDER BY p.stockQuantity, p.id")
+    List<ProductResponse> findProductsWithLowStock(@Param("threshold") int threshold);
 
     /**
      * Trouve les produits en rupture de stock
      * 
      * @return Liste des produits en rupture de stock
      */
-    @Query("SELECT p FROM Product p WHERE p.available = true AND p.stockQuantity = 0")
-    List<Product> findOutOfStockProducts();
+    @Query("SELECT " + PRODUCT_RESPONSE + " FROM Product p WHERE p.available = true AND p.stockQuantity = 0 ORDER BY p.id")
+    List<ProductResponse> findOutOfStockProducts();
 }
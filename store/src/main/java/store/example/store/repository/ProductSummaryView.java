@@ -0,0 +1,30 @@
+package store.example.store.repository;
+
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * Projection fermée des colonnes d'un produit utilisées par les listes
+ * 
+ * Spring Data ne sélectionne que ces colonnes (la description est exclue)
+ * et ne charge aucune entité Product.
+ */
+public interface ProductSummaryView {
+
+    Long getId();
+
+    String getName();
+
+    BigDecimal getPrice();
+
+    String getCategory();
+
+    String getImageUrl();
+
+    boolean isAvailable();
+
+    int getStockQuantity();
+
+    LocalDateTime getCreatedAt();
+}
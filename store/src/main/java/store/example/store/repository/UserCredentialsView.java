@@ -0,0 +1,21 @@
+package store.example.store.repository;
+
+
+import store.example.store.entity.User;
+
+/**
+ * Projection fermée des colonnes d'un utilisateur nécessaires à l'authentification
+ * 
+ * Seuls l'ID, l'email, le hash du mot de passe et le rôle sont lus :
+ * ni l'entité User ni ses paniers et commandes ne sont chargés.
+ */
+public interface UserCredentialsView {
+
+    Long getId();
+
+    String getEmail();
+
+    String getPassword();
+
+    User.Role getRole();
+}
@@ -3,6 +3,9 @@ package store.example.store.repository;
 
 import store.example.store.entity.User;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.util.List;
@@ -25,6 +28,25 @@ public interface UserRepository extends JpaRepository<User, Long> {
      */
     Optional<User> findByEmail(String email);
 
+    /**
+     * Lit uniquement les informations d'authentification d'un utilisateur
+     * 
+     * @param email L'email de l'utilisateur
+     * @return Un Optional contenant l'ID, l'email, le hash du mot de passe et le rôle
+     */
+    Optional<UserCredentialsView> findCredentialsByEmail(String email);
+
+    /**
+     * Remplace le hash du mot de passe d'un utilisateur
+     * 
+     * @param email L'email de l'utilisateur
+     * @param password Nouveau hash du mot de passe
+     * @return Nombre d'utilisateurs modifiés
+     */
+    @Modifying
+    @Query("UPDATE User u SET u.password = :password WHERE u.email = :email")
+    int updatePasswordByEmail(@Param("email") String email, @Param("password") String password);
+
     /**
      * Vérifie si un utilisateur existe avec cet email
      * 
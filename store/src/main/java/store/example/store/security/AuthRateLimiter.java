@@ -0,0 +1,150 @@
+package store.example.store.security;
+
+import store.example.store.exception.TooManyRequestsException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Locale;
+
+/**
+ * Limitation du débit des routes d'authentification
+ *
+ * Chaque tentative de connexion consomme un jeton dans le seau de l'adresse IP
+ * du client et dans celui de l'email visé ; l'inscription est limitée par adresse IP.
+ * La vérification a lieu avant tout hachage BCrypt : une rafale de tentatives
+ * (bourrage d'identifiants) est refusée (429) sans consommer de CPU.
+ *
+ * L'adresse IP est celle de la connexion ; derrière un proxy, elle dépend de
+ * la configuration server.forward-headers-strategy.
+ *
+ * Limites configurables par route et par dimension :
+ * auth.rate-limit.{login,register}.{email,ip}.capacity (rafale autorisée) et
+ * auth.rate-limit.{login,register}.{email,ip}.per-minute (jetons rendus par minute).
+ *
+ * Métriques exposées (Micrometer), avec les tags route et key :
+ * auth.ratelimit.allowed, auth.ratelimit.rejected, auth.ratelimit.keys et auth.ratelimit.evictions.
+ */
+@Component
+public class AuthRateLimiter {
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${auth.rate-limit.enabled:true}")
+    private boolean enabled;
+
+    /**
+     * Nombre maximal de clés suivies par route et par dimension
+     */
+    @Value("${auth.rate-limit.max-keys:100000}")
+    private int maxKeys;
+
+    @Value("${auth.rate-limit.login.email.capacity:5}")
+    private long loginEmailCapacity;
+
+    @Value("${auth.rate-limit.login.email.per-minute:5}")
+    private long loginEmailPerMinute;
+
+    @Value("${auth.rate-limit.login.ip.capacity:20}")
+    private long loginIpCapacity;
+
+    @Value("${auth.rate-limit.login.ip.per-minute:20}")
+    private long loginIpPerMinute;
+
+    @Value("${auth.rate-limit.register.ip.capacity:5}")
+    private long registerIpCapacity;
+
+    @Value("${auth.rate-limit.register.ip.per-minute:5}")
+    private long registerIpPerMinute;
+
+    private Limit loginByIp;
+
+    private Limit loginByEmail;
+
+    private Limit registerByIp;
+
+    @PostConstruct
+    void init() {
+        loginByIp = new Limit("login", "ip", new TokenBucketLimiter(loginIpCapacity, loginIpPerMinute, maxKeys));
+        loginByEmail = new Limit("login", "email",
+                new TokenBucketLimiter(loginEmailCapacity, loginEmailPerMinute, maxKeys));
+        registerByIp = new Limit("register", "ip",
+                new TokenBucketLimiter(registerIpCapacity, registerIpPerMinute, maxKeys));
+    }
+
+    /**
+     * Vérifie qu'une tentative de connexion est autorisée
+     *
+     * @param email    Email saisi
+     * @param clientIp Adresse IP du client
+     * @throws TooManyRequestsException Si la limite de l'adresse IP ou de l'email est atteinte
+     */
+    public void checkLogin(String email, String clientIp) {
+        if (!enabled) {
+            return;
+        }
+        loginByIp.acquire(clientIp);
+        if (email != null) {
+            loginByEmail.acquire(email.trim().toLowerCase(Locale.ROOT));
+        }
+    }
+
+    /**
+     * Vérifie qu'une inscription est autorisée
+     *
+     * @param clientIp Adresse IP du client
+     * @throws TooManyRequestsException Si la limite de l'adresse IP est atteinte
+     */
+    public void checkRegister(String clientIp) {
+        if (enabled) {
+            registerByIp.acquire(clientIp);
+        }
+    }
+
+    /**
+     * Limite d'une route pour une dimension (email ou adresse IP), avec ses métriques
+     */
+    private final class Limit {
+
+        private final TokenBucketLimiter buckets;
+
+        private final Counter allowed;
+
+        private final Counter rejected;
+
+        Limit(String route, String key, TokenBucketLimiter buckets) {
+            this.buckets = buckets;
+            this.allowed = Counter.builder("auth.ratelimit.allowed")
+                    .tags("route", route, "key", key)
+                    .register(meterRegistry);
+            this.rejected = Counter.builder("auth.ratelimit.rejected")
+                    .tags("route", route, "key", key)
+                    .register(meterRegistry);
+            Gauge.builder("auth.ratelimit.keys", buckets, TokenBucketLimiter::size)
+                    .tags("route", route, "key", key)
+                    .description("Clés suivies par le limiteur")
+                    .register(meterRegistry);
+            FunctionCounter.builder("auth.ratelimit.evictions", buckets, TokenBucketLimiter::evictions)
+                    .tags("route", route, "key", key)
+                    .description("Clés oubliées avant la fin de leur fenêtre")
+                    .register(meterRegistry);
+        }
+
+        void acquire(String value) {
+            long waitMs = buckets.tryAcquire(value != null ? value : "");
+            if (waitMs == 0) {
+                allowed.increment();
+                return;
+            }
+            rejected.increment();
+            throw new TooManyRequestsException("Trop de tentatives, veuillez réessayer plus tard",
+                    Math.max(1, (waitMs + 999) / 1000));
+        }
+    }
+}
@@ -0,0 +1,86 @@
+package store.example.store.security;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Filtre de Bloom de taille fixe sur des empreintes 64 bits
+ *
+ * Un test négatif est certain, un test positif peut être un faux positif.
+ * Les bits sont positionnés sans verrou (compare-and-set) : les lectures
+ * concurrentes ne bloquent jamais. Le filtre ne supporte pas la suppression,
+ * il doit être reconstruit pour oublier des éléments.
+ */
+final class BloomFilter {
+
+    private final AtomicLongArray words;
+
+    private final long bitCount;
+
+    private final int hashCount;
+
+    /**
+     * @param bitCount  Nombre de bits (arrondi au multiple de 64 supérieur)
+     * @param hashCount Nombre de positions testées par élément
+     */
+    BloomFilter(long bitCount, int hashCount) {
+        int wordCount = (int) Math.max(1, (bitCount + 63) / 64);
+        this.words = new AtomicLongArray(wordCount);
+        this.bitCount = wordCount * 64L;
+        this.hashCount = Math.max(1, hashCount);
+    }
+
+    void add(long hash) {
+        long h1 = hash;
+        long h2 = mix(hash) | 1;
+        for (int i = 0; i < hashCount; i++) {
+            long bit = Math.floorMod(h1 + i * h2, bitCount);
+            int word = (int) (bit >>> 6);
+            long mask = 1L << bit;
+            long current;
+            do {
+                current = words.get(word);
+            } while ((current & mask) == 0 && !words.compareAndSet(word, current, current | mask));
+        }
+    }
+
+    boolean mightContain(long hash) {
+        long h1 = hash;
+        long h2 = mix(hash) | 1;
+        for (int i = 0; i < hashCount; i++) {
+            long bit = Math.floorMod(h1 + i * h2, bitCount);
+            if ((words.get((int) (bit >>> 6)) & (1L << bit)) == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Empreinte 64 bits d'une chaîne (FNV-1a puis mélange), avec un domaine
+     * pour séparer les différents types de clés
+     */
+    static long hash(long domain, String value) {
+        long h = 0xcbf29ce484222325L ^ domain;
+        for (int i = 0; i < value.length(); i++) {
+            h ^= value.charAt(i);
+            h *= 0x100000001b3L;
+        }
+        return mix(h);
+    }
+
+    /**
+     * Empreinte 64 bits d'un entier, avec un domaine
+     */
+    static long hash(long domain, long value) {
+        return mix(value * 0x9e3779b97f4a7c15L ^ domain);
+    }
+
+    private static long mix(long h) {
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        h *= 0xc4ceb9fe1a85ec53L;
+        h ^= h >>> 33;
+        return h;
+    }
+}
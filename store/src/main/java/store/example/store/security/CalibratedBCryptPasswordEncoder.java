@@ -0,0 +1,116 @@
+package store.example.store.security;
+
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+
+/**
+ * Encodeur BCrypt dont le coût est calibré sur la machine
+ *
+ * Un hachage dont le coût diffère du coût configuré (plus faible ou plus élevé)
+ * est signalé comme à ré-encoder : Spring Security le remplace alors de manière
+ * transparente lors de la prochaine connexion réussie.
+ */
+public class CalibratedBCryptPasswordEncoder extends BCryptPasswordEncoder {
+
+    /**
+     * Coût minimal retenu par le calibrage (recommandation OWASP)
+     */
+    public static final int MIN_STRENGTH = 10;
+
+    /**
+     * Coût maximal retenu par le calibrage
+     */
+    public static final int MAX_STRENGTH = 16;
+
+    private static final String SAMPLE_PASSWORD = "calibration-password";
+
+    private final int strength;
+
+    /**
+     * Constructeur avec le coût BCrypt
+     *
+     * @param strength Coût (log2 du nombre d'itérations)
+     */
+    public CalibratedBCryptPasswordEncoder(int strength) {
+        super(strength);
+        this.strength = strength;
+    }
+
+    /**
+     * Coût utilisé pour les nouveaux hachages
+     *
+     * @return Coût BCrypt
+     */
+    public int getStrength() {
+        return strength;
+    }
+
+    /**
+     * Indique si un hachage doit être ré-encodé au coût configuré
+     *
+     * @param encodedPassword Hachage BCrypt existant
+     * @return true si son coût diffère du coût configuré
+     */
+    @Override
+    public boolean upgradeEncoding(String encodedPassword) {
+        int cost = costOf(encodedPassword);
+        return cost > 0 && cost != strength;
+    }
+
+    /**
+     * Choisit le coût le plus élevé dont la durée d'un hachage tient dans le budget
+     *
+     * Le coût minimal est mesuré, puis la durée des coûts supérieurs est extrapolée
+     * (chaque incrément double le nombre d'itérations).
+     *
+     * @param budgetMs Durée cible d'un hachage, en millisecondes
+     * @return Coût retenu, entre MIN_STRENGTH et MAX_STRENGTH
+     */
+    public static int calibrate(long budgetMs) {
+        double millis = measureMillis(MIN_STRENGTH, 3);
+        int strength = MIN_STRENGTH;
+        while (strength < MAX_STRENGTH && millis * 2 <= budgetMs) {
+            millis *= 2;
+            strength++;
+        }
+        return strength;
+    }
+
+    /**
+     * Mesure la durée moyenne d'une vérification de mot de passe à un coût donné
+     *
+     * @param strength Coût BCrypt
+     * @param samples  Nombre de vérifications mesurées
+     * @return Durée moyenne en millisecondes
+     */
+    public static double measureMillis(int strength, int samples) {
+        BCryptPasswordEncoder encoder = new BCryptPasswordEncoder(strength);
+        // Le hachage initial sert aussi d'échauffement
+        String encoded = encoder.encode(SAMPLE_PASSWORD);
+        long start = System.nanoTime();
+        for (int i = 0; i < samples; i++) {
+            encoder.matches(SAMPLE_PASSWORD, encoded);
+        }
+        return (System.nanoTime() - start) / 1_000_000.0 / samples;
+    }
+
+    /**
+     * Extrait le coût d'un hachage BCrypt ($2a$10$...)
+     *
+     * @param encodedPassword Hachage BCrypt
+     * @return Coût, ou -1 si le format n'est pas reconnu
+     */
+    static int costOf(String encodedPassword) {
+        if (encodedPassword == null || encodedPassword.length() < 7 || encodedPassword.charAt(0) != '$') {
+            return -1;
+        }
+        int start = encodedPassword.indexOf('$', 1) + 1;
+        if (start <= 0 || start + 2 > encodedPassword.length()) {
+            return -1;
+        }
+        try {
+            return Integer.parseInt(encodedPassword.substring(start, start + 2));
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+}
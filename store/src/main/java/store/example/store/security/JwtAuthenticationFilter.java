@@ -1,35 +1,57 @@
 package store.example.store.security;
 
+import store.example.store.config.SecurityConfig;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContext;
 import org.springframework.security.core.context.SecurityContextHolder;
-import org.springframework.security.core.userdetails.UserDetails;
-import org.springframework.security.core.userdetails.UserDetailsService;
+import org.springframework.security.core.context.SecurityContextHolderStrategy;
 import org.springframework.security.web.authentication.WebAuthenticationDetailsSource;
+import org.springframework.security.web.servlet.util.matcher.PathPatternRequestMatcher;
+import org.springframework.security.web.util.matcher.OrRequestMatcher;
+import org.springframework.security.web.util.matcher.RequestMatcher;
 import org.springframework.stereotype.Component;
 import org.springframework.util.StringUtils;
 import org.springframework.web.filter.OncePerRequestFilter;
 
 import java.io.IOException;
+import java.util.Arrays;
+import java.util.function.Supplier;
 
 /**
  * Filtre JWT pour l'authentification
  * 
  * Ce filtre intercepte chaque requête HTTP pour vérifier la présence
  * et la validité d'un token JWT dans l'en-tête Authorization.
+ * 
+ * Sur les routes publiques ({@link SecurityConfig#PUBLIC_ROUTES}), l'authentification
+ * est différée : le token n'est vérifié que si un traitement lit le contexte de
+ * sécurité. Le catalogue, consulté avec un token par l'application front, ne paie
+ * donc ni la vérification du token ni la construction de l'authentification.
  */
 @Component
 public class JwtAuthenticationFilter extends OncePerRequestFilter {
 
     @Autowired
-    private JwtTokenProvider tokenProvider;
+    private VerifiedTokenCache verifiedTokenCache;
 
-    @Autowired
-    private UserDetailsService userDetailsService;
+    /**
+     * Diffère l'authentification sur les routes publiques (false = authentification systématique)
+     */
+    @Value("${security.jwt.defer-on-public-routes:true}")
+    private boolean deferOnPublicRoutes;
+
+    private final RequestMatcher publicRoutes = new OrRequestMatcher(Arrays.stream(SecurityConfig.PUBLIC_ROUTES)
+            .map(pattern -> (RequestMatcher) PathPatternRequestMatcher.withDefaults().matcher(pattern))
+            .toList());
+
+    private final SecurityContextHolderStrategy securityContextHolderStrategy =
+            SecurityContextHolder.getContextHolderStrategy();
 
     /**
      * Filtre principal qui traite chaque requête
@@ -45,32 +67,74 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
                                   HttpServletResponse response, 
                                   FilterChain filterChain) throws ServletException, IOException {
         
+        // Extraction du token JWT de la requête
+        String jwt = getJwtFromRequest(request);
+
+        if (StringUtils.hasText(jwt)) {
+            if (deferOnPublicRoutes && publicRoutes.matches(request)) {
+                // Route publique : authentification à la première lecture du contexte de sécurité
+                securityContextHolderStrategy.setDeferredContext(
+                        deferAuthentication(securityContextHolderStrategy.getDeferredContext(), jwt, request));
+            } else {
+                authenticate(jwt, request, securityContextHolderStrategy.getContext());
+            }
+        }
+        
+        // Continuation de la chaîne de filtres
+        filterChain.doFilter(request, response);
+    }
+
+    /**
+     * Vérifie le token et place l'utilisateur authentifié dans le contexte de sécurité
+     * 
+     * @param jwt Token JWT
+     * @param request Requête HTTP
+     * @param context Contexte de sécurité de la requête
+     */
+    private void authenticate(String jwt, HttpServletRequest request, SecurityContext context) {
         try {
-            // Extraction du token JWT de la requête
-            String jwt = getJwtFromRequest(request);
-            
-            // Vérification et validation du token
-            if (StringUtils.hasText(jwt) && tokenProvider.validateToken(jwt)) {
-                // Extraction du nom d'utilisateur du token
-                String username = tokenProvider.getUsernameFromJWT(jwt);
-                
-                // Chargement des détails de l'utilisateur
-                UserDetails userDetails = userDetailsService.loadUserByUsername(username);
-                
+            // Vérification du token (ou réutilisation d'une vérification précédente)
+            // et construction du principal à partir de ses claims, sans accès à la base
+            UserPrincipal principal = verifiedTokenCache.authenticate(jwt);
+            if (principal != null) {
                 // Création de l'objet d'authentification
                 UsernamePasswordAuthenticationToken authentication = 
-                    new UsernamePasswordAuthenticationToken(userDetails, null, userDetails.getAuthorities());
+                    new UsernamePasswordAuthenticationToken(principal, null, principal.getAuthorities());
                 authentication.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
                 
                 // Définition de l'authentification dans le contexte de sécurité
-                SecurityContextHolder.getContext().setAuthentication(authentication);
+                context.setAuthentication(authentication);
             }
         } catch (Exception ex) {
             logger.error("Impossible de définir l'authentification utilisateur", ex);
         }
-        
-        // Continuation de la chaîne de filtres
-        filterChain.doFilter(request, response);
+    }
+
+    /**
+     * Contexte de sécurité authentifié à sa première lecture, puis conservé
+     * 
+     * @param previous Contexte différé précédent
+     * @param jwt Token JWT
+     * @param request Requête HTTP
+     * @return Contexte différé
+     */
+    private Supplier<SecurityContext> deferAuthentication(Supplier<SecurityContext> previous, String jwt,
+            HttpServletRequest request) {
+        return new Supplier<>() {
+
+            private SecurityContext context;
+
+            @Override
+            public SecurityContext get() {
+                if (context == null) {
+                    context = previous.get();
+                    if (context.getAuthentication() == null) {
+                        authenticate(jwt, request, context);
+                    }
+                }
+                return context;
+            }
+        };
     }
 
     /**
@@ -1,7 +1,10 @@
 package store.example.store.security;
 
+import store.example.store.entity.User;
 import io.jsonwebtoken.*;
 import io.jsonwebtoken.security.Keys;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.userdetails.UserDetails;
@@ -11,6 +14,7 @@ import javax.crypto.SecretKey;
 import java.time.Instant;
 import java.time.temporal.ChronoUnit;
 import java.util.Date;
+import java.util.UUID;
 
 /**
  * Service pour la gestion des tokens JWT
@@ -21,8 +25,21 @@ import java.util.Date;
 @Component
 public class JwtTokenProvider {
 
+    private static final Logger log = LoggerFactory.getLogger(JwtTokenProvider.class);
+
+    /**
+     * Claim portant l'ID de l'utilisateur
+     */
+    public static final String USER_ID_CLAIM = "uid";
+
+    /**
+     * Claim portant le rôle de l'utilisateur
+     */
+    public static final String ROLE_CLAIM = "role";
+
     private final SecretKey jwtSecret;
     private final int jwtExpirationInMs;
+    private final JwtParser jwtParser;
 
     /**
      * Constructeur qui initialise la clé secrète et la durée d'expiration
@@ -34,6 +51,9 @@ public class JwtTokenProvider {
             @Value("${jwt.expiration}") int jwtExpirationInMs) {
         this.jwtSecret = Keys.hmacShaKeyFor(jwtSecret.getBytes());
         this.jwtExpirationInMs = jwtExpirationInMs;
+        this.jwtParser = Jwts.parser()
+                .verifyWith(this.jwtSecret)
+                .build();
     }
 
     /**
@@ -43,12 +63,36 @@ public class JwtTokenProvider {
      * @return Token JWT sous forme de chaîne
      */
     public String generateToken(Authentication authentication) {
+        if (authentication.getPrincipal() instanceof UserPrincipal principal) {
+            return generateToken(principal.getId(), principal.getEmail(), principal.getRole());
+        }
         UserDetails userPrincipal = (UserDetails) authentication.getPrincipal();
+        return generateTokenFromUsername(userPrincipal.getUsername());
+    }
+
+    /**
+     * Génère un token JWT portant l'ID et le rôle de l'utilisateur
+     * 
+     * Ces claims permettent d'authentifier les requêtes suivantes sans
+     * relire l'utilisateur en base de données.
+     * Chaque token porte aussi un identifiant unique (jti) qui permet de le révoquer.
+     * 
+     * @param user Utilisateur
+     * @return Token JWT sous forme de chaîne
+     */
+    public String generateToken(User user) {
+        return generateToken(user.getId(), user.getEmail(), user.getRole().name());
+    }
+
+    private String generateToken(Long userId, String email, String role) {
         Instant now = Instant.now();
         Instant expiryDate = now.plus(jwtExpirationInMs, ChronoUnit.MILLIS);
 
         return Jwts.builder()
-                .subject(userPrincipal.getUsername())
+                .id(UUID.randomUUID().toString())
+                .subject(email)
+                .claim(USER_ID_CLAIM, userId)
+                .claim(ROLE_CLAIM, role)
                 .issuedAt(Date.from(now))
                 .expiration(Date.from(expiryDate))
                 .signWith(jwtSecret, Jwts.SIG.HS512)
@@ -66,6 +110,7 @@ public class JwtTokenProvider {
         Instant expiryDate = now.plus(jwtExpirationInMs, ChronoUnit.MILLIS);
 
         return Jwts.builder()
+                .id(UUID.randomUUID().toString())
                 .subject(username)
                 .issuedAt(Date.from(now))
                 .expiration(Date.from(expiryDate))
@@ -80,11 +125,7 @@ public class JwtTokenProvider {
      * @return Nom d'utilisateur (email)
      */
     public String getUsernameFromJWT(String token) {
-        Claims claims = Jwts.parser()
-                .verifyWith(jwtSecret)
-                .build()
-                .parseSignedClaims(token)
-                .getPayload();
+        Claims claims = jwtParser.parseSignedClaims(token).getPayload();
 
         return claims.getSubject();
     }
@@ -96,24 +137,34 @@ public class JwtTokenProvider {
      * @return true si le token est valide, false sinon
      */
     public boolean validateToken(String authToken) {
+        return parseToken(authToken) != null;
+    }
+
+    /**
+     * Vérifie la signature et l'expiration d'un token JWT et renvoie ses claims, en une seule passe
+     * 
+     * Un token invalide est une entrée client courante : il n'est journalisé qu'en debug.
+     * 
+     * @param authToken Token JWT à vérifier
+     * @return Claims du token, ou null si le token est invalide
+     */
+    public Claims parseToken(String authToken) {
         try {
-            Jwts.parser()
-                    .verifyWith(jwtSecret)
-                    .build()
-                    .parseSignedClaims(authToken);
-            return true;
+            return jwtParser.parseSignedClaims(authToken).getPayload();
         } catch (SecurityException ex) {
-            System.err.println("Signature JWT invalide");
+            log.debug("Signature JWT invalide : {}", ex.getMessage());
         } catch (MalformedJwtException ex) {
-            System.err.println("Token JWT malformé");
+            log.debug("Token JWT malformé : {}", ex.getMessage());
         } catch (ExpiredJwtException ex) {
-            System.err.println("Token JWT expiré");
+            log.debug("Token JWT expiré : {}", ex.getMessage());
         } catch (UnsupportedJwtException ex) {
-            System.err.println("Token JWT non supporté");
+            log.debug("Token JWT non supporté : {}", ex.getMessage());
         } catch (IllegalArgumentException ex) {
-            System.err.println("JWT claims string est vide");
+            log.debug("JWT claims string est vide : {}", ex.getMessage());
+        } catch (JwtException ex) {
+            log.debug("Token JWT invalide : {}", ex.getMessage());
         }
-        return false;
+        return null;
     }
 
     /**
@@ -123,11 +174,7 @@ public class JwtTokenProvider {
      * @return Date d'expiration
      */
     public Date getExpirationDateFromJWT(String token) {
-        Claims claims = Jwts.parser()
-                .verifyWith(jwtSecret)
-                .build()
-                .parseSignedClaims(token)
-                .getPayload();
+        Claims claims = jwtParser.parseSignedClaims(token).getPayload();
 
         return claims.getExpiration();
     }
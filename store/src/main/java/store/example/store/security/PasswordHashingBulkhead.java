@@ -0,0 +1,129 @@
+package store.example.store.security;
+
+import store.example.store.exception.ServiceUnavailableException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * Cloison d'exécution pour le hachage des mots de passe
+ *
+ * BCrypt est volontairement coûteux en CPU. Les connexions et inscriptions
+ * sont donc exécutées sur un pool de threads dédié et borné, avec une file
+ * d'attente limitée : lors d'un pic de connexions, les requêtes en excès sont
+ * refusées immédiatement (503) au lieu d'occuper les threads Tomcat et de
+ * ralentir le catalogue et les commandes.
+ *
+ * Métriques exposées (Micrometer) :
+ * auth.hashing.duration (temps d'exécution), auth.hashing.wait (attente en file),
+ * auth.hashing.queue.size, auth.hashing.active et auth.hashing.rejected.
+ */
+@Component
+public class PasswordHashingBulkhead {
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    /**
+     * Nombre de threads de hachage (0 = la moitié des cœurs disponibles)
+     */
+    @Value("${auth.hashing.threads:0}")
+    private int threads;
+
+    @Value("${auth.hashing.queue-capacity:100}")
+    private int queueCapacity;
+
+    /**
+     * Attente maximale du résultat, file d'attente comprise
+     */
+    @Value("${auth.hashing.timeout-ms:10000}")
+    private long timeoutMs;
+
+    private ThreadPoolExecutor executor;
+
+    @PostConstruct
+    void start() {
+        int poolSize = threads > 0 ? threads : Math.max(1, Runtime.getRuntime().availableProcessors() / 2);
+        AtomicInteger threadCount = new AtomicInteger();
+        executor = new ThreadPoolExecutor(poolSize, poolSize, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                task -> {
+                    Thread thread = new Thread(task, "password-hashing-" + threadCount.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.AbortPolicy());
+
+        Gauge.builder("auth.hashing.queue.size", executor, pool -> pool.getQueue().size())
+                .description("Opérations de hachage en attente")
+                .register(meterRegistry);
+        Gauge.builder("auth.hashing.active", executor, ThreadPoolExecutor::getActiveCount)
+                .description("Opérations de hachage en cours")
+                .register(meterRegistry);
+    }
+
+    @PreDestroy
+    void stop() {
+        executor.shutdownNow();
+    }
+
+    /**
+     * Exécute une opération de hachage sur le pool dédié et attend son résultat
+     *
+     * @param operation Nom de l'opération (tag des métriques, ex. login, register)
+     * @param task      Opération à exécuter
+     * @return Résultat de l'opération
+     * @throws ServiceUnavailableException Si la file d'attente est pleine ou le délai dépassé
+     */
+    public <T> T execute(String operation, Supplier<T> task) {
+        Timer duration = Timer.builder("auth.hashing.duration").tag("operation", operation).register(meterRegistry);
+        Timer wait = Timer.builder("auth.hashing.wait").tag("operation", operation).register(meterRegistry);
+        long submittedAt = System.nanoTime();
+
+        Future<T> future;
+        try {
+            future = executor.submit(() -> {
+                wait.record(System.nanoTime() - submittedAt, TimeUnit.NANOSECONDS);
+                return duration.record(task);
+            });
+        } catch (RejectedExecutionException e) {
+            Counter.builder("auth.hashing.rejected").tag("operation", operation).register(meterRegistry).increment();
+            throw new ServiceUnavailableException("Service d'authentification saturé, veuillez réessayer");
+        }
+
+        try {
+            return future.get(timeoutMs, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            future.cancel(true);
+            throw new ServiceUnavailableException("Service d'authentification saturé, veuillez réessayer", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            if (e.getCause() instanceof Error error) {
+                throw error;
+            }
+            throw new IllegalStateException(e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            future.cancel(true);
+            throw new ServiceUnavailableException("Opération d'authentification interrompue", e);
+        }
+    }
+}
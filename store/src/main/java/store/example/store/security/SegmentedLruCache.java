@@ -0,0 +1,148 @@
+package store.example.store.security;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Cache borné, évincé par ordre d'utilisation (LRU)
+ *
+ * Les clés sont réparties sur des segments indépendants, chacun étant une
+ * LinkedHashMap en ordre d'accès protégée par son propre verrou : lorsqu'un
+ * segment est plein, l'insertion d'une nouvelle clé supprime l'entrée la moins
+ * récemment utilisée du segment. Une insertion coûte donc O(1), que le cache
+ * soit plein ou non, et la nouvelle entrée est toujours conservée.
+ *
+ * @param <K> Type des clés
+ * @param <V> Type des valeurs
+ */
+final class SegmentedLruCache<K, V> {
+
+    private static final int SEGMENTS = 16;
+
+    private final Segment<K, V>[] segments;
+
+    /**
+     * @param maxEntries Nombre maximal d'entrées, réparti entre les segments
+     */
+    SegmentedLruCache(int maxEntries) {
+        this(maxEntries, SEGMENTS);
+    }
+
+    /**
+     * @param maxEntries Nombre maximal d'entrées, réparti entre les segments
+     * @param segments   Nombre de segments (au plus maxEntries)
+     */
+    @SuppressWarnings("unchecked")
+    SegmentedLruCache(int maxEntries, int segments) {
+        int segmentCount = Math.max(1, Math.min(segments, maxEntries));
+        this.segments = new Segment[segmentCount];
+        for (int i = 0; i < segmentCount; i++) {
+            // Les premiers segments reçoivent le reste de la division
+            int capacity = maxEntries / segmentCount + (i < maxEntries % segmentCount ? 1 : 0);
+            this.segments[i] = new Segment<>(Math.max(1, capacity));
+        }
+    }
+
+    /**
+     * Lit une entrée et la marque comme la plus récemment utilisée
+     *
+     * @param key Clé
+     * @return Valeur, ou null si la clé est absente
+     */
+    V get(K key) {
+        Segment<K, V> segment = segment(key);
+        synchronized (segment) {
+            return segment.get(key);
+        }
+    }
+
+    /**
+     * Ajoute ou remplace une entrée, en évinçant au besoin l'entrée la moins récemment utilisée
+     *
+     * @param key   Clé
+     * @param value Valeur
+     */
+    void put(K key, V value) {
+        Segment<K, V> segment = segment(key);
+        synchronized (segment) {
+            segment.put(key, value);
+        }
+    }
+
+    /**
+     * Supprime une entrée si elle est associée à la valeur donnée
+     *
+     * @param key   Clé
+     * @param value Valeur attendue
+     */
+    void remove(K key, V value) {
+        Segment<K, V> segment = segment(key);
+        synchronized (segment) {
+            segment.remove(key, value);
+        }
+    }
+
+    /**
+     * Supprime une entrée
+     *
+     * @param key Clé
+     */
+    void remove(K key) {
+        Segment<K, V> segment = segment(key);
+        synchronized (segment) {
+            segment.remove(key);
+        }
+    }
+
+    /**
+     * Nombre d'entrées en cache
+     */
+    int size() {
+        int size = 0;
+        for (Segment<K, V> segment : segments) {
+            synchronized (segment) {
+                size += segment.size();
+            }
+        }
+        return size;
+    }
+
+    /**
+     * Nombre d'entrées supprimées faute de place
+     */
+    long evictions() {
+        long evictions = 0;
+        for (Segment<K, V> segment : segments) {
+            synchronized (segment) {
+                evictions += segment.evictions;
+            }
+        }
+        return evictions;
+    }
+
+    private Segment<K, V> segment(K key) {
+        int hash = key.hashCode();
+        return segments[((hash ^ (hash >>> 16)) & Integer.MAX_VALUE) % segments.length];
+    }
+
+    private static final class Segment<K, V> extends LinkedHashMap<K, V> {
+
+        private final int capacity;
+
+        private long evictions;
+
+        Segment(int capacity) {
+            super(16, 0.75f, true);
+            this.capacity = capacity;
+        }
+
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<K, V> eldest) {
+            if (size() > capacity) {
+                evictions++;
+                return true;
+            }
+            return false;
+        }
+    }
+}
@@ -0,0 +1,140 @@
+package store.example.store.security;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Seaux à jetons indexés par clé (email, adresse IP...), pour une limite donnée
+ *
+ * L'état d'un seau tient dans un seul long (date de dernière mise à jour et
+ * nombre de jetons en millièmes), modifié par compare-and-set : aucune prise
+ * de verrou, et une quarantaine d'octets par clé.
+ *
+ * Le nombre de clés est borné. Au-delà, les seaux pleins sont d'abord supprimés
+ * (les oublier ne change rien : un nouveau seau est plein), puis, si nécessaire,
+ * les seaux les moins récemment utilisés.
+ */
+final class TokenBucketLimiter {
+
+    private static final int TOKEN_BITS = 22;
+    private static final long TOKEN_MASK = (1L << TOKEN_BITS) - 1;
+    private static final long ONE_TOKEN = 1000;
+
+    /**
+     * Capacité maximale d'un seau (les jetons sont stockés en millièmes sur 22 bits)
+     */
+    static final long MAX_CAPACITY = TOKEN_MASK / ONE_TOKEN;
+
+    private final long capacity;
+
+    private final long refillPerMinute;
+
+    private final int maxKeys;
+
+    private final long origin = System.currentTimeMillis();
+
+    private final ConcurrentHashMap<String, AtomicLong> buckets = new ConcurrentHashMap<>();
+
+    private final AtomicBoolean evicting = new AtomicBoolean();
+
+    private final LongAdder evictions = new LongAdder();
+
+    /**
+     * @param capacity        Nombre de requêtes autorisées en rafale
+     * @param refillPerMinute Nombre de jetons rendus par minute
+     * @param maxKeys         Nombre maximal de clés suivies
+     */
+    TokenBucketLimiter(long capacity, long refillPerMinute, int maxKeys) {
+        if (capacity < 1 || capacity > MAX_CAPACITY || refillPerMinute < 1) {
+            throw new IllegalArgumentException("Limite de débit invalide : capacité " + capacity
+                    + " (1 à " + MAX_CAPACITY + "), " + refillPerMinute + " jetons par minute");
+        }
+        this.capacity = capacity * ONE_TOKEN;
+        this.refillPerMinute = refillPerMinute;
+        this.maxKeys = Math.max(1, maxKeys);
+    }
+
+    /**
+     * Consomme un jeton du seau de la clé
+     *
+     * @param key Clé (email, adresse IP...)
+     * @return 0 si la requête est autorisée, sinon le délai avant le prochain jeton (millisecondes)
+     */
+    long tryAcquire(String key) {
+        long now = System.currentTimeMillis() - origin;
+        AtomicLong bucket = buckets.get(key);
+        if (bucket == null) {
+            bucket = buckets.computeIfAbsent(key, k -> new AtomicLong(now << TOKEN_BITS | capacity));
+            if (buckets.size() > maxKeys) {
+                evict(now);
+            }
+        }
+
+        while (true) {
+            long state = bucket.get();
+            long tokens = tokensAt(state, now);
+            if (tokens < ONE_TOKEN) {
+                return ((ONE_TOKEN - tokens) * 60_000 + refillPerMinute * ONE_TOKEN - 1) / (refillPerMinute * ONE_TOKEN);
+            }
+            long updated = Math.max(now, state >>> TOKEN_BITS) << TOKEN_BITS | (tokens - ONE_TOKEN);
+            if (bucket.compareAndSet(state, updated)) {
+                return 0;
+            }
+        }
+    }
+
+    /**
+     * Nombre de clés suivies
+     */
+    int size() {
+        return buckets.size();
+    }
+
+    /**
+     * Nombre de clés oubliées alors que leur seau n'était pas plein
+     */
+    long evictions() {
+        return evictions.sum();
+    }
+
+    private long tokensAt(long state, long now) {
+        long updatedAt = state >>> TOKEN_BITS;
+        long tokens = state & TOKEN_MASK;
+        long elapsed = Math.max(0, now - updatedAt);
+        return Math.min(capacity, tokens + elapsed * refillPerMinute * ONE_TOKEN / 60_000);
+    }
+
+    /**
+     * Ramène le nombre de clés sous 90 % de la borne (un seul thread à la fois)
+     */
+    private void evict(long now) {
+        if (!evicting.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            buckets.entrySet().removeIf(entry -> tokensAt(entry.getValue().get(), now) >= capacity);
+
+            int target = maxKeys - maxKeys / 10;
+            int excess = buckets.size() - target;
+            if (excess <= 0) {
+                return;
+            }
+            List<Map.Entry<String, Long>> byLastUse = new ArrayList<>(buckets.size());
+            buckets.forEach((key, bucket) -> byLastUse.add(Map.entry(key, bucket.get() >>> TOKEN_BITS)));
+            byLastUse.sort(Map.Entry.comparingByValue(Comparator.naturalOrder()));
+            for (int i = 0; i < excess && i < byLastUse.size(); i++) {
+                if (buckets.remove(byLastUse.get(i).getKey()) != null) {
+                    evictions.increment();
+                }
+            }
+        } finally {
+            evicting.set(false);
+        }
+    }
+}
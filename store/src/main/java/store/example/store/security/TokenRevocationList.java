@@ -0,0 +1,162 @@
+package store.example.store.security;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Liste de révocation des tokens JWT, en mémoire
+ *
+ * Deux types de révocation sont enregistrés :
+ * un token précis (identifiant jti, à la déconnexion) et une date "not-before"
+ * par utilisateur (changement de rôle, suppression du compte), qui invalide
+ * tous les tokens émis avant elle.
+ *
+ * Chaque requête authentifiée consulte d'abord un filtre de Bloom, sans verrou ni
+ * allocation : dans le cas courant (token non révoqué) la réponse est immédiate.
+ * Les ensembles exacts ne sont consultés qu'en cas de réponse positive du filtre.
+ * Une révocation n'a plus d'effet une fois la durée de vie des tokens écoulée :
+ * les entrées correspondantes sont alors purgées et le filtre est reconstruit.
+ *
+ * La liste est propre à l'instance ; elle est perdue au redémarrage.
+ *
+ * Métriques exposées (Micrometer) :
+ * auth.revocation.entries, auth.revocation.bloom.hits et auth.revocation.bloom.false-positives.
+ */
+@Component
+public class TokenRevocationList {
+
+    private static final long TOKEN_DOMAIN = 0x746f6b656eL;
+    private static final long USER_DOMAIN = 0x75736572L;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${jwt.expiration}")
+    private long tokenTtl;
+
+    @Value("${jwt.revocation.bloom-bits:1048576}")
+    private long bloomBits;
+
+    @Value("${jwt.revocation.bloom-hashes:5}")
+    private int bloomHashes;
+
+    /**
+     * Tokens révoqués : jti vers date d'expiration du token (millisecondes depuis l'epoch)
+     */
+    private final ConcurrentHashMap<String, Long> revokedTokens = new ConcurrentHashMap<>();
+
+    /**
+     * Dates "not-before" par utilisateur : les tokens émis avant cette date sont refusés
+     */
+    private final ConcurrentHashMap<Long, Long> userNotBefore = new ConcurrentHashMap<>();
+
+    private volatile BloomFilter filter;
+
+    private Counter bloomHits;
+
+    private Counter falsePositives;
+
+    @PostConstruct
+    void init() {
+        filter = new BloomFilter(bloomBits, bloomHashes);
+        Gauge.builder("auth.revocation.entries", this, TokenRevocationList::size)
+                .description("Révocations en cours de validité")
+                .register(meterRegistry);
+        bloomHits = Counter.builder("auth.revocation.bloom.hits")
+                .description("Réponses positives du filtre de Bloom")
+                .register(meterRegistry);
+        falsePositives = Counter.builder("auth.revocation.bloom.false-positives")
+                .description("Réponses positives du filtre de Bloom démenties par les ensembles exacts")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Révoque un token précis
+     *
+     * @param jti       Identifiant du token
+     * @param expiresAt Date d'expiration du token (millisecondes depuis l'epoch)
+     */
+    public synchronized void revokeToken(String jti, long expiresAt) {
+        revokedTokens.merge(jti, expiresAt, Math::max);
+        filter.add(BloomFilter.hash(TOKEN_DOMAIN, jti));
+    }
+
+    /**
+     * Révoque tous les tokens émis jusqu'à maintenant pour un utilisateur
+     *
+     * Les dates d'émission des tokens étant à la seconde, la date "not-before" est
+     * arrondie à la seconde supérieure : un token émis dans la même seconde que la
+     * révocation est aussi refusé.
+     *
+     * @param userId ID de l'utilisateur
+     */
+    public synchronized void revokeUser(Long userId) {
+        long notBefore = (System.currentTimeMillis() / 1000 + 1) * 1000;
+        userNotBefore.merge(userId, notBefore, Math::max);
+        filter.add(BloomFilter.hash(USER_DOMAIN, userId));
+    }
+
+    /**
+     * Indique si un token a été révoqué
+     *
+     * @param jti      Identifiant du token (null pour les tokens sans jti)
+     * @param userId   ID de l'utilisateur
+     * @param issuedAt Date d'émission du token (millisecondes depuis l'epoch)
+     * @return true si le token ou l'ensemble des tokens de l'utilisateur a été révoqué
+     */
+    public boolean isRevoked(String jti, Long userId, long issuedAt) {
+        BloomFilter current = filter;
+        boolean tokenHit = jti != null && current.mightContain(BloomFilter.hash(TOKEN_DOMAIN, jti));
+        boolean userHit = userId != null && current.mightContain(BloomFilter.hash(USER_DOMAIN, userId));
+        if (!tokenHit && !userHit) {
+            return false;
+        }
+
+        bloomHits.increment();
+        if (tokenHit && revokedTokens.containsKey(jti)) {
+            return true;
+        }
+        Long notBefore = userHit ? userNotBefore.get(userId) : null;
+        if (notBefore != null && issuedAt < notBefore) {
+            return true;
+        }
+        falsePositives.increment();
+        return false;
+    }
+
+    /**
+     * Nombre de révocations en cours de validité
+     *
+     * @return Nombre de tokens et d'utilisateurs révoqués
+     */
+    public int size() {
+        return revokedTokens.size() + userNotBefore.size();
+    }
+
+    /**
+     * Purge les révocations devenues inutiles (tous les tokens concernés ont expiré)
+     * et reconstruit le filtre de Bloom à partir des révocations restantes
+     */
+    @Scheduled(fixedDelayString = "${jwt.revocation.prune-ms:60000}")
+    public synchronized void prune() {
+        long now = System.currentTimeMillis();
+        boolean removed = revokedTokens.values().removeIf(expiresAt -> expiresAt <= now);
+        removed |= userNotBefore.values().removeIf(notBefore -> notBefore + tokenTtl <= now);
+        if (!removed) {
+            return;
+        }
+
+        BloomFilter rebuilt = new BloomFilter(bloomBits, bloomHashes);
+        revokedTokens.keySet().forEach(jti -> rebuilt.add(BloomFilter.hash(TOKEN_DOMAIN, jti)));
+        userNotBefore.keySet().forEach(userId -> rebuilt.add(BloomFilter.hash(USER_DOMAIN, userId)));
+        filter = rebuilt;
+    }
+}
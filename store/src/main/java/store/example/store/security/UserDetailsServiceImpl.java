@@ -5,6 +5,7 @@ import store.example.store.entity.User;
 import store.example.store.repository.UserRepository;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UserDetailsPasswordService;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.stereotype.Service;
@@ -17,7 +18,7 @@ import org.springframework.transaction.annotation.Transactional;
  * pour l'authentification et l'autorisation.
  */
 @Service
-public class UserDetailsServiceImpl implements UserDetailsService {
+public class UserDetailsServiceImpl implements UserDetailsService, UserDetailsPasswordService {
 
     @Autowired
     private UserRepository userRepository;
@@ -30,12 +31,47 @@ public class UserDetailsServiceImpl implements UserDetailsService {
      * @throws UsernameNotFoundException Si l'utilisateur n'est pas trouvé
      */
     @Override
-    @Transactional
+    @Transactional(readOnly = true)
     public UserDetails loadUserByUsername(String username) throws UsernameNotFoundException {
-        User user = userRepository.findByEmail(username)
+        // Projection : seules les colonnes utiles à l'authentification sont lues
+        return userRepository.findCredentialsByEmail(username)
+                .map(UserPrincipal::fromCredentials)
                 .orElseThrow(() -> new UsernameNotFoundException("Utilisateur non trouvé avec l'email : " + username));
+    }
+
+    /**
+     * Enregistre le mot de passe ré-encodé au coût courant
+     * 
+     * Appelé par Spring Security après une connexion réussie, lorsque le hachage
+     * stocké n'utilise pas l'encodeur ou le coût configuré.
+     * 
+     * @param user Utilisateur authentifié
+     * @param newPassword Nouveau hash du mot de passe
+     * @return Utilisateur avec le nouveau hash
+     */
+    @Override
+    @Transactional
+    public UserDetails updatePassword(UserDetails user, String newPassword) {
+        userRepository.updatePasswordByEmail(user.getUsername(), newPassword);
+        if (user instanceof UserPrincipal principal) {
+            return new UserPrincipal(principal.getId(), principal.getEmail(), newPassword, principal.getRole());
+        }
+        return loadUserByUsername(user.getUsername());
+    }
 
-        return user; // L'entité User implémente UserDetails
+    /**
+     * Charge le principal léger d'un utilisateur (ID, email, rôle)
+     * 
+     * @param email Email de l'utilisateur
+     * @return Principal de l'utilisateur
+     * @throws UsernameNotFoundException Si l'utilisateur n'est pas trouvé
+     */
+    @Transactional(readOnly = true)
+    public UserPrincipal loadPrincipalByEmail(String email) throws UsernameNotFoundException {
+        return userRepository.findCredentialsByEmail(email)
+                .map(UserPrincipal::fromCredentials)
+                .map(UserPrincipal::withoutPassword)
+                .orElseThrow(() -> new UsernameNotFoundException("Utilisateur non trouvé avec l'email : " + email));
     }
 
     /**
@@ -0,0 +1,95 @@
+package store.example.store.security;
+
+
+import store.example.store.repository.UserCredentialsView;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import org.springframework.security.core.AuthenticatedPrincipal;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.userdetails.UserDetails;
+
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Principal léger d'un utilisateur authentifié
+ * 
+ * Lors de la connexion, il est lu par projection (ID, email, hash du mot de passe, rôle).
+ * Pour les requêtes suivantes, il est construit directement à partir des claims du token,
+ * sans mot de passe et sans charger l'entité User depuis la base de données.
+ */
+@Getter
+@AllArgsConstructor
+public class UserPrincipal implements UserDetails, AuthenticatedPrincipal {
+
+    /**
+     * ID de l'utilisateur
+     */
+    private final Long id;
+
+    /**
+     * Email de l'utilisateur
+     */
+    private final String email;
+
+    /**
+     * Hash du mot de passe (null lorsque le principal provient d'un token)
+     */
+    private final String password;
+
+    /**
+     * Rôle de l'utilisateur (USER, MANAGER ou ADMIN)
+     */
+    private final String role;
+
+    /**
+     * Crée un principal à partir de la projection des informations d'authentification
+     * 
+     * @param credentials Projection ID, email, hash du mot de passe et rôle
+     * @return Un UserPrincipal
+     */
+    public static UserPrincipal fromCredentials(UserCredentialsView credentials) {
+        return new UserPrincipal(credentials.getId(), credentials.getEmail(),
+                credentials.getPassword(), credentials.getRole().name());
+    }
+
+    /**
+     * Copie du principal sans le hash du mot de passe (pour la mise en cache)
+     * 
+     * @return Un UserPrincipal sans mot de passe
+     */
+    public UserPrincipal withoutPassword() {
+        return password == null ? this : new UserPrincipal(id, email, null, role);
+    }
+
+    /**
+     * Nom du principal (email), renvoyé par Authentication.getName()
+     * 
+     * @return Email de l'utilisateur
+     */
+    @Override
+    public String getName() {
+        return email;
+    }
+
+    /**
+     * Nom d'utilisateur Spring Security (email)
+     * 
+     * @return Email de l'utilisateur
+     */
+    @Override
+    public String getUsername() {
+        return email;
+    }
+
+    /**
+     * Autorités Spring Security correspondant au rôle
+     * 
+     * @return Autorité ROLE_<rôle>
+     */
+    @Override
+    public Collection<? extends GrantedAuthority> getAuthorities() {
+        return List.of(new SimpleGrantedAuthority("ROLE_" + role));
+    }
+}
@@ -0,0 +1,182 @@
+package store.example.store.security;
+
+import io.jsonwebtoken.Claims;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.core.userdetails.UsernameNotFoundException;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Base64;
+import java.util.Date;
+
+/**
+ * Cache des tokens JWT déjà vérifiés
+ *
+ * Un token dont la signature a été vérifiée est conservé, sous la forme de
+ * l'empreinte SHA-256 du token, jusqu'à son expiration. Une requête qui présente
+ * de nouveau le même token évite ainsi le décodage et la vérification HMAC.
+ * Le token lui-même n'est jamais conservé en mémoire.
+ *
+ * Le principal est construit à partir des claims du token (ID et rôle). Ces claims
+ * ne sont crus que pendant une durée limitée : passé ce délai, l'utilisateur est
+ * relu en base une fois, ce qui borne le temps de prise en compte d'un changement
+ * de rôle ou d'une suppression de compte.
+ *
+ * Les tokens révoqués (déconnexion, changement de rôle, suppression du compte)
+ * sont refusés immédiatement, y compris lorsqu'ils sont en cache : la
+ * {@link TokenRevocationList} est consultée à chaque authentification.
+ *
+ * Le nombre de tokens en cache est borné : lorsque le cache est plein, le token
+ * le moins récemment présenté est oublié au profit du nouveau
+ * ({@link SegmentedLruCache}). Un token expiré est supprimé lorsqu'il est
+ * présenté de nouveau, ou évincé comme les autres.
+ */
+@Component
+public class VerifiedTokenCache {
+
+    @Autowired
+    private JwtTokenProvider tokenProvider;
+
+    @Autowired
+    private UserDetailsServiceImpl userDetailsService;
+
+    @Autowired
+    private TokenRevocationList tokenRevocationList;
+
+    @Value("${jwt.cache.max-entries:10000}")
+    private int maxEntries;
+
+    /**
+     * Durée pendant laquelle l'ID et le rôle d'un token sont crus sans relecture en base
+     */
+    @Value("${jwt.claims-ttl-ms:300000}")
+    private long claimsTtl;
+
+    private SegmentedLruCache<String, VerifiedToken> entries;
+
+    /**
+     * Token vérifié
+     *
+     * @param principal Utilisateur authentifié par le token
+     * @param jti       Identifiant du token (null pour les tokens sans jti)
+     * @param issuedAt  Date d'émission du token (millisecondes depuis l'epoch)
+     * @param expiresAt Date d'expiration du token (millisecondes depuis l'epoch)
+     * @param refreshAt Date à partir de laquelle le principal doit être relu en base
+     */
+    private record VerifiedToken(UserPrincipal principal, String jti, long issuedAt, long expiresAt, long refreshAt) {
+    }
+
+    @PostConstruct
+    void init() {
+        entries = new SegmentedLruCache<>(Math.max(1, maxEntries));
+    }
+
+    /**
+     * Authentifie un token, en réutilisant le résultat d'une vérification précédente
+     *
+     * @param token Token JWT
+     * @return Utilisateur authentifié, ou null si le token est invalide, expiré,
+     *         révoqué ou si l'utilisateur n'existe plus
+     */
+    public UserPrincipal authenticate(String token) {
+        String key = fingerprint(token);
+        long now = System.currentTimeMillis();
+
+        VerifiedToken cached = entries.get(key);
+        if (cached != null) {
+            if (now >= cached.expiresAt()
+                    || tokenRevocationList.isRevoked(cached.jti(), cached.principal().getId(), cached.issuedAt())) {
+                entries.remove(key, cached);
+                return null;
+            }
+            if (now < cached.refreshAt()) {
+                return cached.principal();
+            }
+            return store(key, reload(cached.principal().getEmail()),
+                    cached.jti(), cached.issuedAt(), cached.expiresAt(), now);
+        }
+
+        Claims claims = tokenProvider.parseToken(token);
+        if (claims == null) {
+            return null;
+        }
+        long expiresAt = claims.getExpiration() != null ? claims.getExpiration().getTime() : Long.MAX_VALUE;
+        long issuedAt = claims.getIssuedAt() != null ? claims.getIssuedAt().getTime() : 0L;
+        long checkedAt = issuedAt;
+        UserPrincipal principal = fromClaims(claims, now);
+        if (principal == null) {
+            // Token sans claims (ou claims trop anciens) : relecture de l'utilisateur
+            principal = reload(claims.getSubject());
+            checkedAt = now;
+        }
+        if (principal != null && tokenRevocationList.isRevoked(claims.getId(), principal.getId(), issuedAt)) {
+            return null;
+        }
+        return store(key, principal, claims.getId(), issuedAt, expiresAt, checkedAt);
+    }
+
+    /**
+     * Nombre de tokens actuellement en cache
+     *
+     * @return Nombre d'entrées
+     */
+    public int size() {
+        return entries.size();
+    }
+
+    /**
+     * Nombre de tokens oubliés faute de place
+     *
+     * @return Nombre d'évictions
+     */
+    public long evictions() {
+        return entries.evictions();
+    }
+
+    /**
+     * Construit le principal à partir des claims, s'ils sont présents et encore récents
+     */
+    private UserPrincipal fromClaims(Claims claims, long now) {
+        Long userId = claims.get(JwtTokenProvider.USER_ID_CLAIM, Long.class);
+        String role = claims.get(JwtTokenProvider.ROLE_CLAIM, String.class);
+        Date issuedAt = claims.getIssuedAt();
+        if (userId == null || role == null || issuedAt == null || now >= issuedAt.getTime() + claimsTtl) {
+            return null;
+        }
+        return new UserPrincipal(userId, claims.getSubject(), null, role);
+    }
+
+    private UserPrincipal reload(String email) {
+        try {
+            return userDetailsService.loadPrincipalByEmail(email);
+        } catch (UsernameNotFoundException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Met en cache le principal jusqu'à sa prochaine relecture (rien n'est conservé pour un principal null)
+     */
+    private UserPrincipal store(String key, UserPrincipal principal, String jti, long issuedAt,
+            long expiresAt, long checkedAt) {
+        if (principal == null) {
+            entries.remove(key);
+            return null;
+        }
+        entries.put(key, new VerifiedToken(principal, jti, issuedAt, expiresAt, Math.min(expiresAt, checkedAt + claimsTtl)));
+        return principal;
+    }
+
+    private static String fingerprint(String token) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(token.getBytes(StandardCharsets.US_ASCII));
+            return Base64.getEncoder().encodeToString(digest);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 indisponible", e);
+        }
+    }
+}
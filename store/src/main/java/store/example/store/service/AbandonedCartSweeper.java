@@ -0,0 +1,163 @@
+package store.example.store.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import store.example.store.repository.CartItemRepository;
+import store.example.store.repository.CartSummaryRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Nettoyage périodique des paniers abandonnés
+ *
+ * Un panier est abandonné lorsqu'aucune de ses lignes n'a été modifiée depuis
+ * cart.sweeper.max-idle-days jours (CartItem.updatedAt, ou createdAt pour les lignes
+ * antérieures). Ses lignes et son résumé sont supprimés par lots d'au plus
+ * cart.sweeper.chunk-size paniers, chacun dans une transaction courte : le nettoyage
+ * ne verrouille jamais une grande partie de cart_items. Le nettoyage a lieu toutes les
+ * cart.sweeper.interval-ms et parcourt les paniers par ID d'utilisateur croissant
+ * (pagination par clé).
+ *
+ * Chaque lot verrouille d'abord les résumés des paniers, comme toute modification du
+ * panier, puis supprime les lignes en revérifiant l'inactivité panier par panier : un
+ * panier modifié pendant le nettoyage est conservé en entier. Les paniers gardés en mémoire
+ * ({@link CartWriteBehindStore}) sont ignorés, ils sont en cours d'utilisation. Le test
+ * et la suppression passent par {@link CartWriteBehindStore#sweep}, qui réécrit en
+ * entier un panier chargé en mémoire entre les deux.
+ *
+ * Un lot en échec est ignoré et le nettoyage continue avec les lots suivants.
+ *
+ * Métriques exposées (Micrometer) : cart.sweeper.rows (lignes supprimées),
+ * cart.sweeper.carts (paniers nettoyés) et cart.sweeper.failures (lots en échec).
+ */
+@Component
+public class AbandonedCartSweeper {
+
+    private static final Logger log = LoggerFactory.getLogger(AbandonedCartSweeper.class);
+
+    @Autowired
+    private CartItemRepository cartItemRepository;
+
+    @Autowired
+    private CartSummaryRepository cartSummaryRepository;
+
+    @Autowired
+    private CartWriteBehindStore cartStore;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${cart.sweeper.enabled:true}")
+    private boolean enabled;
+
+    @Value("${cart.sweeper.max-idle-days:30}")
+    private int maxIdleDays;
+
+    /**
+     * Nombre maximal de paniers supprimés par transaction
+     */
+    @Value("${cart.sweeper.chunk-size:200}")
+    private int chunkSize;
+
+    private TransactionTemplate chunkTransaction;
+
+    private Counter reclaimedRows;
+
+    private Counter reclaimedCarts;
+
+    private Counter failedChunks;
+
+    @PostConstruct
+    void init() {
+        chunkTransaction = new TransactionTemplate(transactionManager);
+        reclaimedRows = Counter.builder("cart.sweeper.rows")
+                .description("Lignes de paniers abandonnés supprimées")
+                .register(meterRegistry);
+        reclaimedCarts = Counter.builder("cart.sweeper.carts")
+                .description("Paniers abandonnés nettoyés")
+                .register(meterRegistry);
+        failedChunks = Counter.builder("cart.sweeper.failures")
+                .description("Lots de paniers abandonnés non supprimés (erreur)")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Supprime les paniers abandonnés, lot par lot
+     *
+     * @return Le nombre de lignes supprimées
+     */
+    @Scheduled(initialDelayString = "${cart.sweeper.interval-ms:3600000}",
+            fixedDelayString = "${cart.sweeper.interval-ms:3600000}")
+    public int sweep() {
+        if (!enabled) {
+            return 0;
+        }
+        LocalDateTime cutoff = LocalDateTime.now().minusDays(maxIdleDays);
+        long afterUserId = 0;
+        int rows = 0;
+        int carts = 0;
+
+        while (true) {
+            List<Long> userIds;
+            try {
+                userIds = cartItemRepository.findIdleUserIds(afterUserId, cutoff, Limit.of(chunkSize));
+            } catch (RuntimeException e) {
+                // Sans la liste des paniers, la pagination ne peut pas avancer
+                log.warn("Échec de la recherche des paniers abandonnés après l'utilisateur {}", afterUserId, e);
+                break;
+            }
+            if (userIds.isEmpty()) {
+                break;
+            }
+            afterUserId = userIds.get(userIds.size() - 1);
+
+            try {
+                int[] deleted = cartStore.sweep(() -> {
+                    List<Long> idle = userIds.stream().filter(userId -> !cartStore.contains(userId)).toList();
+                    if (idle.isEmpty()) {
+                        return new int[] { 0, 0 };
+                    }
+                    return chunkTransaction.execute(status -> {
+                        // Résumés verrouillés avant les lignes, dans l'ordre des modifications
+                        // du panier (CartService.lockSummary) : pas d'interblocage possible
+                        cartSummaryRepository.lockByUserIds(idle);
+                        int lines = cartItemRepository.deleteIdleByUserIds(idle, cutoff);
+                        cartSummaryRepository.deleteEmptyByUserIds(idle);
+                        int emptied = idle.size() - (int) cartItemRepository.countNonEmptyCarts(idle);
+                        return new int[] { lines, emptied };
+                    });
+                });
+                rows += deleted[0];
+                carts += deleted[1];
+                reclaimedRows.increment(deleted[0]);
+                reclaimedCarts.increment(deleted[1]);
+            } catch (RuntimeException e) {
+                failedChunks.increment();
+                log.warn("Échec du nettoyage des paniers des utilisateurs {} à {}",
+                        userIds.get(0), afterUserId, e);
+            }
+            if (userIds.size() < chunkSize) {
+                break;
+            }
+        }
+
+        if (rows > 0) {
+            log.info("Paniers abandonnés supprimés : {} ({} lignes)", carts, rows);
+        }
+        return rows;
+    }
+}
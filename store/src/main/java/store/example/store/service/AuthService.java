@@ -4,7 +4,14 @@ import store.example.store.dto.request.LoginRequest;
 import store.example.store.dto.request.RegisterRequest;
 import store.example.store.dto.reponse.AuthResponse;
 import store.example.store.entity.User;
+import store.example.store.exception.ServiceUnavailableException;
+import store.example.store.exception.TooManyRequestsException;
+import store.example.store.security.AuthRateLimiter;
 import store.example.store.security.JwtTokenProvider;
+import store.example.store.security.PasswordHashingBulkhead;
+import store.example.store.security.TokenRevocationList;
+import store.example.store.security.VerifiedTokenCache;
+import io.jsonwebtoken.Claims;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
@@ -12,6 +19,7 @@ import org.springframework.security.core.Authentication;
 import org.springframework.security.core.AuthenticationException;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 
 /**
@@ -33,20 +41,43 @@ public class AuthService {
     @Autowired
     private JwtTokenProvider tokenProvider;
 
+    @Autowired
+    private PasswordHashingBulkhead passwordHashingBulkhead;
+
+    @Autowired
+    private AuthRateLimiter authRateLimiter;
+
+    @Autowired
+    private VerifiedTokenCache verifiedTokenCache;
+
+    @Autowired
+    private TokenRevocationList tokenRevocationList;
+
     /**
      * Authentifie un utilisateur et génère un token JWT
      * 
+     * Exécutée hors transaction : aucune connexion JDBC n'est retenue pendant
+     * l'attente du hachage, le pool de hachage ouvre ses propres transactions
+     * courtes pour lire l'utilisateur et ré-encoder son mot de passe.
+     * 
      * @param loginRequest Données de connexion
+     * @param clientIp Adresse IP du client
      * @return Réponse d'authentification avec le token
      * @throws AuthenticationException Si les identifiants sont incorrects
+     * @throws TooManyRequestsException Si trop de tentatives ont été faites pour cet email ou cette adresse IP
      */
-    public AuthResponse authenticateUser(LoginRequest loginRequest) {
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public AuthResponse authenticateUser(LoginRequest loginRequest, String clientIp) {
+        // Limitation du débit avant tout hachage du mot de passe
+        authRateLimiter.checkLogin(loginRequest.getEmail(), clientIp);
+
         try {
-            // Authentification avec Spring Security
-            Authentication authentication = authenticationManager.authenticate(
-                    new UsernamePasswordAuthenticationToken(
-                            loginRequest.getEmail(),
-                            loginRequest.getPassword()));
+            // Authentification avec Spring Security, sur le pool dédié au hachage (BCrypt)
+            Authentication authentication = passwordHashingBulkhead.execute("login", () ->
+                    authenticationManager.authenticate(
+                            new UsernamePasswordAuthenticationToken(
+                                    loginRequest.getEmail(),
+                                    loginRequest.getPassword())));
 
             // Définition de l'authentification dans le contexte de sécurité
             SecurityContextHolder.getContext().setAuthentication(authentication);
@@ -69,6 +100,8 @@ public class AuthService {
 
         } catch (AuthenticationException e) {
             throw new IllegalArgumentException("Email ou mot de passe incorrect");
+        } catch (ServiceUnavailableException e) {
+            throw e;
         } catch (Exception e) { // AJOUTEZ OU MODIFIEZ CE BLOC
             // Log la pile d'appels complète pour le diagnostic
             e.printStackTrace(); 
@@ -80,22 +113,33 @@ public class AuthService {
     /**
      * Inscrit un nouvel utilisateur
      * 
+     * Le mot de passe est haché hors transaction ; seule l'insertion de
+     * l'utilisateur ouvre une transaction courte.
+     * 
      * @param registerRequest Données d'inscription
+     * @param clientIp Adresse IP du client
      * @return Réponse d'authentification avec le token
      * @throws IllegalArgumentException Si l'email existe déjà
+     * @throws TooManyRequestsException Si trop d'inscriptions ont été faites depuis cette adresse IP
      */
-    public AuthResponse registerUser(RegisterRequest registerRequest) {
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public AuthResponse registerUser(RegisterRequest registerRequest, String clientIp) {
+    authRateLimiter.checkRegister(clientIp);
+
     try {
-        // Vérification de l'unicité de l'email
+        // Email déjà utilisé : refus immédiat, sans occuper le pool de hachage
         if (userService.existsByEmail(registerRequest.getEmail())) {
             throw new IllegalArgumentException("Un compte avec cet email existe déjà");
         }
 
-        // Création de l'utilisateur
-        User user = userService.createUser(registerRequest);
+        // Hachage du mot de passe sur le pool dédié, avant toute transaction
+        String encodedPassword = userService.encodePassword(registerRequest.getPassword());
+
+        // Création de l'utilisateur (l'unicité de l'email est revérifiée dans la même transaction)
+        User user = userService.createUser(registerRequest, encodedPassword);
 
         // Génération du token JWT
-        String jwt = tokenProvider.generateTokenFromUsername(user.getEmail());
+        String jwt = tokenProvider.generateToken(user);
 
         return AuthResponse.builder()
                 .token(jwt)
@@ -107,6 +151,8 @@ public class AuthService {
                 .message("Inscription réussie")
                 .build();
 
+    } catch (ServiceUnavailableException e) {
+        throw e;
     } catch (Exception e) {
         // Log complet dans la console
         e.printStackTrace();
@@ -139,10 +185,10 @@ public class AuthService {
      * Valide un token JWT
      * 
      * @param token Token à valider
-     * @return true si le token est valide
+     * @return true si le token est valide et n'a pas été révoqué
      */
     public boolean validateToken(String token) {
-        return tokenProvider.validateToken(token);
+        return token != null && verifiedTokenCache.authenticate(token) != null;
     }
 
     /**
@@ -168,18 +214,26 @@ public class AuthService {
     }
 
     /**
-     * Déconnecte un utilisateur (côté serveur, principalement pour les logs)
+     * Déconnecte un utilisateur et révoque son token
      * 
      * @param email Email de l'utilisateur
+     * @param token Token JWT présenté (null si absent)
      * @return Message de confirmation
      */
-    public String logoutUser(String email) {
+    public String logoutUser(String email, String token) {
+        Claims claims = token != null ? tokenProvider.parseToken(token) : null;
+        if (claims != null) {
+            if (claims.getId() != null) {
+                tokenRevocationList.revokeToken(claims.getId(), claims.getExpiration().getTime());
+            } else {
+                // Token émis avant l'ajout du jti : révocation de toutes les sessions de l'utilisateur
+                tokenRevocationList.revokeUser(userService.findByEmail(claims.getSubject()).getId());
+            }
+        }
+
         // Suppression de l'authentification du contexte de sécurité
         SecurityContextHolder.clearContext();
 
-        // Note : Avec JWT, la déconnexion est principalement côté client
-        // (suppression du token du stockage local/session)
-
         return "Déconnexion réussie pour l'utilisateur : " + email;
     }
 }
\ No newline at end of file
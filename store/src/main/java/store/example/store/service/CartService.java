@@ -1,19 +1,43 @@
 package store.example.store.service;
 
+import store.example.store.dto.request.CartBatchRequest;
 import store.example.store.dto.request.CartItemRequest;
+import store.example.store.dto.reponse.CartBatchResponse;
+import store.example.store.dto.reponse.CartDeltaResponse;
 import store.example.store.dto.reponse.CartResponse;
+import store.example.store.dto.reponse.CartSummaryResponse;
 import store.example.store.entity.CartItem;
+import store.example.store.entity.CartSummary;
 import store.example.store.entity.Product;
-import store.example.store.entity.User;
 import store.example.store.exception.ResourceNotFoundException;
 import store.example.store.repository.CartItemRepository;
+import store.example.store.repository.CartSummaryRepository;
+import store.example.store.repository.CartSummaryView;
+import store.example.store.repository.CartTotalsView;
+import jakarta.annotation.PostConstruct;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.dialect.Dialect;
+import org.hibernate.dialect.MySQLDialect;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 import java.util.stream.Collectors;
 
 /**
@@ -21,11 +45,24 @@ import java.util.stream.Collectors;
  * 
  * Cette classe contient la logique métier pour les opérations
  * liées au panier (ajout, modification, suppression d'articles).
+ * 
+ * Lorsque cart.write-behind.enabled est activé, les paniers sont lus et modifiés
+ * en mémoire ({@link CartWriteBehindStore}) et écrits en base en différé ;
+ * une ligne y est identifiée par l'ID de son produit.
+ * 
+ * Sinon, chaque modification verrouille d'abord le résumé du panier
+ * ({@link CartSummary}) : les modifications d'un même panier sont sérialisées,
+ * et le résumé recalculé par l'une voit les lignes validées par les autres.
  */
 @Service
 @Transactional
 public class CartService {
 
+    /**
+     * Version des prix d'un résumé créé vide, à recalculer
+     */
+    private static final long STALE_VERSION = -1L;
+
     @Autowired
     private CartItemRepository cartItemRepository;
 
@@ -35,6 +72,41 @@ public class CartService {
     @Autowired
     private UserService userService;
 
+    @Autowired
+    private CartWriteBehindStore cartStore;
+
+    @Autowired
+    private CartSummaryRepository cartSummaryRepository;
+
+    @Autowired
+    private CatalogPriceVersion catalogPriceVersion;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Value("${cart.batch.max-operations:100}")
+    private int maxBatchOperations;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    /**
+     * true si la base accepte INSERT ... ON DUPLICATE KEY UPDATE (MySQL, MariaDB)
+     */
+    private boolean onDuplicateKeyUpsert;
+
+    /**
+     * Détermine la syntaxe d'upsert d'après le dialecte Hibernate, résolu à partir
+     * de la base réellement connectée (et non de l'URL JDBC, qui peut être enveloppée
+     * par un proxy ou un pilote de traçage)
+     */
+    @PostConstruct
+    void detectUpsertSyntax() {
+        Dialect dialect = entityManagerFactory.unwrap(SessionFactoryImplementor.class).getJdbcServices().getDialect();
+        // MariaDBDialect étend MySQLDialect
+        onDuplicateKeyUpsert = dialect instanceof MySQLDialect;
+    }
+
     /**
      * Récupère le panier d'un utilisateur
      * 
@@ -43,8 +115,19 @@ public class CartService {
      */
     @Transactional(readOnly = true)
     public CartResponse getCart(Long userId) {
-        List<CartItem> cartItems = cartItemRepository.findByUserId(userId);
+        if (cartStore.isEnabled()) {
+            return toCartResponse(storedItems(userId));
+        }
+        return toCartResponse(cartItemRepository.findWithProductByUserId(userId));
+    }
 
+    /**
+     * Construit la réponse du panier et ses totaux à partir de ses lignes
+     * 
+     * @param cartItems Lignes du panier
+     * @return Contenu du panier
+     */
+    private CartResponse toCartResponse(Collection<CartItem> cartItems) {
         List<CartResponse.CartItemResponse> itemResponses = cartItems.stream()
                 .map(CartResponse.CartItemResponse::fromEntity)
                 .collect(Collectors.toList());
@@ -69,44 +152,259 @@ public class CartService {
      * 
      * @param userId  ID de l'utilisateur
      * @param request Données de l'article à ajouter
-     * @return Panier mis à jour
+     * @return Ligne ajoutée ou modifiée et nouveaux totaux du panier
      * @throws IllegalArgumentException Si le stock est insuffisant
      */
-    public CartResponse addToCart(Long userId, CartItemRequest request) {
-        User user = userService.findById(userId);
-        Product product = productService.findById(request.getProductId());
+    public CartDeltaResponse addToCart(Long userId, CartItemRequest request) {
+        if (cartStore.isEnabled()) {
+            Product product = productService.findById(request.getProductId());
 
-        // Vérification du stock
-        if (!product.hasEnoughStock(request.getQuantity())) {
-            throw new IllegalArgumentException("Stock insuffisant pour le produit " + product.getName());
+            // Vérification du stock
+            if (!product.hasEnoughStock(request.getQuantity())) {
+                throw new IllegalArgumentException("Stock insuffisant pour le produit " + product.getName());
+            }
+
+            cartStore.update(userId, cart -> {
+                int newQuantity = cart.quantity(product.getId()) + request.getQuantity();
+                if (!product.hasEnoughStock(newQuantity)) {
+                    throw new IllegalArgumentException("Stock insuffisant pour la quantité demandée");
+                }
+                cart.set(product.getId(), newQuantity);
+                return null;
+            });
+            return storedDelta(userId, product.getId(), null);
+        }
+
+        lockSummary(userId);
+
+        // Création ou incrément de la ligne en une seule requête, stock vérifié par la base ;
+        // le produit n'est lu qu'en cas de refus, pour en donner le motif
+        if (upsert(userId, request.getProductId(), request.getQuantity()) == 0) {
+            Product product = productService.findById(request.getProductId());
+            if (!product.hasEnoughStock(request.getQuantity())) {
+                throw new IllegalArgumentException("Stock insuffisant pour le produit " + product.getName());
+            }
+            throw new IllegalArgumentException("Stock insuffisant pour la quantité demandée");
         }
+        CartItem cartItem = cartItemRepository.findWithProductByUserIdAndProductId(userId, request.getProductId())
+                .orElseThrow();
 
-        // Vérification si l'article existe déjà dans le panier
-        Optional<CartItem> existingItem = cartItemRepository.findByUserIdAndProductId(userId, request.getProductId());
+        // Une ligne existante avait au moins une unité : la quantité demandée seule signale une création
+        boolean created = cartItem.getQuantity() == request.getQuantity();
+        return delta(userId, cartItem, null, created ? 1 : 0, request.getQuantity(),
+                cartItem.getProduct().getPrice().multiply(BigDecimal.valueOf(request.getQuantity())));
+    }
 
-        if (existingItem.isPresent()) {
-            // Mise à jour de la quantité
-            CartItem cartItem = existingItem.get();
-            int newQuantity = cartItem.getQuantity() + request.getQuantity();
+    /**
+     * Ajoute une quantité d'un produit au panier par une requête unique (upsert)
+     * 
+     * MySQL et MariaDB utilisent INSERT ... ON DUPLICATE KEY UPDATE, qui reste atomique
+     * lorsque deux ajouts du même produit sont simultanés ; les autres bases (H2 dans
+     * les tests) utilisent MERGE.
+     * 
+     * @param userId    ID de l'utilisateur
+     * @param productId ID du produit
+     * @param quantity  Quantité à ajouter
+     * @return 0 si le stock ne couvre pas la nouvelle quantité
+     */
+    private int upsert(Long userId, Long productId, int quantity) {
+        if (onDuplicateKeyUpsert) {
+            return cartItemRepository.upsertQuantity(userId, productId, quantity);
+        }
+        return cartItemRepository.mergeQuantity(userId, productId, quantity);
+    }
 
-            // Vérification du stock pour la nouvelle quantité
-            if (!product.hasEnoughStock(newQuantity)) {
-                throw new IllegalArgumentException("Stock insuffisant pour la quantité demandée");
+    /**
+     * Applique une liste d'opérations au panier en une seule transaction
+     * 
+     * Les lignes du panier et les produits concernés sont chargés une seule fois
+     * (WHERE id IN), puis les opérations sont appliquées dans l'ordre. Une opération
+     * invalide (produit introuvable, quantité ou stock insuffisant...) est signalée
+     * dans son résultat sans empêcher l'application des autres.
+     * 
+     * @param userId  ID de l'utilisateur
+     * @param request Opérations à appliquer
+     * @return Panier final et résultat de chaque opération
+     * @throws IllegalArgumentException Si la liste est vide ou dépasse la taille maximale
+     */
+    public CartBatchResponse applyBatch(Long userId, CartBatchRequest request) {
+        List<CartBatchRequest.Operation> operations = request.getOperations();
+        if (operations == null || operations.isEmpty()) {
+            throw new IllegalArgumentException("La liste des opérations est obligatoire");
+        }
+        if (operations.size() > maxBatchOperations) {
+            throw new IllegalArgumentException("Trop d'opérations (maximum " + maxBatchOperations + ")");
+        }
+        long version = STALE_VERSION;
+        if (!cartStore.isEnabled()) {
+            // Verrou pris avant toute lecture : les lignes chargées ensuite sont à jour.
+            // La version des prix est lue avant les produits : un changement de prix
+            // validé entre-temps rendra le résumé périmé.
+            lockSummary(userId);
+            version = catalogPriceVersion.current();
+        }
+
+        Set<Long> productIds = new HashSet<>();
+        for (CartBatchRequest.Operation operation : operations) {
+            if (operation != null && operation.getProductId() != null) {
+                productIds.add(operation.getProductId());
             }
+        }
+        Map<Long, Product> products = productService.findAllByIds(productIds);
+        List<CartBatchResponse.OperationResult> results = new ArrayList<>(operations.size());
 
-            cartItem.setQuantity(newQuantity);
-            cartItemRepository.save(cartItem);
-        } else {
-            // Création d'un nouvel article
-            CartItem cartItem = CartItem.builder()
-                    .user(user)
-                    .product(product)
-                    .quantity(request.getQuantity())
-                    .build();
-            cartItemRepository.save(cartItem);
+        if (cartStore.isEnabled()) {
+            cartStore.update(userId, cart -> {
+                for (int i = 0; i < operations.size(); i++) {
+                    CartBatchRequest.Operation operation = operations.get(i);
+                    int currentQuantity = operation != null && operation.getProductId() != null
+                            ? cart.quantity(operation.getProductId())
+                            : 0;
+                    String error = check(operation, products, currentQuantity);
+                    if (error == null) {
+                        cart.set(operation.getProductId(), targetQuantity(operation, currentQuantity));
+                    }
+                    results.add(result(i, operation, error));
+                }
+                return null;
+            });
+            return batchResponse(storedItems(userId), results);
+        }
+
+        // Lignes actuelles indexées par produit, chargées avec leurs produits pour la réponse
+        Map<Long, CartItem> lines = new LinkedHashMap<>();
+        for (CartItem cartItem : cartItemRepository.findWithProductByUserId(userId)) {
+            lines.put(cartItem.getProduct().getId(), cartItem);
+        }
+        Map<Long, CartItem> removed = new HashMap<>();
+        List<CartItem> created = new ArrayList<>();
+
+        for (int i = 0; i < operations.size(); i++) {
+            CartBatchRequest.Operation operation = operations.get(i);
+            results.add(result(i, operation, apply(userId, operation, products, lines, removed, created)));
+        }
+
+        // Les lignes modifiées sont déjà gérées (dirty checking) : seules les créations
+        // et les suppressions passent par le repository
+        cartItemRepository.saveAll(created);
+        cartItemRepository.deleteAll(removed.values());
+
+        // Toutes les lignes sont en mémoire : le résumé est remplacé sans agrégation
+        CartBatchResponse response = batchResponse(lines.values(), results);
+        CartResponse cart = response.getCart();
+        storeSummary(userId, cart.getTotalItems(), cart.getTotalQuantity(), cart.getTotalAmount(), version);
+        return response;
+    }
+
+    private CartBatchResponse batchResponse(Collection<CartItem> cartItems,
+            List<CartBatchResponse.OperationResult> results) {
+        return CartBatchResponse.builder()
+                .cart(toCartResponse(cartItems))
+                .results(results)
+                .failed((int) results.stream().filter(result -> !result.isSuccess()).count())
+                .build();
+    }
+
+    private CartBatchResponse.OperationResult result(int index, CartBatchRequest.Operation operation, String error) {
+        return CartBatchResponse.OperationResult.builder()
+                .index(index)
+                .productId(operation != null ? operation.getProductId() : null)
+                .success(error == null)
+                .error(error)
+                .build();
+    }
+
+    /**
+     * Applique une opération du lot aux lignes du panier chargées en mémoire
+     * 
+     * @param userId    ID de l'utilisateur
+     * @param operation Opération à appliquer
+     * @param products  Produits concernés par le lot, indexés par ID
+     * @param lines     Lignes du panier, indexées par ID de produit
+     * @param removed   Lignes existantes supprimées par le lot, indexées par ID de produit
+     * @param created   Lignes créées par le lot
+     * @return Raison du refus, ou null si l'opération a été appliquée
+     */
+    private String apply(Long userId, CartBatchRequest.Operation operation, Map<Long, Product> products,
+            Map<Long, CartItem> lines, Map<Long, CartItem> removed, List<CartItem> created) {
+        CartItem cartItem = operation != null ? lines.get(operation.getProductId()) : null;
+        int currentQuantity = cartItem != null ? cartItem.getQuantity() : 0;
+        String error = check(operation, products, currentQuantity);
+        if (error != null) {
+            return error;
+        }
+        Long productId = operation.getProductId();
+        int newQuantity = targetQuantity(operation, currentQuantity);
+
+        if (newQuantity == 0) {
+            lines.remove(productId);
+            // Comparaison par identité : l'égalité Lombok chargerait les associations
+            CartItem line = cartItem;
+            if (!created.removeIf(c -> c == line)) {
+                removed.put(productId, cartItem);
+            }
+            return null;
+        }
+
+        if (cartItem == null) {
+            // Une ligne supprimée plus tôt dans le lot est reprise plutôt que recréée
+            cartItem = removed.remove(productId);
+            if (cartItem == null) {
+                cartItem = CartItem.builder()
+                        .user(userService.getReference(userId))
+                        .product(products.get(productId))
+                        .build();
+                created.add(cartItem);
+            }
+            lines.put(productId, cartItem);
+        }
+        cartItem.setQuantity(newQuantity);
+        return null;
+    }
+
+    /**
+     * Vérifie qu'une opération du lot peut être appliquée
+     * 
+     * @param operation       Opération à vérifier
+     * @param products        Produits concernés par le lot, indexés par ID
+     * @param currentQuantity Quantité actuelle du produit dans le panier (0 s'il n'y est pas)
+     * @return Raison du refus, ou null si l'opération peut être appliquée
+     */
+    private String check(CartBatchRequest.Operation operation, Map<Long, Product> products, int currentQuantity) {
+        if (operation == null || operation.getType() == null) {
+            return "Le type d'opération est obligatoire";
+        }
+        if (operation.getProductId() == null) {
+            return "L'ID du produit est obligatoire";
+        }
+        if (operation.getType() == CartBatchRequest.OperationType.REMOVE) {
+            return currentQuantity == 0 ? "Ce produit n'est pas dans le panier" : null;
         }
 
-        return getCart(userId);
+        if (operation.getQuantity() == null || operation.getQuantity() < 1) {
+            return "La quantité doit être au minimum 1";
+        }
+        Product product = products.get(operation.getProductId());
+        if (product == null) {
+            return "Produit non trouvé avec l'ID : " + operation.getProductId();
+        }
+        if (!product.hasEnoughStock(targetQuantity(operation, currentQuantity))) {
+            return "Stock insuffisant pour le produit " + product.getName();
+        }
+        return null;
+    }
+
+    /**
+     * Quantité du produit dans le panier après une opération valide (0 pour une suppression)
+     */
+    private int targetQuantity(CartBatchRequest.Operation operation, int currentQuantity) {
+        if (operation.getType() == CartBatchRequest.OperationType.REMOVE) {
+            return 0;
+        }
+        if (operation.getType() == CartBatchRequest.OperationType.ADD) {
+            return currentQuantity + operation.getQuantity();
+        }
+        return operation.getQuantity();
     }
 
     /**
@@ -115,11 +413,27 @@ public class CartService {
      * @param userId      ID de l'utilisateur
      * @param cartItemId  ID de l'article dans le panier
      * @param newQuantity Nouvelle quantité
-     * @return Panier mis à jour
+     * @return Ligne modifiée et nouveaux totaux du panier
      * @throws ResourceNotFoundException Si l'article n'existe pas
      * @throws IllegalArgumentException  Si le stock est insuffisant
      */
-    public CartResponse updateCartItem(Long userId, Long cartItemId, int newQuantity) {
+    public CartDeltaResponse updateCartItem(Long userId, Long cartItemId, int newQuantity) {
+        if (cartStore.isEnabled()) {
+            Product product = productService.findById(cartItemId);
+            cartStore.update(userId, cart -> {
+                if (cart.quantity(cartItemId) == 0) {
+                    throw new ResourceNotFoundException("Article du panier non trouvé");
+                }
+                if (!product.hasEnoughStock(newQuantity)) {
+                    throw new IllegalArgumentException("Stock insuffisant pour la quantité demandée");
+                }
+                cart.set(cartItemId, newQuantity);
+                return null;
+            });
+            return storedDelta(userId, cartItemId, null);
+        }
+
+        lockSummary(userId);
         CartItem cartItem = cartItemRepository.findById(cartItemId)
                 .orElseThrow(() -> new ResourceNotFoundException("Article du panier non trouvé"));
 
@@ -133,10 +447,12 @@ public class CartService {
             throw new IllegalArgumentException("Stock insuffisant pour la quantité demandée");
         }
 
+        int quantityChange = newQuantity - cartItem.getQuantity();
         cartItem.updateQuantity(newQuantity);
-        cartItemRepository.save(cartItem);
+        cartItem = cartItemRepository.save(cartItem);
 
-        return getCart(userId);
+        return delta(userId, cartItem, null, 0, quantityChange,
+                cartItem.getProduct().getPrice().multiply(BigDecimal.valueOf(quantityChange)));
     }
 
     /**
@@ -144,10 +460,22 @@ public class CartService {
      * 
      * @param userId     ID de l'utilisateur
      * @param cartItemId ID de l'article à supprimer
-     * @return Panier mis à jour
+     * @return ID de la ligne supprimée et nouveaux totaux du panier
      * @throws ResourceNotFoundException Si l'article n'existe pas
      */
-    public CartResponse removeFromCart(Long userId, Long cartItemId) {
+    public CartDeltaResponse removeFromCart(Long userId, Long cartItemId) {
+        if (cartStore.isEnabled()) {
+            cartStore.update(userId, cart -> {
+                if (cart.quantity(cartItemId) == 0) {
+                    throw new ResourceNotFoundException("Article du panier non trouvé");
+                }
+                cart.set(cartItemId, 0);
+                return null;
+            });
+            return storedDelta(userId, null, cartItemId);
+        }
+
+        lockSummary(userId);
         CartItem cartItem = cartItemRepository.findById(cartItemId)
                 .orElseThrow(() -> new ResourceNotFoundException("Article du panier non trouvé"));
 
@@ -157,7 +485,165 @@ public class CartService {
         }
 
         cartItemRepository.delete(cartItem);
-        return getCart(userId);
+        return delta(userId, null, cartItemId, -1, -cartItem.getQuantity(), cartItem.getTotalPrice().negate());
+    }
+
+    /**
+     * Construit la réponse d'une modification : la ligne concernée, déjà en mémoire,
+     * et les totaux du panier lus dans son résumé, mis à jour par la même occasion
+     * 
+     * @param userId        ID de l'utilisateur
+     * @param cartItem      Ligne ajoutée ou modifiée (null pour une suppression)
+     * @param removedItemId ID de la ligne supprimée (null sinon)
+     * @param lines         Écart du nombre de lignes
+     * @param quantity      Écart de la quantité totale
+     * @param amount        Écart du montant total
+     * @return Réponse de modification du panier
+     */
+    private CartDeltaResponse delta(Long userId, CartItem cartItem, Long removedItemId,
+            int lines, int quantity, BigDecimal amount) {
+        CartTotalsView totals = adjustSummary(userId, lines, quantity, amount);
+        return CartDeltaResponse.builder()
+                .item(cartItem != null ? CartResponse.CartItemResponse.fromEntity(cartItem) : null)
+                .removedItemId(removedItemId)
+                .totalItems(totals.getTotalItems().intValue())
+                .totalQuantity(totals.getTotalQuantity().intValue())
+                .totalAmount(totals.getTotalAmount())
+                .build();
+    }
+
+    /**
+     * Répercute une modification du panier sur son résumé, dans la même transaction
+     * 
+     * Le résumé, déjà verrouillé par {@link #lockSummary(Long)}, est incrémenté par
+     * une seule requête. S'il vient d'être créé, ou si les prix ont changé depuis
+     * le calcul du montant, il est recalculé à partir des lignes du panier.
+     * 
+     * @param userId   ID de l'utilisateur
+     * @param lines    Écart du nombre de lignes
+     * @param quantity Écart de la quantité totale
+     * @param amount   Écart du montant total
+     * @return Totaux du panier après la modification
+     */
+    private CartTotalsView adjustSummary(Long userId, int lines, int quantity, BigDecimal amount) {
+        // Si un changement de prix a été validé depuis la lecture des produits, le résumé
+        // porte une version antérieure et l'incrément est refusé
+        long version = catalogPriceVersion.current();
+        if (cartSummaryRepository.increment(userId, lines, quantity, amount, version) == 0) {
+            return refreshSummary(userId);
+        }
+        return cartSummaryRepository.findTotalsByUserId(userId).orElseThrow();
+    }
+
+    /**
+     * Recalcule le résumé du panier à partir de ses lignes (une requête d'agrégation)
+     * 
+     * Le résumé doit avoir été verrouillé par {@link #lockSummary(Long)} : aucune
+     * autre modification du panier ne peut valider de ligne pendant le calcul.
+     * 
+     * @param userId ID de l'utilisateur
+     * @return Totaux du panier
+     */
+    private CartTotalsView refreshSummary(Long userId) {
+        // Version lue avant le calcul : un changement de prix concurrent rendra le résumé périmé
+        long version = catalogPriceVersion.current();
+        CartTotalsView totals = cartItemRepository.findTotalsByUserId(userId);
+        storeSummary(userId, totals.getTotalItems().intValue(), totals.getTotalQuantity().intValue(),
+                totals.getTotalAmount(), version);
+        return totals;
+    }
+
+    /**
+     * Verrouille le résumé du panier jusqu'à la fin de la transaction, en le créant
+     * s'il n'existe pas encore (panier antérieur aux résumés ou vidé par la purge)
+     * 
+     * Appelée avant toute lecture du panier. La création a lieu dans une transaction
+     * séparée, vide et marquée à recalculer : si une requête simultanée l'a déjà
+     * créé, l'échec est ignoré sans affecter la transaction courante, puis le
+     * verrou est demandé à nouveau.
+     * 
+     * @param userId ID de l'utilisateur
+     */
+    private void lockSummary(Long userId) {
+        if (cartSummaryRepository.lockByUserId(userId).isPresent()) {
+            return;
+        }
+        TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+        transaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        try {
+            transaction.executeWithoutResult(status -> cartSummaryRepository.save(CartSummary.builder()
+                    .userId(userId)
+                    .totalAmount(BigDecimal.ZERO)
+                    .priceVersion(STALE_VERSION)
+                    .build()));
+        } catch (DataIntegrityViolationException e) {
+            // Résumé créé entre-temps par une autre requête
+        }
+        cartSummaryRepository.lockByUserId(userId).orElseThrow();
+    }
+
+    /**
+     * Remplace les totaux du résumé du panier
+     * 
+     * @param userId   ID de l'utilisateur
+     * @param lines    Nombre de lignes
+     * @param quantity Quantité totale
+     * @param amount   Montant total
+     * @param version  Version des prix utilisée pour le montant
+     */
+    private void storeSummary(Long userId, int lines, int quantity, BigDecimal amount, long version) {
+        cartSummaryRepository.overwrite(userId, lines, quantity, amount, version);
+    }
+
+    /**
+     * Construit la réponse d'une modification à partir du panier gardé en mémoire
+     * 
+     * @param userId        ID de l'utilisateur
+     * @param productId     ID du produit de la ligne ajoutée ou modifiée (null pour une suppression)
+     * @param removedItemId ID de la ligne supprimée (null sinon)
+     * @return Réponse de modification du panier
+     */
+    private CartDeltaResponse storedDelta(Long userId, Long productId, Long removedItemId) {
+        CartResponse cart = toCartResponse(storedItems(userId));
+        return CartDeltaResponse.builder()
+                .item(cart.getItems().stream()
+                        .filter(item -> item.getId().equals(productId))
+                        .findFirst()
+                        .orElse(null))
+                .removedItemId(removedItemId)
+                .totalItems(cart.getTotalItems())
+                .totalQuantity(cart.getTotalQuantity())
+                .totalAmount(cart.getTotalAmount())
+                .build();
+    }
+
+    /**
+     * Lignes du panier gardé en mémoire, sous forme d'articles non persistés dont
+     * l'ID est celui du produit (les produits sont chargés en une seule requête)
+     * 
+     * @param userId ID de l'utilisateur
+     * @return Articles du panier
+     */
+    private List<CartItem> storedItems(Long userId) {
+        CartWriteBehindStore.CartLines lines = cartStore.lines(userId);
+        List<Long> productIds = new ArrayList<>(lines.size());
+        for (long productId : lines.productIds()) {
+            productIds.add(productId);
+        }
+        Map<Long, Product> products = productService.findAllByIds(productIds);
+
+        List<CartItem> cartItems = new ArrayList<>(lines.size());
+        for (int i = 0; i < lines.size(); i++) {
+            Product product = products.get(lines.productIds()[i]);
+            if (product != null) {
+                cartItems.add(CartItem.builder()
+                        .id(product.getId())
+                        .product(product)
+                        .quantity(lines.quantities()[i])
+                        .build());
+            }
+        }
+        return cartItems;
     }
 
     /**
@@ -166,7 +652,55 @@ public class CartService {
      * @param userId ID de l'utilisateur
      */
     public void clearCart(Long userId) {
+        lockSummary(userId);
         cartItemRepository.deleteAllByUserId(userId);
+        storeSummary(userId, 0, 0, BigDecimal.ZERO, catalogPriceVersion.current());
+        cartStore.clear(userId);
+    }
+
+    /**
+     * Récupère le résumé du panier (nombre d'articles, quantité et montant totaux)
+     * 
+     * Le résumé est lu par clé primaire, sans verrou ni écriture. S'il est absent,
+     * ou si les prix ont changé depuis le calcul du montant, les totaux sont
+     * calculés à partir des lignes ; le résumé sera recalculé par la prochaine
+     * modification du panier.
+     * 
+     * @param userId ID de l'utilisateur
+     * @return Résumé du panier
+     */
+    @Transactional(readOnly = true)
+    public CartSummaryResponse getCartSummary(Long userId) {
+        if (cartStore.isEnabled()) {
+            CartResponse cart = toCartResponse(storedItems(userId));
+            return CartSummaryResponse.builder()
+                    .totalItems(cart.getTotalItems())
+                    .totalQuantity(cart.getTotalQuantity())
+                    .totalAmount(cart.getTotalAmount())
+                    .build();
+        }
+
+        Optional<CartSummaryView> summary = cartSummaryRepository.findSummaryByUserId(userId);
+        if (summary.isPresent() && summary.get().isAmountCurrent()) {
+            return CartSummaryResponse.fromTotals(summary.get());
+        }
+        return CartSummaryResponse.fromTotals(cartItemRepository.findTotalsByUserId(userId));
+    }
+
+    /**
+     * Totaux du panier pour le badge : le nombre de lignes et la quantité ne
+     * dépendent pas des prix et sont lus dans le résumé quelle que soit sa version
+     * 
+     * @param userId ID de l'utilisateur
+     * @return Totaux du panier (montant éventuellement périmé)
+     */
+    private CartTotalsView badgeTotals(Long userId) {
+        Optional<CartSummaryView> summary = cartSummaryRepository.findSummaryByUserId(userId);
+        if (summary.isPresent() && summary.get().getPriceVersion() != STALE_VERSION) {
+            return summary.get();
+        }
+        // Résumé absent, ou créé à l'instant et pas encore calculé
+        return cartItemRepository.findTotalsByUserId(userId);
     }
 
     /**
@@ -177,7 +711,10 @@ public class CartService {
      */
     @Transactional(readOnly = true)
     public long getCartItemCount(Long userId) {
-        return cartItemRepository.countByUserId(userId);
+        if (cartStore.isEnabled()) {
+            return cartStore.lines(userId).size();
+        }
+        return badgeTotals(userId).getTotalItems();
     }
 
     /**
@@ -188,7 +725,10 @@ public class CartService {
      */
     @Transactional(readOnly = true)
     public int getTotalQuantity(Long userId) {
-        return cartItemRepository.getTotalQuantityByUserId(userId);
+        if (cartStore.isEnabled()) {
+            return cartStore.lines(userId).totalQuantity();
+        }
+        return badgeTotals(userId).getTotalQuantity().intValue();
     }
 
     /**
@@ -199,18 +739,24 @@ public class CartService {
      */
     @Transactional(readOnly = true)
     public boolean isCartValid(Long userId) {
-        List<CartItem> cartItems = cartItemRepository.findByUserId(userId);
-        return cartItems.stream().allMatch(CartItem::isStockAvailable);
+        if (cartStore.isEnabled()) {
+            return storedItems(userId).stream().allMatch(CartItem::isStockAvailable);
+        }
+        // Vérification faite par la base, sans charger les articles ni les produits
+        return cartItemRepository.countUnavailableByUserId(userId) == 0;
     }
 
     /**
      * Récupère les articles du panier pour une commande
      * 
+     * Un panier gardé en mémoire est d'abord écrit en base dans la transaction
+     * de la commande : la commande porte exactement sur son contenu.
+     * 
      * @param userId ID de l'utilisateur
      * @return Liste des articles du panier
      */
-    @Transactional(readOnly = true)
     public List<CartItem> getCartItemsForOrder(Long userId) {
-        return cartItemRepository.findByUserId(userId);
+        cartStore.flush(userId);
+        return cartItemRepository.findWithProductByUserId(userId);
     }
 }
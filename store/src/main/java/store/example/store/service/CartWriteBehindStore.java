@@ -0,0 +1,722 @@
+package store.example.store.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * Paniers actifs gardés en mémoire, écrits en base en différé (write-behind)
+ *
+ * Mode optionnel (cart.write-behind.enabled) : les modifications du panier ne touchent
+ * que la mémoire. Les paniers sont répartis en segments verrouillés séparément ; chaque
+ * segment est une table de hachage à adressage ouvert indexée par l'ID utilisateur
+ * (long, sans objet intermédiaire), et un panier tient dans deux tableaux (IDs des
+ * produits et quantités).
+ *
+ * Les paniers modifiés sont écrits dans cart_items par lots JDBC (suppressions, mises
+ * à jour et insertions des seules lignes changées) toutes les
+ * cart.write-behind.flush-interval-ms, au passage de commande et à l'arrêt : un arrêt
+ * brutal ne perd que les modifications du dernier intervalle. Les paniers déjà écrits
+ * et inactifs depuis cart.write-behind.idle-evict-ms sont retirés de la mémoire puis
+ * rechargés depuis la base à la demande.
+ *
+ * Le nettoyage des paniers abandonnés supprime des lignes sans passer par la mémoire :
+ * il s'exécute via {@link #sweep(Supplier)}, et un panier chargé pendant un nettoyage
+ * est entièrement réécrit à la prochaine écriture.
+ *
+ * Métriques exposées (Micrometer) : cart.writebehind.carts, cart.writebehind.flushed.rows
+ * et cart.writebehind.flush.failures.
+ */
+@Component
+public class CartWriteBehindStore {
+
+    private static final Logger log = LoggerFactory.getLogger(CartWriteBehindStore.class);
+
+    private static final long[] NO_PRODUCTS = new long[0];
+    private static final int[] NO_QUANTITIES = new int[0];
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${cart.write-behind.enabled:false}")
+    private boolean enabled;
+
+    @Value("${cart.write-behind.shards:64}")
+    private int shardCount;
+
+    @Value("${cart.write-behind.idle-evict-ms:1800000}")
+    private long idleEvictMs;
+
+    /**
+     * Une seule écriture en base à la fois : écriture périodique ou passage de commande
+     */
+    private final ReentrantLock flushLock = new ReentrantLock();
+
+    /**
+     * Compteur des nettoyages, incrémenté à leur début et à leur fin (impair pendant un nettoyage)
+     */
+    private final AtomicLong sweeps = new AtomicLong();
+
+    private Shard[] shards;
+
+    private TransactionTemplate flushTransaction;
+
+    private Counter flushedRows;
+
+    private Counter flushFailures;
+
+    @PostConstruct
+    void init() {
+        int count = Integer.highestOneBit(Math.max(1, shardCount - 1) << 1);
+        shards = new Shard[count];
+        for (int i = 0; i < count; i++) {
+            shards[i] = new Shard();
+        }
+        flushTransaction = new TransactionTemplate(transactionManager);
+        flushedRows = Counter.builder("cart.writebehind.flushed.rows")
+                .description("Lignes de panier écrites en base (suppressions, mises à jour, insertions)")
+                .register(meterRegistry);
+        flushFailures = Counter.builder("cart.writebehind.flush.failures")
+                .description("Écritures périodiques des paniers en échec")
+                .register(meterRegistry);
+        Gauge.builder("cart.writebehind.carts", this, CartWriteBehindStore::size)
+                .description("Paniers gardés en mémoire")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Indique si les paniers sont gardés en mémoire
+     *
+     * @return true si le mode write-behind est activé
+     */
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Indique si le panier d'un utilisateur est actuellement gardé en mémoire
+     *
+     * @param userId ID de l'utilisateur
+     * @return true si le panier est en mémoire (sans le charger)
+     */
+    public boolean contains(long userId) {
+        if (!enabled) {
+            return false;
+        }
+        Shard shard = shard(userId);
+        synchronized (shard) {
+            return shard.get(userId) != null;
+        }
+    }
+
+    /**
+     * Récupère les lignes du panier d'un utilisateur (chargé depuis la base si besoin)
+     *
+     * @param userId ID de l'utilisateur
+     * @return Copie des lignes du panier
+     */
+    public CartLines lines(long userId) {
+        return update(userId, Cart::lines);
+    }
+
+    /**
+     * Modifie le panier d'un utilisateur (chargé depuis la base si besoin)
+     *
+     * La modification s'exécute sous le verrou du segment : elle ne doit ni accéder
+     * à la base ni conserver le panier reçu.
+     *
+     * @param userId ID de l'utilisateur
+     * @param update Modification à appliquer
+     * @return Résultat de la modification
+     */
+    public <T> T update(long userId, Function<Cart, T> update) {
+        Shard shard = shard(userId);
+        synchronized (shard) {
+            Cart cart = shard.get(userId);
+            if (cart != null) {
+                cart.touchedAt = System.currentTimeMillis();
+                return update.apply(cart);
+            }
+        }
+
+        long sweepsBefore = sweeps.get();
+        Cart loaded = load(userId);
+        synchronized (shard) {
+            Cart cart = shard.get(userId);
+            if (cart == null) {
+                cart = loaded;
+                if ((sweepsBefore & 1) != 0 || sweeps.get() != sweepsBefore) {
+                    // Nettoyage pendant le chargement : les lignes lues ont pu être supprimées depuis
+                    cart.forgetSaved();
+                }
+                shard.put(userId, cart);
+            }
+            cart.touchedAt = System.currentTimeMillis();
+            return update.apply(cart);
+        }
+    }
+
+    /**
+     * Exécute une suppression de paniers en base hors de la mémoire (paniers abandonnés)
+     *
+     * Les paniers absents de la mémoire au moment du test {@link #contains(long)} peuvent
+     * y être chargés avant que la suppression ne soit validée : ceux chargés pendant
+     * l'exécution sont considérés comme non écrits, et toutes leurs lignes seront réécrites.
+     * Les nettoyages s'exécutent l'un après l'autre.
+     *
+     * @param deletion Test de présence des paniers et suppression, dans sa propre transaction
+     * @return Résultat de la suppression
+     */
+    public synchronized <T> T sweep(Supplier<T> deletion) {
+        sweeps.incrementAndGet();
+        try {
+            return deletion.get();
+        } finally {
+            sweeps.incrementAndGet();
+        }
+    }
+
+    /**
+     * Écrit le panier d'un utilisateur dans la transaction courante (passage de commande)
+     *
+     * Après cet appel, cart_items contient exactement le panier en mémoire pour
+     * la transaction courante. Le panier n'est pas écrit par l'écriture périodique
+     * tant que la transaction n'est pas terminée ; en cas d'annulation, il sera réécrit.
+     *
+     * @param userId ID de l'utilisateur
+     */
+    public void flush(long userId) {
+        if (!enabled) {
+            return;
+        }
+        flushLock.lock();
+        try {
+            Shard shard = shard(userId);
+            Cart cart;
+            PendingFlush pending;
+            synchronized (shard) {
+                cart = shard.get(userId);
+                if (cart == null) {
+                    // Panier absent de la mémoire : la base est à jour
+                    return;
+                }
+                pending = cart.dirty ? cart.beginFlush() : null;
+                cart.transactions++;
+            }
+
+            try {
+                if (pending != null) {
+                    write(List.of(pending));
+                }
+            } catch (RuntimeException e) {
+                synchronized (shard) {
+                    cart.transactions--;
+                    cart.dirty = true;
+                }
+                throw e;
+            }
+            afterCompletion(shard, committed -> {
+                cart.transactions--;
+                if (pending == null) {
+                    return;
+                }
+                if (committed) {
+                    cart.saved = pending.lines;
+                } else {
+                    cart.dirty = true;
+                }
+            });
+        } finally {
+            flushLock.unlock();
+        }
+    }
+
+    /**
+     * Vide le panier en mémoire d'un utilisateur
+     *
+     * Les lignes en base doivent être supprimées dans la même transaction
+     * (CartItemRepository.deleteAllByUserId) ; le panier est restauré si elle est annulée.
+     *
+     * @param userId ID de l'utilisateur
+     */
+    public void clear(long userId) {
+        if (!enabled) {
+            return;
+        }
+        Shard shard = shard(userId);
+        Cart cart;
+        CartLines previous;
+        long version;
+        synchronized (shard) {
+            cart = shard.get(userId);
+            if (cart == null) {
+                return;
+            }
+            previous = cart.lines();
+            cart.restore(CartLines.EMPTY);
+            version = cart.version;
+            cart.transactions++;
+        }
+
+        afterCompletion(shard, committed -> {
+            cart.transactions--;
+            if (committed) {
+                cart.saved = CartLines.EMPTY;
+                cart.dirty = cart.version != version;
+            } else if (cart.version == version) {
+                cart.restore(previous);
+            }
+        });
+    }
+
+    /**
+     * Écrit en base les paniers modifiés, puis retire de la mémoire les paniers inactifs
+     */
+    @Scheduled(initialDelayString = "${cart.write-behind.flush-interval-ms:5000}",
+            fixedDelayString = "${cart.write-behind.flush-interval-ms:5000}")
+    @PreDestroy
+    public void flushDirty() {
+        if (!enabled) {
+            return;
+        }
+        flushLock.lock();
+        try {
+            List<PendingFlush> pending = new ArrayList<>();
+            for (Shard shard : shards) {
+                synchronized (shard) {
+                    shard.forEach(cart -> {
+                        if (cart.dirty && cart.transactions == 0) {
+                            pending.add(cart.beginFlush());
+                        }
+                    });
+                }
+            }
+
+            if (!pending.isEmpty()) {
+                try {
+                    flushTransaction.executeWithoutResult(status -> write(pending));
+                    for (PendingFlush flush : pending) {
+                        synchronized (shard(flush.userId)) {
+                            flush.cart.saved = flush.lines;
+                        }
+                    }
+                } catch (RuntimeException e) {
+                    flushFailures.increment();
+                    log.warn("Échec de l'écriture de {} paniers, nouvel essai à la prochaine écriture", pending.size(), e);
+                    for (PendingFlush flush : pending) {
+                        synchronized (shard(flush.userId)) {
+                            flush.cart.dirty = true;
+                        }
+                    }
+                }
+            }
+
+            evictIdle();
+        } finally {
+            flushLock.unlock();
+        }
+    }
+
+    /**
+     * Nombre de paniers gardés en mémoire
+     */
+    int size() {
+        int size = 0;
+        for (Shard shard : shards) {
+            synchronized (shard) {
+                size += shard.size;
+            }
+        }
+        return size;
+    }
+
+    private Cart load(long userId) {
+        Cart cart = new Cart(userId);
+        jdbcTemplate.query("SELECT product_id, quantity FROM cart_items WHERE user_id = ?",
+                rs -> {
+                    cart.set(rs.getLong(1), cart.quantity(rs.getLong(1)) + rs.getInt(2));
+                },
+                userId);
+        cart.saved = cart.lines();
+        cart.dirty = false;
+        return cart;
+    }
+
+    /**
+     * Écrit les lignes changées de plusieurs paniers, en trois lots JDBC
+     */
+    private void write(List<PendingFlush> pending) {
+        List<Object[]> deletes = new ArrayList<>();
+        List<Object[]> updates = new ArrayList<>();
+        List<Object[]> inserts = new ArrayList<>();
+        for (PendingFlush flush : pending) {
+            deletes.addAll(flush.deletes);
+            updates.addAll(flush.updates);
+            inserts.addAll(flush.inserts);
+        }
+
+        if (!deletes.isEmpty()) {
+            jdbcTemplate.batchUpdate("DELETE FROM cart_items WHERE user_id = ? AND product_id = ?", deletes);
+        }
+        if (!updates.isEmpty()) {
+            int[] updated = jdbcTemplate.batchUpdate("UPDATE cart_items SET quantity = ?, "
+                    + "updated_at = CURRENT_TIMESTAMP WHERE user_id = ? AND product_id = ?", updates);
+            // Ligne supprimée en base entre-temps (paniers abandonnés) : elle est recréée
+            for (int i = 0; i < updated.length; i++) {
+                if (updated[i] == 0) {
+                    Object[] update = updates.get(i);
+                    inserts.add(new Object[] { update[1], update[2], update[0] });
+                }
+            }
+        }
+        if (!inserts.isEmpty()) {
+            jdbcTemplate.batchUpdate("INSERT INTO cart_items (user_id, product_id, quantity, created_at, updated_at) "
+                    + "VALUES (?, ?, ?, CURRENT_TIMESTAMP, CURRENT_TIMESTAMP)", inserts);
+        }
+        flushedRows.increment(deletes.size() + updates.size() + inserts.size());
+    }
+
+    private void evictIdle() {
+        long idleSince = System.currentTimeMillis() - idleEvictMs;
+        for (Shard shard : shards) {
+            synchronized (shard) {
+                List<Long> idle = new ArrayList<>();
+                shard.forEach(cart -> {
+                    if (!cart.dirty && cart.transactions == 0 && cart.touchedAt < idleSince) {
+                        idle.add(cart.userId);
+                    }
+                });
+                idle.forEach(shard::remove);
+            }
+        }
+    }
+
+    /**
+     * Exécute une action sous le verrou du segment à la fin de la transaction courante
+     * (immédiatement s'il n'y en a pas)
+     */
+    private static void afterCompletion(Shard shard, Consumer<Boolean> action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            synchronized (shard) {
+                action.accept(true);
+            }
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                synchronized (shard) {
+                    action.accept(status == STATUS_COMMITTED);
+                }
+            }
+        });
+    }
+
+    private Shard shard(long userId) {
+        return shards[(int) mix(userId) & (shards.length - 1)];
+    }
+
+    private static long mix(long key) {
+        long h = key * 0x9E3779B97F4A7C15L;
+        return h ^ (h >>> 29);
+    }
+
+    /**
+     * Lignes d'un panier à un instant donné (tableaux non partagés)
+     */
+    public record CartLines(long[] productIds, int[] quantities) {
+
+        static final CartLines EMPTY = new CartLines(NO_PRODUCTS, NO_QUANTITIES);
+
+        public int size() {
+            return productIds.length;
+        }
+
+        public int totalQuantity() {
+            int total = 0;
+            for (int quantity : quantities) {
+                total += quantity;
+            }
+            return total;
+        }
+
+        int indexOf(long productId) {
+            for (int i = 0; i < productIds.length; i++) {
+                if (productIds[i] == productId) {
+                    return i;
+                }
+            }
+            return -1;
+        }
+    }
+
+    /**
+     * Panier d'un utilisateur, modifiable uniquement sous le verrou de son segment
+     */
+    public static final class Cart {
+
+        private final long userId;
+
+        private long[] productIds = NO_PRODUCTS;
+
+        private int[] quantities = NO_QUANTITIES;
+
+        private int size;
+
+        /**
+         * Lignes telles qu'elles sont en base
+         */
+        private CartLines saved = CartLines.EMPTY;
+
+        private boolean dirty;
+
+        private long version;
+
+        /**
+         * Transactions en cours sur ce panier (passage de commande, vidage)
+         */
+        private int transactions;
+
+        private long touchedAt;
+
+        private Cart(long userId) {
+            this.userId = userId;
+        }
+
+        /**
+         * Quantité d'un produit dans le panier
+         *
+         * @param productId ID du produit
+         * @return Quantité (0 si le produit n'est pas dans le panier)
+         */
+        public int quantity(long productId) {
+            int index = indexOf(productId);
+            return index < 0 ? 0 : quantities[index];
+        }
+
+        /**
+         * Remplace la quantité d'un produit dans le panier
+         *
+         * @param productId ID du produit
+         * @param quantity  Nouvelle quantité (0 pour retirer le produit)
+         */
+        public void set(long productId, int quantity) {
+            int index = indexOf(productId);
+            if (quantity <= 0) {
+                if (index < 0) {
+                    return;
+                }
+                size--;
+                productIds[index] = productIds[size];
+                quantities[index] = quantities[size];
+            } else if (index >= 0) {
+                quantities[index] = quantity;
+            } else {
+                if (size == productIds.length) {
+                    int capacity = Math.max(4, size * 2);
+                    productIds = Arrays.copyOf(productIds, capacity);
+                    quantities = Arrays.copyOf(quantities, capacity);
+                }
+                productIds[size] = productId;
+                quantities[size] = quantity;
+                size++;
+            }
+            dirty = true;
+            version++;
+        }
+
+        private int indexOf(long productId) {
+            for (int i = 0; i < size; i++) {
+                if (productIds[i] == productId) {
+                    return i;
+                }
+            }
+            return -1;
+        }
+
+        private CartLines lines() {
+            return new CartLines(Arrays.copyOf(productIds, size), Arrays.copyOf(quantities, size));
+        }
+
+        private void restore(CartLines lines) {
+            productIds = Arrays.copyOf(lines.productIds(), lines.size());
+            quantities = Arrays.copyOf(lines.quantities(), lines.size());
+            size = lines.size();
+            dirty = true;
+            version++;
+        }
+
+        /**
+         * Oublie l'état enregistré des lignes : chacune sera réécrite à la prochaine écriture
+         * (mise à jour, ou insertion si elle a été supprimée de la base)
+         */
+        private void forgetSaved() {
+            // Quantités inconnues (0, jamais stocké) : toutes les lignes diffèrent de la base
+            saved = new CartLines(Arrays.copyOf(productIds, size), new int[size]);
+            dirty = true;
+        }
+
+        /**
+         * Calcule les écritures qui amènent la base de l'état enregistré à l'état actuel
+         */
+        private PendingFlush beginFlush() {
+            CartLines current = lines();
+            PendingFlush flush = new PendingFlush(this, userId, current);
+            for (int i = 0; i < saved.size(); i++) {
+                if (current.indexOf(saved.productIds()[i]) < 0) {
+                    flush.deletes.add(new Object[] { userId, saved.productIds()[i] });
+                }
+            }
+            for (int i = 0; i < current.size(); i++) {
+                int index = saved.indexOf(current.productIds()[i]);
+                if (index < 0) {
+                    flush.inserts.add(new Object[] { userId, current.productIds()[i], current.quantities()[i] });
+                } else if (saved.quantities()[index] != current.quantities()[i]) {
+                    flush.updates.add(new Object[] { current.quantities()[i], userId, current.productIds()[i] });
+                }
+            }
+            dirty = false;
+            return flush;
+        }
+    }
+
+    /**
+     * Écritures en attente pour un panier
+     */
+    private static final class PendingFlush {
+
+        private final Cart cart;
+
+        private final long userId;
+
+        private final CartLines lines;
+
+        private final List<Object[]> deletes = new ArrayList<>();
+
+        private final List<Object[]> updates = new ArrayList<>();
+
+        private final List<Object[]> inserts = new ArrayList<>();
+
+        PendingFlush(Cart cart, long userId, CartLines lines) {
+            this.cart = cart;
+            this.userId = userId;
+            this.lines = lines;
+        }
+    }
+
+    /**
+     * Table de hachage à adressage ouvert (sondage linéaire) ID utilisateur → panier
+     */
+    private static final class Shard {
+
+        private long[] keys = new long[16];
+
+        private Cart[] values = new Cart[16];
+
+        private int size;
+
+        Cart get(long key) {
+            int mask = keys.length - 1;
+            for (int i = slot(key, mask); values[i] != null; i = (i + 1) & mask) {
+                if (keys[i] == key) {
+                    return values[i];
+                }
+            }
+            return null;
+        }
+
+        void put(long key, Cart cart) {
+            if ((size + 1) * 2 > keys.length) {
+                resize();
+            }
+            int mask = keys.length - 1;
+            int i = slot(key, mask);
+            while (values[i] != null && keys[i] != key) {
+                i = (i + 1) & mask;
+            }
+            if (values[i] == null) {
+                size++;
+            }
+            keys[i] = key;
+            values[i] = cart;
+        }
+
+        void remove(long key) {
+            int mask = keys.length - 1;
+            int i = slot(key, mask);
+            while (values[i] != null && keys[i] != key) {
+                i = (i + 1) & mask;
+            }
+            if (values[i] == null) {
+                return;
+            }
+            values[i] = null;
+            size--;
+
+            // Recule les entrées suivantes pour ne pas couper leur séquence de sondage
+            for (int j = (i + 1) & mask; values[j] != null; j = (j + 1) & mask) {
+                int home = slot(keys[j], mask);
+                boolean reachable = i <= j ? (home > i && home <= j) : (home > i || home <= j);
+                if (!reachable) {
+                    keys[i] = keys[j];
+                    values[i] = values[j];
+                    values[j] = null;
+                    i = j;
+                }
+            }
+        }
+
+        void forEach(Consumer<Cart> action) {
+            for (Cart cart : values) {
+                if (cart != null) {
+                    action.accept(cart);
+                }
+            }
+        }
+
+        private void resize() {
+            long[] oldKeys = keys;
+            Cart[] oldValues = values;
+            keys = new long[oldKeys.length * 2];
+            values = new Cart[oldValues.length * 2];
+            size = 0;
+            for (int i = 0; i < oldKeys.length; i++) {
+                if (oldValues[i] != null) {
+                    put(oldKeys[i], oldValues[i]);
+                }
+            }
+        }
+
+        private static int slot(long key, int mask) {
+            return (int) (mix(key) >>> 32) & mask;
+        }
+    }
+}
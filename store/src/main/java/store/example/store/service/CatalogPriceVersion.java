@@ -0,0 +1,59 @@
+package store.example.store.service;
+
+import store.example.store.entity.PriceVersion;
+import store.example.store.repository.PriceVersionRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * Version des prix du catalogue, persistée en base
+ *
+ * Les résumés de panier retiennent la version des prix utilisée pour leur
+ * montant. Seuls les changements de prix et les suppressions de produit
+ * l'incrémentent : les mouvements de stock ne périment aucun résumé.
+ */
+@Component
+public class CatalogPriceVersion {
+
+    @Autowired
+    private PriceVersionRepository priceVersionRepository;
+
+    /**
+     * Crée la ligne de version au démarrage si elle n'existe pas encore
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void initialize() {
+        if (priceVersionRepository.existsById(PriceVersion.SINGLETON_ID)) {
+            return;
+        }
+        try {
+            priceVersionRepository.save(new PriceVersion(PriceVersion.SINGLETON_ID, 0L));
+        } catch (DataIntegrityViolationException e) {
+            // Ligne créée entre-temps par une autre instance
+        }
+    }
+
+    /**
+     * Version courante des prix (lecture sans verrou)
+     *
+     * @return Numéro de version
+     */
+    @Transactional(readOnly = true)
+    public long current() {
+        return priceVersionRepository.findCurrent().orElse(0L);
+    }
+
+    /**
+     * Incrémente la version des prix, dans la transaction de la modification
+     * de produit : les résumés calculés avec les anciens prix sont périmés dès
+     * la validation de la modification, sur toutes les instances
+     */
+    @Transactional
+    public void increment() {
+        priceVersionRepository.increment();
+    }
+}
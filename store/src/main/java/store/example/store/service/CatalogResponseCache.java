@@ -0,0 +1,135 @@
+package store.example.store.service;
+
+import store.example.store.event.ProductChangedEvent;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Cache des réponses JSON pré-sérialisées du catalogue
+ *
+ * Les réponses les plus demandées (liste des produits, produits par catégorie,
+ * catégories) sont conservées sous forme d'octets JSON, accompagnées de leur
+ * variante compressée en gzip. Elles sont renvoyées telles quelles, sans passer
+ * par la conversion en DTO ni par Jackson, et sont invalidées à chaque
+ * modification du catalogue.
+ */
+@Component
+public class CatalogResponseCache {
+
+    /**
+     * En dessous de cette taille, la compression n'apporte rien
+     */
+    private static final int MIN_COMPRESSIBLE_SIZE = 512;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private CatalogVersion catalogVersion;
+
+    @Value("${catalog.response-cache.max-entries:256}")
+    private int maxEntries;
+
+    private final ConcurrentHashMap<String, CachedBody> entries = new ConcurrentHashMap<>();
+
+    /**
+     * Corps de réponse sérialisé pour une version donnée du catalogue
+     *
+     * @param version Version du catalogue au moment du calcul
+     * @param json    Octets JSON
+     * @param gzip    Octets JSON compressés (null si le corps est trop petit)
+     */
+    public record CachedBody(long version, byte[] json, byte[] gzip) {
+
+        /**
+         * Choisit la variante à renvoyer selon l'en-tête Accept-Encoding
+         *
+         * @param acceptEncoding En-tête Accept-Encoding du client
+         * @return true si la variante gzip doit être renvoyée
+         */
+        public boolean useGzip(String acceptEncoding) {
+            return gzip != null && acceptsGzip(acceptEncoding);
+        }
+    }
+
+    /**
+     * Renvoie le corps en cache, ou le calcule et le met en cache
+     *
+     * @param key    Clé de la réponse (ex. "products", "category:Visage")
+     * @param loader Calcul de la valeur à sérialiser en cas d'absence
+     * @return Corps sérialisé à jour
+     */
+    public CachedBody get(String key, Supplier<?> loader) {
+        long version = catalogVersion.current();
+        CachedBody cached = entries.get(key);
+        if (cached != null && cached.version() == version) {
+            return cached;
+        }
+
+        byte[] json = serialize(loader.get());
+        CachedBody body = new CachedBody(version, json, json.length >= MIN_COMPRESSIBLE_SIZE ? gzip(json) : null);
+        if (entries.size() < maxEntries || entries.containsKey(key)) {
+            entries.put(key, body);
+        }
+        return body;
+    }
+
+    /**
+     * Vide le cache après la validation d'une modification de produit
+     *
+     * @param event Événement de modification
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onProductChanged(ProductChangedEvent event) {
+        entries.clear();
+    }
+
+    /**
+     * Indique si le client accepte le codage gzip
+     *
+     * @param acceptEncoding En-tête Accept-Encoding (peut être null)
+     * @return true si gzip est accepté avec un poids non nul
+     */
+    public static boolean acceptsGzip(String acceptEncoding) {
+        if (acceptEncoding == null) {
+            return false;
+        }
+        for (String part : acceptEncoding.split(",")) {
+            String[] coding = part.trim().split(";");
+            String name = coding[0].trim();
+            if (name.equalsIgnoreCase("gzip") || name.equals("*")) {
+                return coding.length < 2 || !coding[1].replace(" ", "").matches("q=0(\\.0*)?");
+            }
+        }
+        return false;
+    }
+
+    private byte[] serialize(Object value) {
+        try {
+            return objectMapper.writeValueAsBytes(value);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Impossible de sérialiser la réponse du catalogue", e);
+        }
+    }
+
+    private static byte[] gzip(byte[] json) {
+        ByteArrayOutputStream buffer = new ByteArrayOutputStream(json.length / 4);
+        try (GZIPOutputStream gzip = new GZIPOutputStream(buffer)) {
+            gzip.write(json);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return buffer.toByteArray();
+    }
+}
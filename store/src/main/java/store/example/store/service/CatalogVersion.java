@@ -0,0 +1,40 @@
+package store.example.store.service;
+
+import store.example.store.event.ProductChangedEvent;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Numéro de version du catalogue
+ *
+ * La version est incrémentée après chaque modification de produit validée.
+ * Elle démarre à l'horodatage de lancement afin qu'un redémarrage
+ * (éventuellement après des modifications hors application) invalide
+ * toutes les versions connues des clients.
+ */
+@Component
+public class CatalogVersion {
+
+    private final AtomicLong version = new AtomicLong(System.currentTimeMillis());
+
+    /**
+     * Version courante du catalogue
+     *
+     * @return Numéro de version
+     */
+    public long current() {
+        return version.get();
+    }
+
+    /**
+     * Incrémente la version après la validation d'une modification de produit
+     *
+     * @param event Événement de modification
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onProductChanged(ProductChangedEvent event) {
+        version.incrementAndGet();
+    }
+}
@@ -0,0 +1,171 @@
+package store.example.store.service;
+
+import store.example.store.dto.reponse.CategoryFacetResponse;
+import store.example.store.dto.reponse.ProductResponse;
+import store.example.store.event.ProductChangedEvent;
+import store.example.store.repository.ProductRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Décomptes par catégorie maintenus en mémoire
+ *
+ * Les compteurs sont mis à jour de manière incrémentale à chaque modification
+ * de produit, et recalculés périodiquement depuis la base pour corriger
+ * une éventuelle dérive (modification manquée, écriture hors application).
+ * Les modifications reçues pendant un recalcul sont rejouées sur les compteurs
+ * recalculés avant qu'ils ne remplacent les compteurs courants.
+ */
+@Component
+public class CategoryFacets {
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    private volatile FacetState state = new FacetState();
+
+    private volatile boolean ready = false;
+
+    private final Object rebuildLock = new Object();
+
+    /**
+     * Événements reçus pendant un recalcul, rejoués sur les compteurs recalculés
+     * (null hors recalcul ; protégé par this)
+     */
+    private List<ProductChangedEvent> replay;
+
+    /**
+     * Recalcule tous les compteurs depuis la base de données
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(initialDelayString = "${catalog.facets.reconcile-ms:300000}",
+            fixedDelayString = "${catalog.facets.reconcile-ms:300000}")
+    public void reconcile() {
+        synchronized (rebuildLock) {
+            synchronized (this) {
+                replay = new ArrayList<>();
+            }
+            try {
+                FacetState rebuilt = new FacetState();
+                for (Object[] row : productRepository.findAvailableCategoryStock()) {
+                    rebuilt.apply((Long) row[0], new Membership((String) row[1], ((Number) row[2]).intValue() > 0));
+                }
+                synchronized (this) {
+                    for (ProductChangedEvent event : replay) {
+                        rebuilt.apply(event.getProductId(), membershipOf(event));
+                    }
+                    state = rebuilt;
+                    ready = true;
+                }
+            } finally {
+                synchronized (this) {
+                    replay = null;
+                }
+            }
+        }
+    }
+
+    /**
+     * Met à jour les compteurs après la validation d'une modification de produit
+     *
+     * @param event Événement de modification
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public synchronized void onProductChanged(ProductChangedEvent event) {
+        state.apply(event.getProductId(), membershipOf(event));
+        if (replay != null) {
+            replay.add(event);
+        }
+    }
+
+    private Membership membershipOf(ProductChangedEvent event) {
+        ProductResponse product = event.getProduct();
+        return product == null || !product.isAvailable() || product.getCategory() == null
+                ? null
+                : new Membership(product.getCategory(), product.isInStock());
+    }
+
+    /**
+     * Indique si les compteurs ont été calculés
+     *
+     * @return true si les compteurs sont disponibles
+     */
+    public boolean isReady() {
+        return ready;
+    }
+
+    /**
+     * Renvoie les catégories ayant au moins un produit disponible, avec leurs compteurs
+     *
+     * @return Décomptes triés par nom de catégorie
+     */
+    public List<CategoryFacetResponse> facets() {
+        return state.counters.entrySet().stream()
+                .filter(entry -> entry.getValue().available.get() > 0)
+                .map(entry -> CategoryFacetResponse.builder()
+                        .category(entry.getKey())
+                        .availableCount(entry.getValue().available.get())
+                        .inStockCount(entry.getValue().inStock.get())
+                        .build())
+                .sorted(Comparator.comparing(CategoryFacetResponse::getCategory))
+                .toList();
+    }
+
+    /**
+     * Appartenance d'un produit disponible à une catégorie
+     */
+    private record Membership(String category, boolean inStock) {
+    }
+
+    /**
+     * Compteurs d'une catégorie
+     */
+    private static final class Counter {
+        private final AtomicLong available = new AtomicLong();
+        private final AtomicLong inStock = new AtomicLong();
+    }
+
+    /**
+     * État des compteurs : appartenance de chaque produit et compteurs par catégorie
+     */
+    private static final class FacetState {
+
+        private final ConcurrentHashMap<Long, Membership> memberships = new ConcurrentHashMap<>();
+
+        private final ConcurrentHashMap<String, Counter> counters = new ConcurrentHashMap<>();
+
+        /**
+         * Remplace l'appartenance d'un produit en ajustant les compteurs (null = hors décompte)
+         */
+        void apply(Long productId, Membership next) {
+            // compute() sérialise les mises à jour d'un même produit
+            memberships.compute(productId, (id, previous) -> {
+                if (previous != null) {
+                    adjust(previous, -1);
+                }
+                if (next != null) {
+                    adjust(next, 1);
+                }
+                return next;
+            });
+        }
+
+        private void adjust(Membership membership, int delta) {
+            Counter counter = counters.computeIfAbsent(membership.category(), category -> new Counter());
+            counter.available.addAndGet(delta);
+            if (membership.inStock()) {
+                counter.inStock.addAndGet(delta);
+            }
+        }
+    }
+}
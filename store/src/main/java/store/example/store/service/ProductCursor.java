@@ -0,0 +1,74 @@
+package store.example.store.service;
+
+import store.example.store.dto.request.ProductSort;
+import org.springframework.data.domain.KeysetScrollPosition;
+import org.springframework.data.domain.ScrollPosition;
+
+import java.nio.charset.StandardCharsets;
+import java.time.DateTimeException;
+import java.util.Base64;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Encodage et décodage des curseurs de pagination du catalogue
+ * 
+ * Un curseur contient l'option de tri, l'ID et la clé de tri du dernier produit
+ * renvoyé. Il est encodé en Base64 URL pour rester opaque côté client.
+ */
+final class ProductCursor {
+
+    private static final String SEPARATOR = "|";
+
+    private ProductCursor() {
+    }
+
+    /**
+     * Encode la position du dernier produit d'une page
+     * 
+     * @param sort     Option de tri
+     * @param position Position keyset du dernier produit
+     * @return Curseur opaque
+     */
+    static String encode(ProductSort sort, ScrollPosition position) {
+        Map<String, ?> keys = ((KeysetScrollPosition) position).getKeys();
+        StringBuilder raw = new StringBuilder(sort.name())
+                .append(SEPARATOR).append(keys.get("id"));
+        if (sort.getProperty() != null) {
+            raw.append(SEPARATOR).append(sort.formatKey(keys.get(sort.getProperty())));
+        }
+        return Base64.getUrlEncoder().withoutPadding()
+                .encodeToString(raw.toString().getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Décode un curseur en position keyset
+     * 
+     * @param sort   Option de tri attendue
+     * @param cursor Curseur opaque (null ou vide pour la première page)
+     * @return Position à partir de laquelle reprendre la lecture
+     * @throws IllegalArgumentException Si le curseur est invalide ou ne correspond pas au tri
+     */
+    static ScrollPosition decode(ProductSort sort, String cursor) {
+        if (cursor == null || cursor.isBlank()) {
+            return ScrollPosition.keyset();
+        }
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            String[] parts = raw.split("\\" + SEPARATOR, 3);
+            int expectedParts = sort.getProperty() == null ? 2 : 3;
+            if (parts.length != expectedParts || !parts[0].equals(sort.name())) {
+                throw new IllegalArgumentException("Curseur de pagination invalide");
+            }
+
+            Map<String, Object> keys = new LinkedHashMap<>();
+            if (sort.getProperty() != null) {
+                keys.put(sort.getProperty(), sort.parseKey(parts[2]));
+            }
+            keys.put("id", Long.valueOf(parts[1]));
+            return ScrollPosition.forward(keys);
+        } catch (IllegalArgumentException | DateTimeException e) {
+            throw new IllegalArgumentException("Curseur de pagination invalide");
+        }
+    }
+}
@@ -0,0 +1,367 @@
+package store.example.store.service;
+
+import store.example.store.dto.reponse.ProductResponse;
+import store.example.store.dto.request.ProductSort;
+import store.example.store.entity.Product;
+import store.example.store.event.ProductChangedEvent;
+import store.example.store.repository.ProductRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Window;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+
+/**
+ * Index inversé en mémoire pour la recherche plein texte des produits
+ *
+ * L'index couvre le nom, la description et la catégorie des produits disponibles.
+ * Un index de trigrammes sur le dictionnaire des termes permet en plus une
+ * recherche tolérante aux fautes de frappe. Il est reconstruit au démarrage puis
+ * maintenu de manière incrémentale à partir des événements {@link ProductChangedEvent}.
+ */
+@Component
+public class ProductSearchIndex {
+
+    private static final int NAME_WEIGHT = 3;
+    private static final int CATEGORY_WEIGHT = 2;
+    private static final int DESCRIPTION_WEIGHT = 1;
+
+    private static final int REBUILD_CHUNK_SIZE = 1000;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    private volatile IndexData data = new IndexData();
+
+    private volatile boolean ready = false;
+
+    private final Object rebuildLock = new Object();
+
+    /**
+     * Événements reçus pendant une reconstruction, rejoués sur le nouvel index
+     * (null hors reconstruction ; protégé par this)
+     */
+    private List<ProductChangedEvent> replay;
+
+    /**
+     * Reconstruit entièrement l'index à partir de la base de données
+     *
+     * Les produits sont lus par blocs (pagination keyset) et chaque bloc
+     * est indexé en parallèle. Les modifications validées pendant la lecture
+     * sont rejouées sur le nouvel index, qui remplace l'ancien une fois complet.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Order(Ordered.HIGHEST_PRECEDENCE)
+    public void rebuild() {
+        synchronized (rebuildLock) {
+            synchronized (this) {
+                replay = new ArrayList<>();
+            }
+            try {
+                IndexData rebuilt = new IndexData();
+                ScrollPosition position = ScrollPosition.keyset();
+                Window<Product> window;
+
+                do {
+                    window = productRepository.findByAvailableTrue(
+                            position, ProductSort.ID.toSort(), Limit.of(REBUILD_CHUNK_SIZE));
+                    window.getContent().parallelStream()
+                            .map(ProductResponse::fromEntity)
+                            .forEach(rebuilt::add);
+                    if (!window.isEmpty()) {
+                        position = window.positionAt(window.size() - 1);
+                    }
+                } while (window.hasNext());
+
+                synchronized (this) {
+                    for (ProductChangedEvent event : replay) {
+                        apply(rebuilt, event);
+                    }
+                    data = rebuilt;
+                    ready = true;
+                }
+            } finally {
+                synchronized (this) {
+                    replay = null;
+                }
+            }
+        }
+    }
+
+    /**
+     * Met à jour l'index après la validation d'une modification de produit
+     *
+     * @param event Événement de modification
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public synchronized void onProductChanged(ProductChangedEvent event) {
+        apply(data, event);
+        if (replay != null) {
+            replay.add(event);
+        }
+    }
+
+    private static void apply(IndexData target, ProductChangedEvent event) {
+        target.remove(event.getProductId());
+        if (!event.isDeleted() && event.getProduct().isAvailable()) {
+            target.add(event.getProduct());
+        }
+    }
+
+    /**
+     * Indique si l'index a été construit et peut servir les recherches
+     *
+     * @return true si l'index est prêt
+     */
+    public boolean isReady() {
+        return ready;
+    }
+
+    /**
+     * Nombre de produits indexés
+     *
+     * @return Nombre de documents dans l'index
+     */
+    public int size() {
+        return data.documents.size();
+    }
+
+    /**
+     * Produits actuellement indexés (produits disponibles)
+     *
+     * @return Vue non modifiable des produits indexés
+     */
+    public Collection<ProductResponse> products() {
+        return data.documents.values().stream().map(Document::product).toList();
+    }
+
+    /**
+     * Recherche exacte des produits correspondant à tous les mots de la requête
+     *
+     * @param query Texte recherché
+     * @param limit Nombre maximal de résultats
+     * @return Produits correspondants, du plus pertinent au moins pertinent
+     */
+    public List<ProductResponse> search(String query, int limit) {
+        return search(query, limit, false);
+    }
+
+    /**
+     * Recherche les produits correspondant à tous les mots de la requête
+     *
+     * Le dernier mot est traité comme un préfixe pour la saisie en cours : tous les
+     * termes qui commencent par ce mot sont pris en compte, même pour un préfixe
+     * d'une lettre, et seuls les résultats sont limités (après classement).
+     * En mode approximatif, chaque mot accepte aussi les termes proches
+     * (distance d'édition bornée selon sa longueur).
+     * Les résultats sont classés par pertinence (poids du champ × rareté du terme).
+     *
+     * @param query Texte recherché
+     * @param limit Nombre maximal de résultats
+     * @param fuzzy true pour tolérer les fautes de frappe
+     * @return Produits correspondants, du plus pertinent au moins pertinent
+     */
+    public List<ProductResponse> search(String query, int limit, boolean fuzzy) {
+        List<String> tokens = ProductTextAnalyzer.tokenize(query);
+        if (tokens.isEmpty() || limit <= 0) {
+            return List.of();
+        }
+
+        IndexData snapshot = data;
+        List<Map<Long, Double>> matchesPerToken = new ArrayList<>(tokens.size());
+        for (int i = 0; i < tokens.size(); i++) {
+            boolean prefix = i == tokens.size() - 1;
+            Map<Long, Double> matches = fuzzy
+                    ? snapshot.fuzzyMatch(tokens.get(i), prefix)
+                    : snapshot.match(tokens.get(i), prefix);
+            if (matches.isEmpty()) {
+                return List.of();
+            }
+            matchesPerToken.add(matches);
+        }
+
+        // Intersection en partant de la liste la plus courte
+        matchesPerToken.sort(Comparator.comparingInt(Map::size));
+        Map<Long, Double> candidates = matchesPerToken.get(0);
+
+        Comparator<Map.Entry<Long, Double>> ranking = Map.Entry.<Long, Double>comparingByValue()
+                .thenComparing(Map.Entry.<Long, Double>comparingByKey().reversed());
+        PriorityQueue<Map.Entry<Long, Double>> top = new PriorityQueue<>(limit + 1, ranking);
+
+        for (Map.Entry<Long, Double> candidate : candidates.entrySet()) {
+            double score = candidate.getValue();
+            boolean matchesAll = true;
+            for (int i = 1; i < matchesPerToken.size() && matchesAll; i++) {
+                Double other = matchesPerToken.get(i).get(candidate.getKey());
+                if (other == null) {
+                    matchesAll = false;
+                } else {
+                    score += other;
+                }
+            }
+            if (matchesAll) {
+                top.offer(Map.entry(candidate.getKey(), score));
+                if (top.size() > limit) {
+                    top.poll();
+                }
+            }
+        }
+
+        List<ProductResponse> results = new ArrayList<>(top.size());
+        while (!top.isEmpty()) {
+            Document document = snapshot.documents.get(top.poll().getKey());
+            if (document != null) {
+                results.add(0, document.product);
+            }
+        }
+        return results;
+    }
+
+    /**
+     * Document indexé : instantané du produit et poids de ses termes
+     */
+    private record Document(ProductResponse product, Map<String, Integer> termWeights) {
+    }
+
+    /**
+     * Structures de l'index (dictionnaire trié des termes et listes de postings)
+     */
+    private static final class IndexData {
+
+        private final ConcurrentSkipListMap<String, ConcurrentHashMap<Long, Integer>> postings =
+                new ConcurrentSkipListMap<>();
+
+        private final ConcurrentHashMap<Long, Document> documents = new ConcurrentHashMap<>();
+
+        private final ConcurrentHashMap<String, Set<String>> trigramTerms = new ConcurrentHashMap<>();
+
+        void add(ProductResponse product) {
+            Map<String, Integer> termWeights = new HashMap<>();
+            addTerms(termWeights, product.getName(), NAME_WEIGHT);
+            addTerms(termWeights, product.getCategory(), CATEGORY_WEIGHT);
+            addTerms(termWeights, product.getDescription(), DESCRIPTION_WEIGHT);
+
+            documents.put(product.getId(), new Document(product, termWeights));
+            termWeights.forEach((term, weight) -> postings
+                    .computeIfAbsent(term, this::newPostingList)
+                    .put(product.getId(), weight));
+        }
+
+        private ConcurrentHashMap<Long, Integer> newPostingList(String term) {
+            for (String gram : ProductTextAnalyzer.trigrams(term)) {
+                trigramTerms.computeIfAbsent(gram, g -> ConcurrentHashMap.newKeySet()).add(term);
+            }
+            return new ConcurrentHashMap<>();
+        }
+
+        private void forgetTerm(String term) {
+            for (String gram : ProductTextAnalyzer.trigrams(term)) {
+                trigramTerms.computeIfPresent(gram, (g, terms) -> {
+                    terms.remove(term);
+                    return terms.isEmpty() ? null : terms;
+                });
+            }
+        }
+
+        void remove(Long productId) {
+            Document previous = documents.remove(productId);
+            if (previous == null) {
+                return;
+            }
+            previous.termWeights.keySet().forEach(term -> postings.computeIfPresent(term, (t, docs) -> {
+                docs.remove(productId);
+                if (docs.isEmpty()) {
+                    forgetTerm(t);
+                    return null;
+                }
+                return docs;
+            }));
+        }
+
+        Map<Long, Double> match(String token, boolean prefix) {
+            Map<Long, Double> matches = new HashMap<>();
+            if (!prefix) {
+                addMatches(matches, postings.get(token));
+                return matches;
+            }
+
+            NavigableMap<String, ConcurrentHashMap<Long, Integer>> expansions =
+                    postings.subMap(token, true, token + Character.MAX_VALUE, false);
+            for (ConcurrentHashMap<Long, Integer> docs : expansions.values()) {
+                addMatches(matches, docs);
+            }
+            return matches;
+        }
+
+        Map<Long, Double> fuzzyMatch(String token, boolean prefix) {
+            Map<Long, Double> matches = match(token, prefix);
+            int maxDistance = ProductTextAnalyzer.allowedTypos(token);
+            if (maxDistance == 0) {
+                return matches;
+            }
+
+            // Termes candidats : ceux qui partagent assez de trigrammes avec le mot recherché
+            List<String> grams = ProductTextAnalyzer.trigrams(token);
+            int minShared = Math.max(1, grams.size() - 3 * maxDistance);
+            Map<String, Integer> shared = new HashMap<>();
+            for (String gram : grams) {
+                Set<String> terms = trigramTerms.get(gram);
+                if (terms != null) {
+                    terms.forEach(term -> shared.merge(term, 1, Integer::sum));
+                }
+            }
+
+            for (Map.Entry<String, Integer> candidate : shared.entrySet()) {
+                String term = candidate.getKey();
+                if (candidate.getValue() < minShared || term.equals(token)) {
+                    continue;
+                }
+                // Pour le dernier mot, on compare aussi le début du terme (saisie en cours)
+                String compared = prefix && term.length() > token.length() + maxDistance
+                        ? term.substring(0, token.length())
+                        : term;
+                int distance = ProductTextAnalyzer.editDistance(token, compared, maxDistance);
+                if (distance <= maxDistance) {
+                    double similarity = 1.0 - (double) distance / (token.length() + 1);
+                    addMatches(matches, postings.get(term), similarity);
+                }
+            }
+            return matches;
+        }
+
+        private void addMatches(Map<Long, Double> matches, Map<Long, Integer> docs) {
+            addMatches(matches, docs, 1.0);
+        }
+
+        private void addMatches(Map<Long, Double> matches, Map<Long, Integer> docs, double similarity) {
+            if (docs == null || docs.isEmpty()) {
+                return;
+            }
+            double idf = Math.log(1.0 + (double) documents.size() / docs.size());
+            docs.forEach((productId, weight) -> matches.merge(productId, weight * idf * similarity, Math::max));
+        }
+
+        private static void addTerms(Map<String, Integer> termWeights, String text, int weight) {
+            for (String term : ProductTextAnalyzer.tokenize(text)) {
+                termWeights.merge(term, weight, Integer::sum);
+            }
+        }
+    }
+}
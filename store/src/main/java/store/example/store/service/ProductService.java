@@ -1,15 +1,32 @@
 package store.example.store.service;
 
+import store.example.store.dto.reponse.CategoryFacetResponse;
+import store.example.store.dto.reponse.ProductBatchResponse;
+import store.example.store.dto.reponse.ProductPageResponse;
 import store.example.store.dto.reponse.ProductResponse;
+import store.example.store.dto.reponse.ProductSummaryResponse;
+import store.example.store.dto.request.ProductSort;
 import store.example.store.entity.Product;
+import store.example.store.event.ProductChangedEvent;
 import store.example.store.exception.ResourceNotFoundException;
 import store.example.store.repository.ProductRepository;
+import store.example.store.repository.ProductSummaryView;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.Window;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 /**
@@ -25,17 +42,79 @@ public class ProductService {
     @Autowired
     private ProductRepository productRepository;
 
+    @Autowired
+    private ProductSearchIndex productSearchIndex;
+
+    @Autowired
+    private CategoryFacets categoryFacets;
+
+    @Autowired
+    private StockWatchList stockWatchList;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Autowired
+    private CatalogPriceVersion catalogPriceVersion;
+
+    @Value("${catalog.search.max-results:100}")
+    private int maxSearchResults;
+
+    @Value("${catalog.batch.max-ids:500}")
+    private int maxBatchIds;
+
+    @Value("${catalog.page.default-size:24}")
+    private int defaultPageSize;
+
+    @Value("${catalog.page.max-size:100}")
+    private int maxPageSize;
+
     /**
      * Récupère tous les produits disponibles
      * 
+     * Les DTO sont construits directement par la requête (projection),
+     * sans charger d'entités dans le contexte de persistance.
+     * 
      * @return Liste des produits disponibles
      */
     @Transactional(readOnly = true)
     public List<ProductResponse> getAllAvailableProducts() {
-        return productRepository.findByAvailableTrue()
-                .stream()
-                .map(ProductResponse::fromEntity)
+        return productRepository.findAvailableProductResponses();
+    }
+
+    /**
+     * Récupère une page de produits disponibles par pagination keyset
+     * 
+     * @param cursor Curseur renvoyé par la page précédente (null pour la première page)
+     * @param size   Nombre de produits souhaité (borné par la taille maximale configurée)
+     * @param sort   Option de tri
+     * @return Page de produits avec le curseur de la page suivante
+     * @throws IllegalArgumentException Si le curseur ou le tri est invalide
+     */
+    @Transactional(readOnly = true)
+    public ProductPageResponse getAvailableProductsPage(String cursor, Integer size, String sort) {
+        ProductSort productSort = ProductSort.fromParam(sort);
+        int pageSize = size == null || size <= 0 ? defaultPageSize : Math.min(size, maxPageSize);
+
+        Window<ProductSummaryView> window = productRepository.findByAvailableTrue(
+                ProductCursor.decode(productSort, cursor), productSort.toSort(), Limit.of(pageSize),
+                ProductSummaryView.class);
+
+        List<ProductSummaryResponse> items = window.stream()
+                .map(ProductSummaryResponse::fromView)
                 .collect(Collectors.toList());
+
+        String nextCursor = window.hasNext() && !window.isEmpty()
+                ? ProductCursor.encode(productSort, window.positionAt(window.size() - 1))
+                : null;
+
+        return ProductPageResponse.builder()
+                .items(items)
+                .size(pageSize)
+                .sort(productSort.name())
+                .nextCursor(nextCursor)
+                .hasMore(nextCursor != null)
+                .build();
     }
 
     /**
@@ -64,6 +143,19 @@ public class ProductService {
                 .orElseThrow(() -> new ResourceNotFoundException("Produit non trouvé avec l'ID : " + id));
     }
 
+    /**
+     * Trouve plusieurs produits en une seule requête (WHERE id IN)
+     *
+     * @param ids IDs des produits
+     * @return Produits trouvés indexés par ID (les IDs inexistants sont absents)
+     */
+    @Transactional(readOnly = true)
+    public Map<Long, Product> findAllByIds(Collection<Long> ids) {
+        return productRepository.findAllById(ids)
+                .stream()
+                .collect(Collectors.toMap(Product::getId, Function.identity()));
+    }
+
     /**
      * Récupère un produit par son ID (version DTO)
      * 
@@ -76,18 +168,55 @@ public class ProductService {
         return ProductResponse.fromEntity(product);
     }
 
+    /**
+     * Récupère plusieurs produits en une seule requête (WHERE id IN)
+     * 
+     * @param ids IDs des produits demandés (les doublons sont ignorés)
+     * @return Produits dans l'ordre de la demande et IDs introuvables
+     * @throws IllegalArgumentException Si la liste est vide ou dépasse la taille maximale
+     */
+    @Transactional(readOnly = true)
+    public ProductBatchResponse getProductsByIds(List<Long> ids) {
+        if (ids == null || ids.isEmpty()) {
+            throw new IllegalArgumentException("La liste des IDs est obligatoire");
+        }
+        Set<Long> requested = new LinkedHashSet<>(ids);
+        requested.remove(null);
+        if (requested.size() > maxBatchIds) {
+            throw new IllegalArgumentException("Trop de produits demandés (maximum " + maxBatchIds + ")");
+        }
+
+        Map<Long, Product> found = findAllByIds(requested);
+
+        List<ProductResponse> products = new ArrayList<>(found.size());
+        List<Long> missingIds = new ArrayList<>();
+        for (Long id : requested) {
+            Product product = found.get(id);
+            if (product != null) {
+                products.add(ProductResponse.fromEntity(product));
+            } else {
+                missingIds.add(id);
+            }
+        }
+
+        return ProductBatchResponse.builder()
+                .products(products)
+                .missingIds(missingIds)
+                .build();
+    }
+
     /**
      * Récupère les produits par catégorie
      * 
+     * Les DTO sont construits directement par la requête (projection) ; la réponse
+     * garde la forme publique de ProductResponse, description comprise.
+     * 
      * @param category Catégorie recherchée
      * @return Liste des produits de cette catégorie
      */
     @Transactional(readOnly = true)
     public List<ProductResponse> getProductsByCategory(String category) {
-        return productRepository.findByCategoryAndAvailableTrue(category)
-                .stream()
-                .map(ProductResponse::fromEntity)
-                .collect(Collectors.toList());
+        return productRepository.findAvailableResponsesByCategory(category);
     }
 
     /**
@@ -98,10 +227,43 @@ public class ProductService {
      */
     @Transactional(readOnly = true)
     public List<ProductResponse> searchProductsByName(String name) {
-        return productRepository.findByNameContainingIgnoreCaseAndAvailableTrue(name)
-                .stream()
-                .map(ProductResponse::fromEntity)
-                .collect(Collectors.toList());
+        return searchProducts(name, maxSearchResults);
+    }
+
+    /**
+     * Recherche plein texte dans le nom, la description et la catégorie des produits
+     * 
+     * @param query Texte recherché
+     * @param limit Nombre maximal de résultats (borné par la limite configurée)
+     * @return Liste des produits correspondants, classés par pertinence
+     */
+    @Transactional(readOnly = true)
+    public List<ProductResponse> searchProducts(String query, int limit) {
+        return searchProducts(query, limit, false);
+    }
+
+    /**
+     * Recherche plein texte, éventuellement tolérante aux fautes de frappe
+     * 
+     * La recherche est servie par l'index inversé en mémoire, insensible aux accents.
+     * Tant que l'index n'est pas construit (démarrage), elle se replie sur la recherche en base.
+     * 
+     * @param query Texte recherché
+     * @param limit Nombre maximal de résultats (borné par la limite configurée)
+     * @param fuzzy true pour accepter les termes proches (fautes de frappe)
+     * @return Liste des produits correspondants, classés par pertinence
+     */
+    @Transactional(readOnly = true)
+    public List<ProductResponse> searchProducts(String query, int limit, boolean fuzzy) {
+        int maxResults = Math.min(Math.max(limit, 1), maxSearchResults);
+        if (!productSearchIndex.isReady()) {
+            return productRepository.findByNameContainingIgnoreCaseAndAvailableTrue(query)
+                    .stream()
+                    .limit(maxResults)
+                    .map(ProductResponse::fromEntity)
+                    .collect(Collectors.toList());
+        }
+        return productSearchIndex.search(query, maxResults, fuzzy);
     }
 
     /**
@@ -111,7 +273,34 @@ public class ProductService {
      */
     @Transactional(readOnly = true)
     public List<String> getAllCategories() {
-        return productRepository.findDistinctCategories();
+        if (!categoryFacets.isReady()) {
+            return productRepository.findDistinctCategories();
+        }
+        return categoryFacets.facets().stream()
+                .map(CategoryFacetResponse::getCategory)
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * Récupère les catégories avec leur nombre de produits disponibles et en stock
+     * 
+     * Les décomptes sont maintenus en mémoire ; tant qu'ils n'ont pas été calculés
+     * (démarrage), ils sont agrégés par la base.
+     * 
+     * @return Décomptes par catégorie, triés par nom de catégorie
+     */
+    @Transactional(readOnly = true)
+    public List<CategoryFacetResponse> getCategoryFacets() {
+        if (!categoryFacets.isReady()) {
+            return productRepository.countAvailableByCategory().stream()
+                    .map(row -> CategoryFacetResponse.builder()
+                            .category((String) row[0])
+                            .availableCount(((Number) row[1]).longValue())
+                            .inStockCount(((Number) row[2]).longValue())
+                            .build())
+                    .collect(Collectors.toList());
+        }
+        return categoryFacets.facets();
     }
 
     /**
@@ -138,7 +327,7 @@ public class ProductService {
                 .build();
 
         Product savedProduct = productRepository.save(product);
-        return ProductResponse.fromEntity(savedProduct);
+        return publishChange(null, savedProduct);
     }
 
     /**
@@ -157,6 +346,7 @@ public class ProductService {
     public ProductResponse updateProduct(Long id, String name, String description, BigDecimal price,
             String category, String imageUrl, Integer stockQuantity, Boolean available) {
         Product product = findById(id);
+        ProductResponse previous = ProductResponse.fromEntity(product);
 
         if (name != null && !name.trim().isEmpty()) {
             product.setName(name.trim());
@@ -181,7 +371,7 @@ public class ProductService {
         }
 
         Product updatedProduct = productRepository.save(product);
-        return ProductResponse.fromEntity(updatedProduct);
+        return publishChange(previous, updatedProduct);
     }
 
     /**
@@ -192,6 +382,8 @@ public class ProductService {
     public void deleteProduct(Long id) {
         Product product = findById(id);
         productRepository.delete(product);
+        catalogPriceVersion.increment();
+        eventPublisher.publishEvent(ProductChangedEvent.deleted(id));
     }
 
     /**
@@ -216,8 +408,9 @@ public class ProductService {
      */
     public void reduceStock(Long productId, int quantity) {
         Product product = findById(productId);
+        ProductResponse previous = ProductResponse.fromEntity(product);
         product.reduceStock(quantity);
-        productRepository.save(product);
+        publishChange(previous, productRepository.save(product));
     }
 
     /**
@@ -228,22 +421,25 @@ public class ProductService {
      */
     public void increaseStock(Long productId, int quantity) {
         Product product = findById(productId);
+        ProductResponse previous = ProductResponse.fromEntity(product);
         product.increaseStock(quantity);
-        productRepository.save(product);
+        publishChange(previous, productRepository.save(product));
     }
 
     /**
      * Récupère les produits avec un stock faible
      * 
+     * Servi depuis la liste de surveillance en mémoire lorsque le seuil est couvert.
+     * 
      * @param threshold Seuil de stock faible
-     * @return Liste des produits avec un stock faible
+     * @return Liste des produits avec un stock faible, triés par stock croissant
      */
     @Transactional(readOnly = true)
     public List<ProductResponse> getProductsWithLowStock(int threshold) {
-        return productRepository.findProductsWithLowStock(threshold)
-                .stream()
-                .map(ProductResponse::fromEntity)
-                .collect(Collectors.toList());
+        if (stockWatchList.covers(threshold)) {
+            return stockWatchList.lowStock(threshold);
+        }
+        return productRepository.findProductsWithLowStock(threshold);
     }
 
     /**
@@ -253,10 +449,10 @@ public class ProductService {
      */
     @Transactional(readOnly = true)
     public List<ProductResponse> getOutOfStockProducts() {
-        return productRepository.findOutOfStockProducts()
-                .stream()
-                .map(ProductResponse::fromEntity)
-                .collect(Collectors.toList());
+        if (stockWatchList.covers(1)) {
+            return stockWatchList.outOfStock();
+        }
+        return productRepository.findOutOfStockProducts();
     }
 
     /**
@@ -266,7 +462,9 @@ public class ProductService {
      * @return Produit créé
      */
     public Product createProduct(Product product) {
-        return productRepository.save(product);
+        Product savedProduct = productRepository.save(product);
+        publishChange(null, savedProduct);
+        return savedProduct;
     }
 
     /**
@@ -278,6 +476,7 @@ public class ProductService {
      */
     public Product updateProduct(Long productId, Product product) {
         Product existingProduct = findById(productId);
+        ProductResponse previous = ProductResponse.fromEntity(existingProduct);
         
         if (product.getName() != null) {
             existingProduct.setName(product.getName());
@@ -301,7 +500,9 @@ public class ProductService {
             existingProduct.setAvailable(product.isAvailable());
         }
         
-        return productRepository.save(existingProduct);
+        Product updatedProduct = productRepository.save(existingProduct);
+        publishChange(previous, updatedProduct);
+        return updatedProduct;
     }
 
     /**
@@ -313,7 +514,31 @@ public class ProductService {
      */
     public Product updateProductStock(Long productId, Integer stock) {
         Product product = findById(productId);
+        ProductResponse previous = ProductResponse.fromEntity(product);
         product.setStockQuantity(stock);
-        return productRepository.save(product);
+        Product updatedProduct = productRepository.save(product);
+        publishChange(previous, updatedProduct);
+        return updatedProduct;
+    }
+
+    /**
+     * Publie l'état d'un produit modifié pour les structures en mémoire
+     * 
+     * Un changement de prix incrémente aussi la version des prix, dans la
+     * transaction courante, pour périmer le montant des résumés de panier.
+     * 
+     * @param previous État du produit avant modification (null pour une création)
+     * @param product  Produit sauvegardé
+     * @return ProductResponse correspondant
+     */
+    private ProductResponse publishChange(ProductResponse previous, Product product) {
+        ProductResponse response = ProductResponse.fromEntity(product);
+        if (previous != null && previous.getPrice().compareTo(response.getPrice()) != 0) {
+            catalogPriceVersion.increment();
+        }
+        eventPublisher.publishEvent(previous == null
+                ? ProductChangedEvent.created(response)
+                : ProductChangedEvent.updated(previous, response));
+        return response;
     }
 }
\ No newline at end of file
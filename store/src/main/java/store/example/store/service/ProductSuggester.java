@@ -0,0 +1,160 @@
+package store.example.store.service;
+
+import store.example.store.dto.reponse.ProductResponse;
+import store.example.store.dto.reponse.SuggestionResponse;
+import store.example.store.event.ProductChangedEvent;
+import store.example.store.repository.OrderRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Autocomplétion des noms de produits et des catégories
+ *
+ * Les suggestions sont servies par un {@link SuggestionTrie} immuable, construit
+ * à partir des produits de l'index de recherche et classé par popularité
+ * (quantités vendues). Aucune requête en base n'est faite pendant une suggestion :
+ * l'arbre est reconstruit en arrière-plan lorsque le catalogue a changé.
+ */
+@Component
+public class ProductSuggester {
+
+    @Autowired
+    private ProductSearchIndex productSearchIndex;
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    @Value("${catalog.suggest.max-results:10}")
+    private int maxResults;
+
+    private volatile SuggestionTrie trie = SuggestionTrie.EMPTY;
+
+    private volatile Map<Long, Long> unitsSold = Map.of();
+
+    private volatile boolean dirty = false;
+
+    /**
+     * Construit l'arbre au démarrage, une fois l'index de recherche prêt
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Order(Ordered.LOWEST_PRECEDENCE)
+    public void initialize() {
+        refreshPopularity();
+        rebuild();
+    }
+
+    /**
+     * Signale qu'un produit a changé : l'arbre sera reconstruit au prochain rafraîchissement
+     *
+     * @param event Événement de modification
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onProductChanged(ProductChangedEvent event) {
+        dirty = true;
+    }
+
+    /**
+     * Recharge les quantités vendues par produit
+     */
+    @Scheduled(initialDelayString = "${catalog.suggest.popularity-refresh-ms:600000}",
+            fixedDelayString = "${catalog.suggest.popularity-refresh-ms:600000}")
+    public void refreshPopularity() {
+        Map<Long, Long> sold = new HashMap<>();
+        for (Object[] row : orderRepository.sumQuantitiesByProduct()) {
+            sold.put((Long) row[0], ((Number) row[1]).longValue());
+        }
+        unitsSold = sold;
+        dirty = true;
+    }
+
+    /**
+     * Reconstruit l'arbre si le catalogue ou la popularité a changé
+     */
+    @Scheduled(fixedDelayString = "${catalog.suggest.refresh-ms:30000}")
+    public void refreshIfDirty() {
+        if (dirty) {
+            rebuild();
+        }
+    }
+
+    /**
+     * Renvoie les suggestions les plus populaires commençant par le préfixe
+     *
+     * Le préfixe peut correspondre au début du nom ou au début d'un mot du nom.
+     *
+     * @param prefix Texte saisi
+     * @param limit  Nombre maximal de suggestions
+     * @return Suggestions, de la plus populaire à la moins populaire
+     */
+    public List<SuggestionResponse> suggest(String prefix, int limit) {
+        if (prefix == null || prefix.isBlank() || limit <= 0) {
+            return List.of();
+        }
+        String normalized = String.join(" ", ProductTextAnalyzer.tokenize(prefix));
+        if (normalized.isEmpty()) {
+            return List.of();
+        }
+        return trie.lookup(normalized, Math.min(limit, maxResults));
+    }
+
+    /**
+     * Reconstruit l'arbre à partir des produits indexés
+     */
+    public synchronized void rebuild() {
+        dirty = false;
+        Map<Long, Long> sold = unitsSold;
+        List<SuggestionResponse> suggestions = new ArrayList<>();
+        List<Long> scores = new ArrayList<>();
+        List<SuggestionTrie.Entry> entries = new ArrayList<>();
+        Map<String, Integer> categories = new LinkedHashMap<>();
+
+        for (ProductResponse product : productSearchIndex.products()) {
+            long popularity = sold.getOrDefault(product.getId(), 0L);
+            int index = suggestions.size();
+            suggestions.add(SuggestionResponse.builder()
+                    .text(product.getName())
+                    .type("PRODUCT")
+                    .productId(product.getId())
+                    .build());
+            scores.add(popularity);
+            addKeys(entries, product.getName(), index);
+
+            if (product.getCategory() != null) {
+                Integer category = categories.computeIfAbsent(product.getCategory(), name -> {
+                    suggestions.add(SuggestionResponse.builder().text(name).type("CATEGORY").build());
+                    scores.add(0L);
+                    addKeys(entries, name, suggestions.size() - 1);
+                    return suggestions.size() - 1;
+                });
+                // Une catégorie est aussi populaire que l'ensemble de ses produits
+                scores.set(category, scores.get(category) + popularity);
+            }
+        }
+
+        long[] scoreArray = scores.stream().mapToLong(Long::longValue).toArray();
+        trie = new SuggestionTrie(suggestions.toArray(new SuggestionResponse[0]), scoreArray, entries, maxResults);
+    }
+
+    /**
+     * Indexe un texte sous chacun de ses débuts de mot
+     */
+    private static void addKeys(List<SuggestionTrie.Entry> entries, String text, int suggestion) {
+        List<String> words = ProductTextAnalyzer.tokenize(text);
+        for (int i = 0; i < words.size(); i++) {
+            entries.add(new SuggestionTrie.Entry(String.join(" ", words.subList(i, words.size())), suggestion));
+        }
+    }
+}
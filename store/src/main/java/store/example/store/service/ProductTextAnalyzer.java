@@ -0,0 +1,133 @@
+package store.example.store.service;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.regex.Pattern;
+
+/**
+ * Découpage des textes produits en termes indexables
+ * 
+ * Les textes sont mis en minuscules, débarrassés de leurs accents
+ * (« crème » devient « creme ») et découpés sur tout caractère
+ * qui n'est ni une lettre ni un chiffre.
+ */
+final class ProductTextAnalyzer {
+
+    private static final Pattern SEPARATORS = Pattern.compile("[^\\p{L}\\p{N}]+");
+
+    private static final Pattern COMBINING_MARKS = Pattern.compile("\\p{M}+");
+
+    private ProductTextAnalyzer() {
+    }
+
+    /**
+     * Découpe un texte en termes normalisés
+     * 
+     * @param text Texte à analyser (peut être null)
+     * @return Liste des termes, dans l'ordre d'apparition
+     */
+    static List<String> tokenize(String text) {
+        List<String> tokens = new ArrayList<>();
+        if (text == null || text.isBlank()) {
+            return tokens;
+        }
+        for (String token : SEPARATORS.split(normalize(text))) {
+            if (!token.isEmpty()) {
+                tokens.add(token);
+            }
+        }
+        return tokens;
+    }
+
+    /**
+     * Normalise un texte avant découpage (minuscules, sans accents ni ligatures)
+     * 
+     * @param text Texte brut
+     * @return Texte normalisé
+     */
+    static String normalize(String text) {
+        String lower = text.toLowerCase(Locale.ROOT)
+                .replace("œ", "oe")
+                .replace("æ", "ae")
+                .replace("ß", "ss");
+        String decomposed = Normalizer.normalize(lower, Normalizer.Form.NFD);
+        return COMBINING_MARKS.matcher(decomposed).replaceAll("");
+    }
+
+    /**
+     * Calcule la distance d'édition (Damerau-Levenshtein restreinte) entre deux termes
+     * 
+     * Le calcul s'arrête dès que la distance dépasse le maximum autorisé.
+     * 
+     * @param a           Premier terme
+     * @param b           Second terme
+     * @param maxDistance Distance maximale intéressante
+     * @return Distance d'édition, ou maxDistance + 1 si elle est dépassée
+     */
+    static int editDistance(String a, String b, int maxDistance) {
+        if (Math.abs(a.length() - b.length()) > maxDistance) {
+            return maxDistance + 1;
+        }
+        int[] previousPrevious = new int[b.length() + 1];
+        int[] previous = new int[b.length() + 1];
+        int[] current = new int[b.length() + 1];
+        for (int j = 0; j <= b.length(); j++) {
+            previous[j] = j;
+        }
+
+        for (int i = 1; i <= a.length(); i++) {
+            current[0] = i;
+            int rowMinimum = current[0];
+            for (int j = 1; j <= b.length(); j++) {
+                int cost = a.charAt(i - 1) == b.charAt(j - 1) ? 0 : 1;
+                int value = Math.min(Math.min(previous[j] + 1, current[j - 1] + 1), previous[j - 1] + cost);
+                if (i > 1 && j > 1 && a.charAt(i - 1) == b.charAt(j - 2) && a.charAt(i - 2) == b.charAt(j - 1)) {
+                    value = Math.min(value, previousPrevious[j - 2] + 1);
+                }
+                current[j] = value;
+                rowMinimum = Math.min(rowMinimum, value);
+            }
+            if (rowMinimum > maxDistance) {
+                return maxDistance + 1;
+            }
+            int[] recycled = previousPrevious;
+            previousPrevious = previous;
+            previous = current;
+            current = recycled;
+        }
+        return Math.min(previous[b.length()], maxDistance + 1);
+    }
+
+    /**
+     * Distance d'édition tolérée pour un terme de la requête, selon sa longueur
+     * 
+     * @param term Terme recherché
+     * @return Nombre de fautes tolérées
+     */
+    static int allowedTypos(String term) {
+        if (term.length() <= 3) {
+            return 0;
+        }
+        return term.length() <= 7 ? 1 : 2;
+    }
+
+    /**
+     * Découpe un terme en trigrammes (avec marqueurs de début et de fin)
+     * 
+     * @param term Terme normalisé
+     * @return Liste des trigrammes
+     */
+    static List<String> trigrams(String term) {
+        String padded = "$" + term + "$";
+        List<String> grams = new ArrayList<>(Math.max(1, padded.length() - 2));
+        for (int i = 0; i + 3 <= padded.length(); i++) {
+            grams.add(padded.substring(i, i + 3));
+        }
+        if (grams.isEmpty()) {
+            grams.add(padded);
+        }
+        return grams;
+    }
+}
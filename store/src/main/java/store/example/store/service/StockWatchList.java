@@ -0,0 +1,352 @@
+package store.example.store.service;
+
+import store.example.store.dto.reponse.ProductResponse;
+import store.example.store.dto.reponse.StockAlertResponse;
+import store.example.store.event.ProductChangedEvent;
+import store.example.store.repository.ProductRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Listes de surveillance du stock maintenues en mémoire
+ *
+ * Les produits disponibles dont le stock est inférieur au seuil de surveillance
+ * sont gardés triés par quantité, ce qui permet de servir les listes « stock faible »
+ * et « rupture de stock » sans parcourir la table des produits. Les listes sont mises
+ * à jour à partir des événements {@link ProductChangedEvent} ; chaque changement de
+ * niveau (en stock, stock faible, rupture) d'un produit déjà en vente est notifié
+ * aux managers abonnés.
+ *
+ * Les alertes sont envoyées sur un pool de threads dédié, sans bloquer la requête
+ * qui a modifié le produit ; un abonné dont l'envoi échoue ou qui accumule trop
+ * d'alertes en attente est désabonné.
+ */
+@Component
+public class StockWatchList {
+
+    public static final String IN_STOCK = "IN_STOCK";
+    public static final String LOW_STOCK = "LOW_STOCK";
+    public static final String OUT_OF_STOCK = "OUT_OF_STOCK";
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    /**
+     * Les produits dont le stock est strictement inférieur à ce seuil sont suivis
+     */
+    @Value("${catalog.stock.watch-threshold:50}")
+    private int watchThreshold;
+
+    /**
+     * Seuil en dessous duquel un produit passe au niveau « stock faible »
+     */
+    @Value("${catalog.stock.low-threshold:10}")
+    private int lowThreshold;
+
+    @Value("${catalog.stock.alerts-timeout-ms:1800000}")
+    private long alertsTimeout;
+
+    /**
+     * Nombre maximal d'alertes en attente d'envoi pour un abonné
+     */
+    @Value("${catalog.stock.alerts-max-pending:100}")
+    private int maxPendingAlerts;
+
+    @Value("${catalog.stock.alerts-threads:2}")
+    private int alertThreads;
+
+    private final List<Subscriber> subscribers = new CopyOnWriteArrayList<>();
+
+    private final Object rebuildLock = new Object();
+
+    private ExecutorService alertExecutor;
+
+    private volatile WatchState state = new WatchState();
+
+    private volatile boolean ready = false;
+
+    /**
+     * Événements reçus pendant une reconstruction, rejoués sur la liste reconstruite
+     * (null hors reconstruction ; protégé par this)
+     */
+    private List<ProductChangedEvent> replay;
+
+    @PostConstruct
+    void start() {
+        AtomicInteger threadCount = new AtomicInteger();
+        alertExecutor = Executors.newFixedThreadPool(Math.max(1, alertThreads), task -> {
+            Thread thread = new Thread(task, "stock-alerts-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @PreDestroy
+    void stop() {
+        alertExecutor.shutdownNow();
+    }
+
+    /**
+     * Recharge les produits suivis depuis la base de données
+     *
+     * Les modifications validées pendant la lecture sont rejouées sur la liste
+     * reconstruite avant qu'elle ne remplace la liste courante.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(initialDelayString = "${catalog.stock.reconcile-ms:300000}",
+            fixedDelayString = "${catalog.stock.reconcile-ms:300000}")
+    public void reconcile() {
+        synchronized (rebuildLock) {
+            synchronized (this) {
+                replay = new ArrayList<>();
+            }
+            try {
+                WatchState rebuilt = new WatchState();
+                for (ProductResponse product : productRepository.findProductsWithLowStock(watchThreshold)) {
+                    rebuilt.put(product);
+                }
+                synchronized (this) {
+                    for (ProductChangedEvent event : replay) {
+                        apply(rebuilt, event);
+                    }
+                    state = rebuilt;
+                    ready = true;
+                }
+            } finally {
+                synchronized (this) {
+                    replay = null;
+                }
+            }
+        }
+    }
+
+    /**
+     * Met à jour les listes après la validation d'une modification de produit
+     * et notifie les abonnés si le produit a changé de niveau de stock
+     *
+     * @param event Événement de modification
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onProductChanged(ProductChangedEvent event) {
+        synchronized (this) {
+            apply(state, event);
+            if (replay != null) {
+                replay.add(event);
+            }
+        }
+
+        // Un produit créé, supprimé, remis en vente ou retiré de la vente n'a pas de niveau précédent
+        ProductResponse product = event.getProduct();
+        ProductResponse previous = event.getPrevious();
+        if (product == null || !product.isAvailable() || previous == null || !previous.isAvailable()) {
+            return;
+        }
+        String previousLevel = levelOf(previous.getStockQuantity());
+        String level = levelOf(product.getStockQuantity());
+        if (!level.equals(previousLevel)) {
+            notifySubscribers(StockAlertResponse.builder()
+                    .productId(product.getId())
+                    .name(product.getName())
+                    .previousLevel(previousLevel)
+                    .level(level)
+                    .stockQuantity(product.getStockQuantity())
+                    .build());
+        }
+    }
+
+    /**
+     * Reporte une modification de produit sur une liste
+     */
+    private void apply(WatchState target, ProductChangedEvent event) {
+        ProductResponse product = event.getProduct();
+        if (product != null && product.isAvailable() && product.getStockQuantity() < watchThreshold) {
+            target.put(product);
+        } else {
+            target.remove(event.getProductId());
+        }
+    }
+
+    /**
+     * Indique si la liste suivie permet de répondre pour ce seuil
+     *
+     * @param threshold Seuil de stock faible demandé
+     * @return true si les listes sont chargées et couvrent ce seuil
+     */
+    public boolean covers(int threshold) {
+        return ready && threshold <= watchThreshold;
+    }
+
+    /**
+     * Renvoie les produits disponibles dont le stock est inférieur au seuil
+     *
+     * @param threshold Seuil de stock faible (au plus le seuil de surveillance)
+     * @return Produits triés par stock croissant
+     */
+    public List<ProductResponse> lowStock(int threshold) {
+        return new ArrayList<>(state.byStock.headMap(new StockKey(threshold, Long.MIN_VALUE)).values());
+    }
+
+    /**
+     * Renvoie les produits disponibles en rupture de stock
+     *
+     * @return Produits en rupture, triés par ID
+     */
+    public List<ProductResponse> outOfStock() {
+        return lowStock(1);
+    }
+
+    /**
+     * Abonne un manager aux alertes de franchissement de seuil (Server-Sent Events)
+     *
+     * @return Flux d'alertes
+     */
+    public SseEmitter subscribe() {
+        SseEmitter emitter = new SseEmitter(alertsTimeout);
+        Subscriber subscriber = new Subscriber(emitter);
+        emitter.onCompletion(() -> subscribers.remove(subscriber));
+        emitter.onTimeout(() -> subscribers.remove(subscriber));
+        emitter.onError(error -> subscribers.remove(subscriber));
+        subscribers.add(subscriber);
+        return emitter;
+    }
+
+    private void notifySubscribers(StockAlertResponse alert) {
+        for (Subscriber subscriber : subscribers) {
+            subscriber.offer(alert);
+        }
+    }
+
+    private String levelOf(int stockQuantity) {
+        if (stockQuantity <= 0) {
+            return OUT_OF_STOCK;
+        }
+        return stockQuantity < lowThreshold ? LOW_STOCK : IN_STOCK;
+    }
+
+    /**
+     * Abonné aux alertes : ses alertes sont envoyées dans l'ordre, par une seule
+     * tâche à la fois sur le pool d'envoi
+     */
+    private final class Subscriber {
+
+        private final SseEmitter emitter;
+
+        private final Queue<StockAlertResponse> pending = new ConcurrentLinkedQueue<>();
+
+        private final AtomicInteger pendingCount = new AtomicInteger();
+
+        private final AtomicBoolean sending = new AtomicBoolean();
+
+        Subscriber(SseEmitter emitter) {
+            this.emitter = emitter;
+        }
+
+        void offer(StockAlertResponse alert) {
+            if (pendingCount.incrementAndGet() > maxPendingAlerts) {
+                // Client trop lent : désabonné plutôt que de garder ses alertes en mémoire
+                drop();
+                return;
+            }
+            pending.add(alert);
+            schedule();
+        }
+
+        private void schedule() {
+            if (!sending.compareAndSet(false, true)) {
+                return;
+            }
+            try {
+                alertExecutor.execute(this::send);
+            } catch (RejectedExecutionException e) {
+                sending.set(false);
+            }
+        }
+
+        private void send() {
+            try {
+                StockAlertResponse alert;
+                while ((alert = pending.poll()) != null) {
+                    pendingCount.decrementAndGet();
+                    emitter.send(SseEmitter.event().name("stock").data(alert));
+                }
+            } catch (IOException | IllegalStateException e) {
+                drop();
+            } finally {
+                sending.set(false);
+                if (!pending.isEmpty() && subscribers.contains(this)) {
+                    schedule();
+                }
+            }
+        }
+
+        private void drop() {
+            if (subscribers.remove(this)) {
+                pending.clear();
+                emitter.complete();
+            }
+        }
+    }
+
+    /**
+     * Clé de tri : stock croissant, puis ID
+     */
+    private record StockKey(int stock, long id) implements Comparable<StockKey> {
+
+        @Override
+        public int compareTo(StockKey other) {
+            int byStock = Integer.compare(stock, other.stock);
+            return byStock != 0 ? byStock : Long.compare(id, other.id);
+        }
+    }
+
+    /**
+     * Produits suivis, triés par stock, et position de chaque produit dans le tri
+     */
+    private static final class WatchState {
+
+        private final ConcurrentSkipListMap<StockKey, ProductResponse> byStock = new ConcurrentSkipListMap<>();
+
+        private final ConcurrentHashMap<Long, StockKey> keys = new ConcurrentHashMap<>();
+
+        /**
+         * Ajoute ou replace un produit, et renvoie son état précédent
+         */
+        ProductResponse put(ProductResponse product) {
+            StockKey key = new StockKey(product.getStockQuantity(), product.getId());
+            StockKey previousKey = keys.put(product.getId(), key);
+            ProductResponse previous = previousKey == null ? null : byStock.remove(previousKey);
+            byStock.put(key, product);
+            return previous;
+        }
+
+        /**
+         * Retire un produit, et renvoie son état précédent
+         */
+        ProductResponse remove(Long productId) {
+            StockKey previousKey = keys.remove(productId);
+            return previousKey == null ? null : byStock.remove(previousKey);
+        }
+    }
+}
@@ -0,0 +1,157 @@
+package store.example.store.service;
+
+import store.example.store.dto.reponse.SuggestionResponse;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Arbre de préfixes compressé et immuable pour l'autocomplétion
+ *
+ * Chaque nœud porte un fragment de clé (compression des chemins sans embranchement)
+ * et la liste pré-calculée des meilleures suggestions de son sous-arbre.
+ * Une recherche se limite donc à parcourir le préfixe, sans explorer le sous-arbre.
+ */
+final class SuggestionTrie {
+
+    /**
+     * Clé d'indexation pointant vers une suggestion
+     *
+     * @param key        Clé normalisée (début du nom, ou d'un mot du nom)
+     * @param suggestion Index de la suggestion dans le tableau des suggestions
+     */
+    record Entry(String key, int suggestion) {
+    }
+
+    private static final int[] NO_SUGGESTIONS = new int[0];
+
+    static final SuggestionTrie EMPTY = new SuggestionTrie(new SuggestionResponse[0], new long[0], List.of(), 1);
+
+    private final SuggestionResponse[] suggestions;
+
+    private final Node root;
+
+    /**
+     * Construit l'arbre à partir des clés d'indexation
+     *
+     * @param suggestions Suggestions possibles
+     * @param scores      Score de chaque suggestion (popularité)
+     * @param entries     Clés d'indexation
+     * @param maxResults  Nombre de suggestions conservées par nœud
+     */
+    SuggestionTrie(SuggestionResponse[] suggestions, long[] scores, List<Entry> entries, int maxResults) {
+        this.suggestions = suggestions;
+        Comparator<Integer> ranking = Comparator.<Integer>comparingLong(i -> scores[i]).reversed()
+                .thenComparingInt(i -> suggestions[i].getText().length())
+                .thenComparing(i -> suggestions[i].getText());
+
+        Entry[] sorted = entries.toArray(new Entry[0]);
+        Arrays.sort(sorted, Comparator.comparing(Entry::key));
+        this.root = sorted.length == 0
+                ? new Node("", new char[0], new Node[0], NO_SUGGESTIONS)
+                : build(sorted, 0, sorted.length, 0, 0, ranking, maxResults);
+    }
+
+    /**
+     * Renvoie les meilleures suggestions pour un préfixe normalisé
+     *
+     * @param prefix Préfixe normalisé
+     * @param limit  Nombre maximal de suggestions
+     * @return Suggestions, de la plus populaire à la moins populaire
+     */
+    List<SuggestionResponse> lookup(String prefix, int limit) {
+        Node node = root;
+        int position = 0;
+        while (true) {
+            int matched = 0;
+            while (matched < node.label.length() && position < prefix.length()) {
+                if (node.label.charAt(matched) != prefix.charAt(position)) {
+                    return List.of();
+                }
+                matched++;
+                position++;
+            }
+            if (position == prefix.length()) {
+                break;
+            }
+            int child = Arrays.binarySearch(node.childChars, prefix.charAt(position));
+            if (child < 0) {
+                return List.of();
+            }
+            node = node.children[child];
+        }
+
+        int count = Math.min(limit, node.top.length);
+        List<SuggestionResponse> results = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            results.add(suggestions[node.top[i]]);
+        }
+        return results;
+    }
+
+    /**
+     * Construit récursivement le nœud couvrant les clés [from, to) à partir de la profondeur depth
+     */
+    private static Node build(Entry[] entries, int from, int to, int depth, int labelStart,
+            Comparator<Integer> ranking, int maxResults) {
+        String first = entries[from].key();
+        String last = entries[to - 1].key();
+
+        // Les clés étant triées, le préfixe commun du groupe est celui de la première et de la dernière
+        int end = depth;
+        while (end < first.length() && end < last.length() && first.charAt(end) == last.charAt(end)) {
+            end++;
+        }
+        String label = first.substring(labelStart, end);
+
+        List<Integer> candidates = new ArrayList<>();
+        int cursor = from;
+        while (cursor < to && entries[cursor].key().length() == end) {
+            candidates.add(entries[cursor].suggestion());
+            cursor++;
+        }
+
+        List<Character> childChars = new ArrayList<>();
+        List<Node> children = new ArrayList<>();
+        while (cursor < to) {
+            char next = entries[cursor].key().charAt(end);
+            int groupEnd = cursor;
+            while (groupEnd < to && entries[groupEnd].key().charAt(end) == next) {
+                groupEnd++;
+            }
+            Node child = build(entries, cursor, groupEnd, end + 1, end, ranking, maxResults);
+            childChars.add(next);
+            children.add(child);
+            for (int suggestion : child.top) {
+                candidates.add(suggestion);
+            }
+            cursor = groupEnd;
+        }
+
+        char[] chars = new char[childChars.size()];
+        for (int i = 0; i < chars.length; i++) {
+            chars[i] = childChars.get(i);
+        }
+        return new Node(label, chars, children.toArray(new Node[0]), topOf(candidates, ranking, maxResults));
+    }
+
+    private static int[] topOf(List<Integer> candidates, Comparator<Integer> ranking, int maxResults) {
+        if (candidates.isEmpty()) {
+            return NO_SUGGESTIONS;
+        }
+        return candidates.stream()
+                .distinct()
+                .sorted(ranking)
+                .limit(maxResults)
+                .mapToInt(Integer::intValue)
+                .toArray();
+    }
+
+    /**
+     * Nœud de l'arbre : fragment de clé, enfants triés par caractère et meilleures suggestions
+     */
+    private record Node(String label, char[] childChars, Node[] children, int[] top) {
+    }
+}
@@ -5,9 +5,12 @@ import store.example.store.dto.request.RegisterRequest;
 import store.example.store.entity.User;
 import store.example.store.exception.ResourceNotFoundException;
 import store.example.store.repository.UserRepository;
+import store.example.store.security.PasswordHashingBulkhead;
+import store.example.store.security.TokenRevocationList;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.util.List;
@@ -29,24 +32,44 @@ public class UserService {
     @Autowired
     private PasswordEncoder passwordEncoder;
 
+    @Autowired
+    private PasswordHashingBulkhead passwordHashingBulkhead;
+
+    @Autowired
+    private TokenRevocationList tokenRevocationList;
+
+    /**
+     * Hache un mot de passe sur le pool dédié
+     * 
+     * Exécutée hors transaction : l'attente du hachage ne retient aucune connexion JDBC.
+     * 
+     * @param rawPassword Mot de passe en clair
+     * @return Hachage du mot de passe
+     */
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public String encodePassword(String rawPassword) {
+        return passwordHashingBulkhead.execute("register", () -> passwordEncoder.encode(rawPassword));
+    }
+
     /**
      * Crée un nouvel utilisateur
      * 
      * @param registerRequest Données d'inscription
+     * @param encodedPassword Mot de passe déjà haché (voir {@link #encodePassword(String)})
      * @return Utilisateur créé
      * @throws IllegalArgumentException Si l'email existe déjà
      */
-    public User createUser(RegisterRequest registerRequest) {
+    public User createUser(RegisterRequest registerRequest, String encodedPassword) {
         // Vérification de l'unicité de l'email
         if (userRepository.existsByEmail(registerRequest.getEmail())) {
-            throw new IllegalArgumentException("Un utilisateur avec cet email existe déjà");
+            throw new IllegalArgumentException("Un compte avec cet email existe déjà");
         }
 
         // Création de l'utilisateur
         User user = User.builder()
                 .name(registerRequest.getName())
                 .email(registerRequest.getEmail())
-                .password(passwordEncoder.encode(registerRequest.getPassword()))
+                .password(encodedPassword)
                 .phone(registerRequest.getPhone())
                 .address(registerRequest.getAddress())
                 .role(User.Role.USER)
@@ -81,6 +104,19 @@ public class UserService {
                 .orElseThrow(() -> new ResourceNotFoundException("Utilisateur non trouvé avec l'ID : " + id));
     }
 
+    /**
+     * Référence vers un utilisateur, sans le charger
+     * 
+     * À utiliser pour associer une entité à un utilisateur dont l'existence
+     * est déjà garantie (utilisateur authentifié).
+     * 
+     * @param id ID de l'utilisateur
+     * @return Référence (proxy) vers l'utilisateur
+     */
+    public User getReference(Long id) {
+        return userRepository.getReferenceById(id);
+    }
+
     /**
      * Vérifie si un utilisateur existe avec cet email
      * 
@@ -149,13 +185,14 @@ public class UserService {
     }
 
     /**
-     * Supprime un utilisateur
+     * Supprime un utilisateur et révoque tous ses tokens
      * 
      * @param id ID de l'utilisateur à supprimer
      */
     public void deleteUser(Long id) {
         User user = findById(id);
         userRepository.delete(user);
+        tokenRevocationList.revokeUser(id);
     }
 
     /**
@@ -171,6 +208,8 @@ public class UserService {
     /**
      * Met à jour le rôle d'un utilisateur
      * 
+     * Les tokens déjà émis portent l'ancien rôle : ils sont révoqués.
+     * 
      * @param userId ID de l'utilisateur
      * @param role Nouveau rôle
      * @return Utilisateur mis à jour
@@ -181,7 +220,9 @@ public class UserService {
         try {
             User.Role userRole = User.Role.valueOf(role.toUpperCase());
             user.setRole(userRole);
-            return userRepository.save(user);
+            User saved = userRepository.save(user);
+            tokenRevocationList.revokeUser(userId);
+            return saved;
         } catch (IllegalArgumentException e) {
             throw new IllegalArgumentException("Rôle invalide: " + role);
         }
@@ -0,0 +1,54 @@
+package store.example.store.config;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Vérifie la portée des ETags du catalogue
+ *
+ * Seules les lectures calculées à partir de la base portent l'ETag dérivé de la
+ * version du catalogue ; les réponses des structures en mémoire, mises à jour à
+ * leur propre rythme, ne doivent jamais être validées par un 304.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class CatalogETagFilterTests {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Test
+    void databaseReadsAreRevalidatedWithTheCatalogVersion() throws Exception {
+        String etag = mockMvc.perform(get("/api/products/page"))
+                .andExpect(status().isOk())
+                .andExpect(header().exists(HttpHeaders.ETAG))
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+
+        mockMvc.perform(get("/api/products/page").header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isNotModified());
+    }
+
+    @Test
+    void inMemoryReadsHaveNoETag() throws Exception {
+        String etag = mockMvc.perform(get("/api/products/page"))
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+
+        for (String path : new String[] { "/api/products/search?name=creme", "/api/products/suggest?prefix=cr",
+                "/api/products/categories", "/api/products/categories/facets", "/api/products/low-stock",
+                "/api/products/out-of-stock" }) {
+            mockMvc.perform(get(path).header(HttpHeaders.IF_NONE_MATCH, etag))
+                    .andExpect(status().isOk())
+                    .andExpect(header().doesNotExist(HttpHeaders.ETAG));
+        }
+    }
+}
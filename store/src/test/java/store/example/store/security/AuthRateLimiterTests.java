@@ -0,0 +1,82 @@
+package store.example.store.security;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.ResultActions;
+
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Vérifie la limitation du débit des tentatives de connexion
+ *
+ * Au-delà de la rafale autorisée pour un email, les tentatives sont refusées (429)
+ * sans exécuter le hachage du mot de passe, et les seaux restent bornés en nombre.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class AuthRateLimiterTests {
+
+    private static final String EMAIL = "bourrage@example.com";
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Test
+    void attemptsBeyondTheBurstAreRejectedBeforeHashing() throws Exception {
+        for (int i = 0; i < 5; i++) {
+            attempt().andExpect(status().isBadRequest());
+        }
+        long hashed = hashingCount();
+
+        attempt().andExpect(status().isTooManyRequests())
+                .andExpect(header().exists(HttpHeaders.RETRY_AFTER));
+
+        assertThat(hashingCount()).isEqualTo(hashed);
+    }
+
+    @Test
+    void bucketCountIsBounded() {
+        TokenBucketLimiter limiter = new TokenBucketLimiter(1, 1, 1000);
+
+        String last = null;
+        for (int i = 0; i < 100_000; i++) {
+            last = "10." + (i >> 16) + "." + (i >> 8 & 0xff) + "." + (i & 0xff);
+            assertThat(limiter.tryAcquire(last)).isZero();
+        }
+        assertThat(limiter.size()).isLessThanOrEqualTo(1000);
+        // La clé la plus récente est toujours suivie : son seau est vide
+        assertThat(limiter.tryAcquire(last)).isPositive();
+    }
+
+    private ResultActions attempt() throws Exception {
+        return mockMvc.perform(post("/api/auth/login")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(Map.of("email", EMAIL, "password", "mauvais"))));
+    }
+
+    private long hashingCount() {
+        Timer timer = meterRegistry.find("auth.hashing.duration").tag("operation", "login").timer();
+        return timer != null ? timer.count() : 0;
+    }
+}
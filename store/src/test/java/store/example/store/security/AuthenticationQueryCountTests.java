@@ -0,0 +1,160 @@
+package store.example.store.security;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.transaction.support.TransactionTemplate;
+import store.example.store.entity.CartItem;
+import store.example.store.entity.CartSummary;
+import store.example.store.entity.Order;
+import store.example.store.entity.Product;
+import store.example.store.entity.User;
+import store.example.store.repository.CartItemRepository;
+import store.example.store.repository.CartSummaryRepository;
+import store.example.store.repository.OrderRepository;
+import store.example.store.repository.ProductRepository;
+import store.example.store.repository.UserRepository;
+import store.example.store.service.CatalogPriceVersion;
+
+import java.math.BigDecimal;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Vérifie le nombre de requêtes SQL de l'authentification
+ * 
+ * La connexion ne doit lire que les informations d'authentification de l'utilisateur,
+ * sans charger ses paniers ni ses commandes, et une requête authentifiée ne doit
+ * pas relire l'utilisateur en base.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class AuthenticationQueryCountTests {
+
+    private static final String EMAIL = "fidele@example.com";
+    private static final String PASSWORD = "motdepasse";
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private CartItemRepository cartItemRepository;
+
+    @Autowired
+    private CartSummaryRepository cartSummaryRepository;
+
+    @Autowired
+    private CatalogPriceVersion catalogPriceVersion;
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    @Autowired
+    private PasswordEncoder passwordEncoder;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    private Statistics statistics;
+
+    @BeforeEach
+    void createLoyalCustomer() {
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        if (userRepository.existsByEmail(EMAIL)) {
+            return;
+        }
+
+        // Un client fidèle : un panier rempli, avec son résumé, et un historique de commandes
+        transactionTemplate.executeWithoutResult(status -> {
+            User user = userRepository.save(User.builder()
+                    .email(EMAIL)
+                    .name("Client fidèle")
+                    .password(passwordEncoder.encode(PASSWORD))
+                    .build());
+            for (int i = 0; i < 20; i++) {
+                Product product = productRepository.save(Product.builder()
+                        .name("Produit " + i)
+                        .price(BigDecimal.TEN)
+                        .category("Soins")
+                        .available(true)
+                        .stockQuantity(100)
+                        .build());
+                cartItemRepository.save(CartItem.builder().user(user).product(product).quantity(1).build());
+                orderRepository.save(Order.builder()
+                        .user(user)
+                        .totalAmount(BigDecimal.TEN)
+                        .shippingAddress("1 rue de la Paix")
+                        .build());
+            }
+            cartSummaryRepository.save(CartSummary.builder()
+                    .userId(user.getId())
+                    .lineCount(20)
+                    .totalQuantity(20)
+                    .totalAmount(new BigDecimal("200"))
+                    .priceVersion(catalogPriceVersion.current())
+                    .build());
+        });
+    }
+
+    @Test
+    void loginReadsOnlyTheUser() throws Exception {
+        statistics.clear();
+
+        login();
+
+        // Projection des informations d'authentification, puis l'utilisateur pour la réponse
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(2);
+        assertThat(statistics.getCollectionLoadCount()).isZero();
+    }
+
+    @Test
+    void authenticatedRequestDoesNotReadTheUser() throws Exception {
+        String token = login();
+        statistics.clear();
+
+        mockMvc.perform(get("/api/cart/count").header("Authorization", "Bearer " + token))
+                .andExpect(status().isOk());
+
+        // Seule la lecture du résumé du panier est exécutée : l'utilisateur provient du token
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+        assertThat(statistics.getCollectionLoadCount()).isZero();
+    }
+
+    private String login() throws Exception {
+        MvcResult result = mockMvc.perform(post("/api/auth/login")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(
+                                Map.of("email", EMAIL, "password", PASSWORD))))
+                .andExpect(status().isOk())
+                .andReturn();
+        return objectMapper.readTree(result.getResponse().getContentAsString()).get("token").asText();
+    }
+}
@@ -0,0 +1,144 @@
+package store.example.store.security;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.util.ReflectionTestUtils;
+import store.example.store.entity.Product;
+import store.example.store.entity.User;
+import store.example.store.repository.ProductRepository;
+
+import java.math.BigDecimal;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Banc de charge du catalogue, avec et sans authentification différée
+ *
+ * Des clients concurrents consultent le catalogue en présentant un token, comme
+ * l'application front. Le débit est mesuré avec l'authentification différée des routes
+ * publiques, puis avec une authentification systématique, pour des tokens déjà vus
+ * (cache des tokens vérifiés) et pour des tokens jamais vus. Désactivé par défaut :
+ * mvn test -Dtest=CatalogThroughputBenchmarkTests -Dbenchmark=true
+ */
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@ActiveProfiles("test")
+class CatalogThroughputBenchmarkTests {
+
+    private static final int CLIENTS = 8;
+    private static final int REQUESTS_PER_CLIENT = 4000;
+    private static final String[] ROUTES = { "/api/products/categories", "/api/products/page?size=20" };
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private JwtTokenProvider tokenProvider;
+
+    @Autowired
+    private JwtAuthenticationFilter jwtAuthenticationFilter;
+
+    private final HttpClient client = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+
+    private long nextUserId = 100_000L;
+
+    @Test
+    void reportCatalogThroughput() throws Exception {
+        seedCatalog();
+        List<String> knownTokens = newTokens(1000);
+
+        // Préchauffage des deux chemins
+        for (String route : ROUTES) {
+            run(route, knownTokens, true);
+            run(route, knownTokens, false);
+        }
+
+        System.out.println("route                      | tokens    | différée (req/s) | complète (req/s)");
+        for (String route : ROUTES) {
+            for (int round = 0; round < 2; round++) {
+                System.out.printf("%-26s | déjà vus  | %16.0f | %16.0f%n", route,
+                        run(route, knownTokens, true), run(route, knownTokens, false));
+                System.out.printf("%-26s | nouveaux  | %16.0f | %16.0f%n", route,
+                        run(route, newTokens(CLIENTS * REQUESTS_PER_CLIENT), true),
+                        run(route, newTokens(CLIENTS * REQUESTS_PER_CLIENT), false));
+            }
+        }
+    }
+
+    private List<String> newTokens(int count) {
+        List<String> tokens = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            long id = nextUserId++;
+            tokens.add(tokenProvider.generateToken(User.builder()
+                    .id(id).email("client" + id + "@example.com").role(User.Role.USER).build()));
+        }
+        return tokens;
+    }
+
+    /**
+     * Exécute la charge et renvoie le débit (requêtes par seconde)
+     */
+    private double run(String route, List<String> tokens, boolean deferred) throws Exception {
+        ReflectionTestUtils.setField(jwtAuthenticationFilter, "deferOnPublicRoutes", deferred);
+        ExecutorService executor = Executors.newFixedThreadPool(CLIENTS);
+        try {
+            long start = System.nanoTime();
+            List<Future<?>> clients = new ArrayList<>();
+            for (int c = 0; c < CLIENTS; c++) {
+                int offset = c;
+                clients.add(executor.submit(() -> {
+                    for (int i = 0; i < REQUESTS_PER_CLIENT; i++) {
+                        String token = tokens.get((offset * REQUESTS_PER_CLIENT + i) % tokens.size());
+                        HttpRequest request = HttpRequest.newBuilder(
+                                        URI.create("http://localhost:" + port + route))
+                                .header("Authorization", "Bearer " + token)
+                                .build();
+                        HttpResponse<Void> response = client.send(request, HttpResponse.BodyHandlers.discarding());
+                        if (response.statusCode() != 200) {
+                            throw new IllegalStateException("Statut inattendu : " + response.statusCode());
+                        }
+                    }
+                    return null;
+                }));
+            }
+            for (Future<?> future : clients) {
+                future.get();
+            }
+            double seconds = (System.nanoTime() - start) / 1e9;
+            return CLIENTS * REQUESTS_PER_CLIENT / seconds;
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    private void seedCatalog() {
+        if (productRepository.count() >= 200) {
+            return;
+        }
+        List<Product> products = new ArrayList<>();
+        for (int i = 0; i < 200; i++) {
+            products.add(Product.builder()
+                    .name("Produit de charge " + i)
+                    .price(BigDecimal.valueOf(5 + i % 40))
+                    .category("Catégorie " + i % 8)
+                    .available(true)
+                    .stockQuantity(100)
+                    .build());
+        }
+        productRepository.saveAll(products);
+    }
+}
@@ -0,0 +1,63 @@
+package store.example.store.security;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import store.example.store.entity.User;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.hamcrest.Matchers.containsString;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Vérifie l'authentification différée sur les routes publiques
+ *
+ * Le catalogue ne doit pas vérifier le token présenté, alors qu'une route
+ * publique qui lit l'utilisateur connecté (déconnexion) doit toujours le voir.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class JwtAuthenticationFilterTests {
+
+    private static final String EMAIL = "catalogue@example.com";
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private JwtTokenProvider tokenProvider;
+
+    @Autowired
+    private VerifiedTokenCache verifiedTokenCache;
+
+    @Test
+    void catalogRequestsDoNotVerifyTheToken() throws Exception {
+        String token = newToken();
+        int verified = verifiedTokenCache.size();
+
+        mockMvc.perform(get("/api/products/categories").header("Authorization", "Bearer " + token))
+                .andExpect(status().isOk());
+
+        assertThat(verifiedTokenCache.size()).isEqualTo(verified);
+    }
+
+    @Test
+    void publicRoutesStillSeeTheUserWhenTheyNeedIt() throws Exception {
+        String token = newToken();
+
+        mockMvc.perform(post("/api/auth/logout").header("Authorization", "Bearer " + token))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.message", containsString(EMAIL)));
+    }
+
+    private String newToken() {
+        return tokenProvider.generateToken(User.builder().id(4242L).email(EMAIL).role(User.Role.USER).build());
+    }
+}
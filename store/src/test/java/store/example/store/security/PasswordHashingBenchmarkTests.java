@@ -0,0 +1,30 @@
+package store.example.store.security;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+
+/**
+ * Banc de mesure du coût BCrypt
+ * 
+ * Affiche, pour chaque coût, la durée d'une vérification de mot de passe et le
+ * nombre de connexions par seconde qu'un cœur peut traiter. Désactivé par défaut :
+ * mvn test -Dtest=PasswordHashingBenchmarkTests -Dbenchmark=true
+ */
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+class PasswordHashingBenchmarkTests {
+
+    private static final int MIN_COST = 8;
+    private static final int MAX_COST = 14;
+
+    @Test
+    void reportLoginsPerSecondPerCore() {
+        System.out.println("coût | ms par hachage | connexions/s/cœur");
+        for (int cost = MIN_COST; cost <= MAX_COST; cost++) {
+            // Plus d'échantillons pour les coûts faibles, dont la mesure est plus bruitée
+            int samples = Math.max(3, 1 << (MAX_COST - cost));
+            double millis = CalibratedBCryptPasswordEncoder.measureMillis(cost, samples);
+            System.out.printf("%4d | %14.1f | %17.1f%n", cost, millis, 1000.0 / millis);
+        }
+        System.out.println("Coût calibré pour 250 ms : " + CalibratedBCryptPasswordEncoder.calibrate(250));
+    }
+}
@@ -0,0 +1,133 @@
+package store.example.store.security;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.test.context.ActiveProfiles;
+import store.example.store.dto.reponse.AuthResponse;
+import store.example.store.dto.request.LoginRequest;
+import store.example.store.dto.request.RegisterRequest;
+import store.example.store.entity.User;
+import store.example.store.repository.ProductRepository;
+import store.example.store.repository.UserRepository;
+import store.example.store.service.AuthService;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Vérifie qu'une rafale de connexions ne retient pas les connexions JDBC
+ *
+ * Avec un pool de deux connexions et un seul thread de hachage, les requêtes
+ * en attente du hachage ne doivent occuper aucune connexion : le thread de
+ * hachage lit l'utilisateur sans attendre, et le catalogue reste servi
+ * pendant la rafale. Une inscription avec un email déjà utilisé est refusée
+ * sans passer par le pool de hachage.
+ */
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:bulkhead;DB_CLOSE_DELAY=-1",
+        "spring.datasource.hikari.maximum-pool-size=2",
+        "spring.datasource.hikari.connection-timeout=1000",
+        "auth.hashing.threads=1",
+        "auth.password.bcrypt-strength=8"
+})
+@ActiveProfiles("test")
+class PasswordHashingBulkheadTests {
+
+    private static final int REQUESTS = 8;
+    private static final String PASSWORD = "motdepasse";
+
+    @Autowired
+    private AuthService authService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private PasswordEncoder passwordEncoder;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Test
+    void loginBurstDoesNotHoldConnectionsWhileHashing() throws Exception {
+        String encoded = passwordEncoder.encode(PASSWORD);
+        for (int i = 0; i < REQUESTS; i++) {
+            userRepository.save(User.builder()
+                    .name("Client " + i)
+                    .email("rafale" + i + "@example.com")
+                    .password(encoded)
+                    .role(User.Role.USER)
+                    .build());
+        }
+
+        ExecutorService clients = Executors.newFixedThreadPool(REQUESTS);
+        try {
+            List<Future<AuthResponse>> logins = new ArrayList<>();
+            for (int i = 0; i < REQUESTS; i++) {
+                LoginRequest request = new LoginRequest("rafale" + i + "@example.com", PASSWORD);
+                String clientIp = "10.0.0." + i;
+                logins.add(clients.submit(() -> authService.authenticateUser(request, clientIp)));
+            }
+
+            // Le catalogue obtient une connexion pendant que les connexions attendent le hachage
+            long start = System.nanoTime();
+            productRepository.count();
+            assertThat(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start)).isLessThan(1000);
+
+            for (Future<AuthResponse> login : logins) {
+                assertThat(login.get(30, TimeUnit.SECONDS).getToken()).isNotBlank();
+            }
+        } finally {
+            clients.shutdownNow();
+        }
+    }
+
+    @Test
+    void registrationBurstDoesNotHoldConnectionsWhileHashing() throws Exception {
+        ExecutorService clients = Executors.newFixedThreadPool(REQUESTS);
+        try {
+            List<Future<AuthResponse>> registrations = new ArrayList<>();
+            for (int i = 0; i < REQUESTS; i++) {
+                RegisterRequest request = new RegisterRequest("Nouveau " + i, "inscrit" + i + "@example.com",
+                        PASSWORD, null, null);
+                String clientIp = "10.0.1." + i;
+                registrations.add(clients.submit(() -> authService.registerUser(request, clientIp)));
+            }
+
+            for (Future<AuthResponse> registration : registrations) {
+                assertThat(registration.get(30, TimeUnit.SECONDS).getToken()).isNotBlank();
+            }
+        } finally {
+            clients.shutdownNow();
+        }
+        assertThat(userRepository.existsByEmail("inscrit0@example.com")).isTrue();
+    }
+
+    @Test
+    void duplicateEmailIsRejectedBeforeHashing() {
+        RegisterRequest request = new RegisterRequest("Doublon", "doublon@example.com", PASSWORD, null, null);
+        authService.registerUser(request, "10.0.2.1");
+        long hashes = registerHashes();
+
+        assertThatThrownBy(() -> authService.registerUser(request, "10.0.2.2"))
+                .hasMessageContaining("Un compte avec cet email existe déjà");
+        assertThat(registerHashes()).isEqualTo(hashes);
+    }
+
+    private long registerHashes() {
+        return meterRegistry.timer("auth.hashing.duration", "operation", "register").count();
+    }
+}
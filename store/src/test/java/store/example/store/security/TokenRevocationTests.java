@@ -0,0 +1,123 @@
+package store.example.store.security;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import store.example.store.entity.User;
+import store.example.store.repository.UserRepository;
+import store.example.store.service.UserService;
+
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Vérifie la révocation des tokens JWT
+ *
+ * Un token révoqué (déconnexion, changement de rôle) doit être refusé dès la
+ * requête suivante, même s'il a déjà été vérifié et mis en cache.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class TokenRevocationTests {
+
+    private static final String EMAIL = "revocation@example.com";
+    private static final String PROMOTED_EMAIL = "promotion@example.com";
+    private static final String PASSWORD = "motdepasse";
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private PasswordEncoder passwordEncoder;
+
+    @Autowired
+    private TokenRevocationList tokenRevocationList;
+
+    @BeforeEach
+    void createUsers() {
+        for (String email : new String[] { EMAIL, PROMOTED_EMAIL }) {
+            if (!userRepository.existsByEmail(email)) {
+                userRepository.save(User.builder()
+                        .email(email)
+                        .name("Client")
+                        .password(passwordEncoder.encode(PASSWORD))
+                        .build());
+            }
+        }
+    }
+
+    @Test
+    void logoutRevokesTheToken() throws Exception {
+        String token = login(EMAIL);
+        String other = login(EMAIL);
+        mockMvc.perform(get("/api/cart/count").header("Authorization", "Bearer " + token))
+                .andExpect(status().isOk());
+
+        mockMvc.perform(post("/api/auth/logout").header("Authorization", "Bearer " + token))
+                .andExpect(status().isOk());
+
+        mockMvc.perform(get("/api/cart/count").header("Authorization", "Bearer " + token))
+                .andExpect(status().is4xxClientError());
+        // Les autres sessions de l'utilisateur restent valides
+        mockMvc.perform(get("/api/cart/count").header("Authorization", "Bearer " + other))
+                .andExpect(status().isOk());
+    }
+
+    @Test
+    void roleChangeRevokesExistingTokens() throws Exception {
+        String token = login(PROMOTED_EMAIL);
+        mockMvc.perform(get("/api/cart/count").header("Authorization", "Bearer " + token))
+                .andExpect(status().isOk());
+
+        userService.updateUserRole(userRepository.findByEmail(PROMOTED_EMAIL).orElseThrow().getId(), "MANAGER");
+
+        mockMvc.perform(get("/api/cart/count").header("Authorization", "Bearer " + token))
+                .andExpect(status().is4xxClientError());
+    }
+
+    @Test
+    void unrevokedTokensAreNeverReportedRevoked() {
+        tokenRevocationList.revokeToken("jti-révoqué", System.currentTimeMillis() + 60_000);
+
+        assertThat(tokenRevocationList.isRevoked("jti-révoqué", null, 0L)).isTrue();
+        long positives = 0;
+        for (int i = 0; i < 10_000; i++) {
+            if (tokenRevocationList.isRevoked("jti-" + i, null, 0L)) {
+                positives++;
+            }
+        }
+        assertThat(positives).isZero();
+    }
+
+    private String login(String email) throws Exception {
+        MvcResult result = mockMvc.perform(post("/api/auth/login")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(
+                                Map.of("email", email, "password", PASSWORD))))
+                .andExpect(status().isOk())
+                .andReturn();
+        return objectMapper.readTree(result.getResponse().getContentAsString()).get("token").asText();
+    }
+}
@@ -0,0 +1,66 @@
+package store.example.store.security;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import store.example.store.entity.User;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Vérifie la borne du cache des tokens vérifiés
+ *
+ * Une fois le cache plein, chaque nouveau token doit encore être mis en cache,
+ * en évinçant le token le moins récemment présenté.
+ */
+@SpringBootTest(properties = "jwt.cache.max-entries=4")
+@ActiveProfiles("test")
+class VerifiedTokenCacheTests {
+
+    @Autowired
+    private VerifiedTokenCache verifiedTokenCache;
+
+    @Autowired
+    private JwtTokenProvider tokenProvider;
+
+    @Test
+    void fullCacheStillCachesNewTokens() {
+        for (long id = 1; id <= 10; id++) {
+            assertThat(verifiedTokenCache.authenticate(newToken(id))).isNotNull();
+            assertThat(verifiedTokenCache.size()).isLessThanOrEqualTo(4);
+        }
+        long evictions = verifiedTokenCache.evictions();
+        assertThat(evictions).isPositive();
+
+        String token = newToken(11);
+        verifiedTokenCache.authenticate(token);
+        long afterInsert = verifiedTokenCache.evictions();
+        // Le token vient d'être mis en cache : le présenter de nouveau n'évince rien
+        assertThat(verifiedTokenCache.authenticate(token).getId()).isEqualTo(11L);
+        assertThat(verifiedTokenCache.evictions()).isEqualTo(afterInsert);
+    }
+
+    @Test
+    void leastRecentlyUsedEntryIsEvicted() {
+        SegmentedLruCache<String, Integer> cache = new SegmentedLruCache<>(2, 1);
+        cache.put("a", 1);
+        cache.put("b", 2);
+        cache.get("a");
+
+        cache.put("c", 3);
+
+        assertThat(cache.get("b")).isNull();
+        assertThat(cache.get("a")).isEqualTo(1);
+        assertThat(cache.get("c")).isEqualTo(3);
+        assertThat(cache.evictions()).isEqualTo(1);
+    }
+
+    private String newToken(long userId) {
+        return tokenProvider.generateToken(User.builder()
+                .id(userId)
+                .email("porteur" + userId + "@example.com")
+                .role(User.Role.USER)
+                .build());
+    }
+}
@@ -0,0 +1,131 @@
+package store.example.store.service;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.util.ReflectionTestUtils;
+import store.example.store.dto.request.CartItemRequest;
+import store.example.store.entity.Product;
+import store.example.store.repository.CartItemRepository;
+import store.example.store.repository.CartSummaryRepository;
+
+import java.time.LocalDateTime;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.AdditionalAnswers.delegatesTo;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+
+/**
+ * Vérifie le nettoyage des paniers abandonnés
+ *
+ * Seuls les paniers dont aucune ligne n'a été modifiée depuis la durée configurée
+ * doivent être supprimés, avec leur résumé, quel que soit le découpage en lots ;
+ * un panier modifié pendant le nettoyage est conservé en entier, et un lot en
+ * échec ne doit pas interrompre le nettoyage des suivants.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+class AbandonedCartSweeperTests extends CartTestSupport {
+
+    @Autowired
+    private AbandonedCartSweeper sweeper;
+
+    @Autowired
+    private CartSummaryRepository cartSummaryRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void sweepRemovesOnlyIdleCarts() {
+        Product first = createProduct("Gel douche");
+        Product second = createProduct("Dentifrice");
+        Long abandoned = createUser("abandon-1@example.com").getId();
+        Long otherAbandoned = createUser("abandon-2@example.com").getId();
+        Long active = createUser("abandon-actif@example.com").getId();
+
+        cartService.addToCart(abandoned, new CartItemRequest(first.getId(), 1));
+        cartService.addToCart(abandoned, new CartItemRequest(second.getId(), 2));
+        cartService.addToCart(otherAbandoned, new CartItemRequest(first.getId(), 1));
+        cartService.addToCart(active, new CartItemRequest(first.getId(), 1));
+        cartService.addToCart(active, new CartItemRequest(second.getId(), 1));
+        age(abandoned);
+        age(otherAbandoned);
+        age(active);
+        // Une ligne récente suffit à garder tout le panier
+        cartService.addToCart(active, new CartItemRequest(second.getId(), 1));
+
+        ReflectionTestUtils.setField(sweeper, "chunkSize", 1);
+        assertThat(sweeper.sweep()).isEqualTo(3);
+
+        assertThat(cartItemRepository.countByUserId(abandoned)).isZero();
+        assertThat(cartItemRepository.countByUserId(otherAbandoned)).isZero();
+        assertThat(cartSummaryRepository.findById(abandoned)).isEmpty();
+        assertThat(cartItemRepository.countByUserId(active)).isEqualTo(2);
+        assertThat(cartService.getCartSummary(abandoned).getTotalItems()).isZero();
+    }
+
+    @Test
+    void cartTouchedDuringTheSweepIsKeptWhole() {
+        Product first = createProduct("Lingettes");
+        Product second = createProduct("Coton-tiges");
+        Long userId = createUser("abandon-reprise@example.com").getId();
+        cartService.addToCart(userId, new CartItemRequest(first.getId(), 1));
+        age(userId);
+
+        CartItemRepository items = mock(CartItemRepository.class, delegatesTo(cartItemRepository));
+        doAnswer(invocation -> {
+            Object idle = cartItemRepository.findIdleUserIds(
+                    invocation.getArgument(0), invocation.getArgument(1), invocation.getArgument(2));
+            // Le client reprend son panier entre la recherche et la suppression
+            cartService.addToCart(userId, new CartItemRequest(second.getId(), 1));
+            return idle;
+        }).when(items).findIdleUserIds(any(), any(), any());
+        ReflectionTestUtils.setField(sweeper, "cartItemRepository", items);
+        try {
+            sweeper.sweep();
+        } finally {
+            ReflectionTestUtils.setField(sweeper, "cartItemRepository", cartItemRepository);
+        }
+
+        assertThat(cartItemRepository.countByUserId(userId)).isEqualTo(2);
+        assertThat(cartSummaryRepository.findById(userId)).isPresent();
+    }
+
+    @Test
+    void failedChunkDoesNotStopTheSweep() {
+        Product product = createProduct("Savon surgras");
+        Long failing = createUser("abandon-echec@example.com").getId();
+        Long next = createUser("abandon-suivant@example.com").getId();
+        cartService.addToCart(failing, new CartItemRequest(product.getId(), 1));
+        cartService.addToCart(next, new CartItemRequest(product.getId(), 1));
+        age(failing);
+        age(next);
+
+        CartSummaryRepository summaries = mock(CartSummaryRepository.class, delegatesTo(cartSummaryRepository));
+        doThrow(new IllegalStateException("Base indisponible"))
+                .when(summaries).deleteEmptyByUserIds(argThat(ids -> ids.contains(failing)));
+        ReflectionTestUtils.setField(sweeper, "chunkSize", 1);
+        ReflectionTestUtils.setField(sweeper, "cartSummaryRepository", summaries);
+        try {
+            sweeper.sweep();
+        } finally {
+            ReflectionTestUtils.setField(sweeper, "cartSummaryRepository", cartSummaryRepository);
+        }
+
+        // Le premier lot est annulé, le suivant est nettoyé
+        assertThat(cartItemRepository.countByUserId(failing)).isEqualTo(1);
+        assertThat(cartItemRepository.countByUserId(next)).isZero();
+    }
+
+    private void age(Long userId) {
+        LocalDateTime old = LocalDateTime.now().minusDays(60);
+        jdbcTemplate.update("UPDATE cart_items SET created_at = ?, updated_at = ? WHERE user_id = ?", old, old, userId);
+    }
+}
@@ -0,0 +1,102 @@
+package store.example.store.service;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import store.example.store.dto.request.CartItemRequest;
+import store.example.store.entity.Product;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Banc de charge de l'ajout au panier sur un produit très demandé
+ *
+ * Des clients concurrents ajoutent tous le même produit, chacun dans son panier
+ * puis tous dans le même panier (tapotements répétés). Affiche le débit, les ajouts
+ * refusés sur erreur et l'état final du panier partagé. Désactivé par défaut :
+ * mvn test -Dtest=CartAddThroughputBenchmarkTests -Dbenchmark=true
+ */
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+@SpringBootTest
+@ActiveProfiles("test")
+class CartAddThroughputBenchmarkTests extends CartTestSupport {
+
+    private static final int CLIENTS = 8;
+    private static final int ADDS_PER_CLIENT = 1000;
+
+    private int nextUser;
+
+    @Test
+    void reportHotProductAddThroughput() throws Exception {
+        Product product = createProduct("Produit vedette", "7.90", Integer.MAX_VALUE, true);
+
+        // Préchauffage
+        run(product, newUsers(CLIENTS));
+
+        System.out.println("paniers  | ajouts/s | erreurs | lignes | quantité");
+        for (int round = 0; round < 2; round++) {
+            List<Long> users = newUsers(CLIENTS);
+            report("distincts", product, users);
+
+            Long shared = newUsers(1).get(0);
+            report("partagé", product, Collections.nCopies(CLIENTS, shared));
+        }
+    }
+
+    private void report(String label, Product product, List<Long> users) throws Exception {
+        long start = System.nanoTime();
+        int errors = run(product, users);
+        double seconds = (System.nanoTime() - start) / 1e9;
+        long lines = 0;
+        int quantity = 0;
+        for (Long userId : users.stream().distinct().toList()) {
+            lines += cartItemRepository.countByUserId(userId);
+            quantity += cartItemRepository.getTotalQuantityByUserId(userId);
+        }
+        System.out.printf("%-8s | %8.0f | %7d | %6d | %8d%n", label,
+                CLIENTS * ADDS_PER_CLIENT / seconds, errors, lines, quantity);
+    }
+
+    /**
+     * Exécute la charge et renvoie le nombre d'ajouts en erreur
+     */
+    private int run(Product product, List<Long> users) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(CLIENTS);
+        AtomicInteger errors = new AtomicInteger();
+        try {
+            List<Future<?>> clients = new ArrayList<>();
+            for (Long userId : users) {
+                clients.add(executor.submit(() -> {
+                    for (int i = 0; i < ADDS_PER_CLIENT; i++) {
+                        try {
+                            cartService.addToCart(userId, new CartItemRequest(product.getId(), 1));
+                        } catch (RuntimeException e) {
+                            errors.incrementAndGet();
+                        }
+                    }
+                }));
+            }
+            for (Future<?> future : clients) {
+                future.get();
+            }
+            return errors.get();
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    private List<Long> newUsers(int count) {
+        List<Long> users = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            users.add(createUser("vedette" + nextUser++ + "@example.com").getId());
+        }
+        return users;
+    }
+}
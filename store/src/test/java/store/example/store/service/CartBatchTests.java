@@ -0,0 +1,137 @@
+package store.example.store.service;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import store.example.store.dto.reponse.CartBatchResponse;
+import store.example.store.dto.request.CartBatchRequest;
+import store.example.store.dto.request.CartItemRequest;
+import store.example.store.entity.CartItem;
+import store.example.store.entity.Product;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static store.example.store.dto.request.CartBatchRequest.OperationType.ADD;
+import static store.example.store.dto.request.CartBatchRequest.OperationType.REMOVE;
+import static store.example.store.dto.request.CartBatchRequest.OperationType.UPDATE;
+
+/**
+ * Vérifie la modification du panier par lot
+ *
+ * Les opérations s'appliquent dans l'ordre : une ligne supprimée puis rajoutée
+ * garde sa ligne en base, une ligne créée puis supprimée n'est jamais écrite, et
+ * une opération refusée n'empêche pas l'application des autres.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+class CartBatchTests extends CartTestSupport {
+
+    @Test
+    void lineRemovedThenAddedBackKeepsItsRow() {
+        Long userId = createUser("lot-reprise@example.com").getId();
+        Product product = createProduct("Lait corps");
+        Long lineId = cartService.addToCart(userId, new CartItemRequest(product.getId(), 1)).getItem().getId();
+
+        CartBatchResponse response = applyBatch(userId,
+                new CartBatchRequest.Operation(REMOVE, product.getId(), null),
+                new CartBatchRequest.Operation(ADD, product.getId(), 2));
+
+        assertThat(response.getFailed()).isZero();
+        assertThat(cartItemRepository.findByUserIdAndProductId(userId, product.getId()))
+                .hasValueSatisfying(cartItem -> {
+                    assertThat(cartItem.getId()).isEqualTo(lineId);
+                    assertThat(cartItem.getQuantity()).isEqualTo(2);
+                });
+        assertThat(cartItemRepository.countByUserId(userId)).isEqualTo(1);
+    }
+
+    @Test
+    void lineCreatedThenRemovedIsNeverWritten() {
+        Long userId = createUser("lot-annulation@example.com").getId();
+        Product cancelled = createProduct("Gommage");
+        Product kept = createProduct("Masque");
+
+        // Deux lignes créées dans le lot, sans ID : seule celle visée est retirée
+        CartBatchResponse response = applyBatch(userId,
+                new CartBatchRequest.Operation(ADD, cancelled.getId(), 1),
+                new CartBatchRequest.Operation(ADD, kept.getId(), 2),
+                new CartBatchRequest.Operation(REMOVE, cancelled.getId(), null));
+
+        assertThat(response.getFailed()).isZero();
+        assertThat(response.getCart().getTotalItems()).isEqualTo(1);
+        List<CartItem> rows = cartItemRepository.findByUserId(userId);
+        assertThat(rows).hasSize(1);
+        assertThat(rows.get(0).getProduct().getId()).isEqualTo(kept.getId());
+        assertThat(rows.get(0).getQuantity()).isEqualTo(2);
+    }
+
+    @Test
+    void refusedOperationsDoNotStopTheBatch() {
+        Long userId = createUser("lot-refus@example.com").getId();
+        Product product = createProduct("Crème mains");
+        Product other = createProduct("Baume pieds");
+
+        CartBatchResponse response = applyBatch(userId,
+                new CartBatchRequest.Operation(ADD, product.getId(), 1),
+                null,
+                new CartBatchRequest.Operation(null, product.getId(), 1),
+                new CartBatchRequest.Operation(ADD, null, 1),
+                new CartBatchRequest.Operation(ADD, -1L, 1),
+                new CartBatchRequest.Operation(UPDATE, product.getId(), 0),
+                new CartBatchRequest.Operation(REMOVE, other.getId(), null),
+                new CartBatchRequest.Operation(ADD, other.getId(), 101),
+                new CartBatchRequest.Operation(UPDATE, product.getId(), 3));
+
+        assertThat(response.getResults()).extracting(CartBatchResponse.OperationResult::getIndex)
+                .containsExactly(0, 1, 2, 3, 4, 5, 6, 7, 8);
+        assertThat(response.getResults()).extracting(CartBatchResponse.OperationResult::getError)
+                .containsExactly(
+                        null,
+                        "Le type d'opération est obligatoire",
+                        "Le type d'opération est obligatoire",
+                        "L'ID du produit est obligatoire",
+                        "Produit non trouvé avec l'ID : -1",
+                        "La quantité doit être au minimum 1",
+                        "Ce produit n'est pas dans le panier",
+                        "Stock insuffisant pour le produit Baume pieds",
+                        null);
+        assertThat(response.getResults().get(1).getProductId()).isNull();
+        assertThat(response.getFailed()).isEqualTo(7);
+
+        assertThat(response.getCart().getTotalItems()).isEqualTo(1);
+        assertThat(response.getCart().getTotalQuantity()).isEqualTo(3);
+        assertThat(cartItemRepository.countByUserId(userId)).isEqualTo(1);
+    }
+
+    @Test
+    void batchSizeIsBounded() {
+        Long userId = createUser("lot-taille@example.com").getId();
+        Product product = createProduct("Eau thermale");
+        CartBatchRequest.Operation add = new CartBatchRequest.Operation(ADD, product.getId(), 1);
+
+        assertThat(cartService.applyBatch(userId, new CartBatchRequest(Collections.nCopies(100, add))).getFailed())
+                .isZero();
+        assertThat(cartService.getCart(userId).getTotalQuantity()).isEqualTo(100);
+
+        List<CartBatchRequest.Operation> tooMany = new ArrayList<>(Collections.nCopies(101, add));
+        assertThatThrownBy(() -> cartService.applyBatch(userId, new CartBatchRequest(tooMany)))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessage("Trop d'opérations (maximum 100)");
+        assertThatThrownBy(() -> cartService.applyBatch(userId, new CartBatchRequest(List.of())))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessage("La liste des opérations est obligatoire");
+        assertThatThrownBy(() -> cartService.applyBatch(userId, new CartBatchRequest(null)))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessage("La liste des opérations est obligatoire");
+        assertThat(cartService.getCart(userId).getTotalQuantity()).isEqualTo(100);
+    }
+
+    private CartBatchResponse applyBatch(Long userId, CartBatchRequest.Operation... operations) {
+        return cartService.applyBatch(userId, new CartBatchRequest(Arrays.asList(operations)));
+    }
+}
@@ -0,0 +1,61 @@
+package store.example.store.service;
+
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.support.TransactionTemplate;
+import store.example.store.entity.CartItem;
+import store.example.store.entity.Product;
+import store.example.store.entity.User;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Vérifie le nombre de requêtes SQL des lectures du panier
+ *
+ * La lecture du panier, sa validation et sa préparation pour une commande
+ * doivent coûter une seule requête, quel que soit le nombre d'articles.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+class CartQueryCountTests extends CartTestSupport {
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Test
+    void cartReadsDoNotDependOnTheNumberOfLines() {
+        Long smallCart = createCart("panier-court@example.com", 1);
+        Long largeCart = createCart("panier-long@example.com", 30);
+
+        for (Long userId : new Long[] { smallCart, largeCart }) {
+            Statistics statistics = clearedStatistics();
+            cartService.getCart(userId);
+            assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+
+            statistics.clear();
+            assertThat(cartService.isCartValid(userId)).isTrue();
+            assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+
+            statistics.clear();
+            List<CartItem> cartItems = cartService.getCartItemsForOrder(userId);
+            cartItems.forEach(cartItem -> cartItem.getProduct().getName());
+            assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+        }
+    }
+
+    private Long createCart(String email, int lines) {
+        return transactionTemplate.execute(status -> {
+            User user = createUser(email);
+            for (int i = 0; i < lines; i++) {
+                Product product = createProduct("Produit " + i);
+                cartItemRepository.save(CartItem.builder().user(user).product(product).quantity(1).build());
+            }
+            return user.getId();
+        });
+    }
+}
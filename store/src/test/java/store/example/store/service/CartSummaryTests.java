@@ -0,0 +1,182 @@
+package store.example.store.service;
+
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import store.example.store.dto.reponse.CartResponse;
+import store.example.store.dto.reponse.CartSummaryResponse;
+import store.example.store.dto.request.CartBatchRequest;
+import store.example.store.dto.request.CartItemRequest;
+import store.example.store.entity.CartSummary;
+import store.example.store.entity.Product;
+import store.example.store.repository.CartSummaryRepository;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Vérifie que le résumé dénormalisé du panier suit ses modifications
+ *
+ * Après chaque modification, le résumé doit correspondre aux totaux du panier
+ * complet ; il doit être lu en une seule requête, sans écriture, suivre les
+ * changements de prix (mais pas de stock) et ne perdre aucune ligne lorsque des
+ * modifications du même panier sont simultanées.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+class CartSummaryTests extends CartTestSupport {
+
+    @Autowired
+    private ProductService productService;
+
+    @Autowired
+    private CartSummaryRepository cartSummaryRepository;
+
+    @Autowired
+    private CatalogPriceVersion catalogPriceVersion;
+
+    @Test
+    void summaryFollowsCartMutations() {
+        Long userId = createUser("summary@example.com").getId();
+        Product first = createProduct("Baume", "4.50");
+        Product second = createProduct("Shampooing", "12.00");
+
+        cartService.addToCart(userId, new CartItemRequest(first.getId(), 2));
+        assertMatchesCart(userId);
+        Long secondItemId = cartService.addToCart(userId, new CartItemRequest(second.getId(), 1)).getItem().getId();
+        cartService.addToCart(userId, new CartItemRequest(second.getId(), 2));
+        assertMatchesCart(userId);
+        cartService.updateCartItem(userId, secondItemId, 1);
+        assertMatchesCart(userId);
+        cartService.removeFromCart(userId, secondItemId);
+        assertMatchesCart(userId);
+        cartService.applyBatch(userId, new CartBatchRequest(List.of(
+                new CartBatchRequest.Operation(CartBatchRequest.OperationType.ADD, second.getId(), 3),
+                new CartBatchRequest.Operation(CartBatchRequest.OperationType.UPDATE, first.getId(), 1))));
+        assertMatchesCart(userId);
+
+        Statistics statistics = clearedStatistics();
+        CartSummaryResponse summary = cartService.getCartSummary(userId);
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+        assertThat(summary.getTotalAmount()).isEqualByComparingTo("40.50");
+
+        cartService.clearCart(userId);
+        assertThat(cartService.getCartSummary(userId).getTotalQuantity()).isZero();
+    }
+
+    @Test
+    void priceChangeRefreshesTheAmount() {
+        Long userId = createUser("summary-price@example.com").getId();
+        Product product = createProduct("Crème solaire", "10.00");
+        cartService.addToCart(userId, new CartItemRequest(product.getId(), 3));
+
+        productService.updateProduct(product.getId(), null, null, new BigDecimal("8.00"), null, null, null, null);
+
+        // Montant recalculé à partir des lignes, sans réécrire le résumé
+        Statistics statistics = clearedStatistics();
+        assertThat(cartService.getCartSummary(userId).getTotalAmount()).isEqualByComparingTo("24.00");
+        assertThat(statistics.getEntityUpdateCount()).isZero();
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(2);
+        assertMatchesCart(userId);
+
+        // La modification suivante recalcule le résumé
+        cartService.addToCart(userId, new CartItemRequest(product.getId(), 1));
+        assertSummaryRowMatchesCart(userId, 1);
+    }
+
+    @Test
+    void stockChangesDoNotInvalidateTheSummary() {
+        Long userId = createUser("summary-stock@example.com").getId();
+        Product product = createProduct("Huile sèche", "15.00");
+        cartService.addToCart(userId, new CartItemRequest(product.getId(), 2));
+
+        productService.reduceStock(product.getId(), 5);
+        productService.updateProduct(product.getId(), null, null, null, null, null, 40, null);
+
+        Statistics statistics = clearedStatistics();
+        assertThat(cartService.getCartSummary(userId).getTotalAmount()).isEqualByComparingTo("30.00");
+        assertThat(cartService.getCartItemCount(userId)).isEqualTo(1);
+        assertThat(cartService.getTotalQuantity(userId)).isEqualTo(2);
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(3);
+        assertSummaryRowMatchesCart(userId, 1);
+    }
+
+    @Test
+    void concurrentFirstMutationsCreateASingleSummary() throws Exception {
+        Long userId = createUser("summary-first@example.com").getId();
+
+        addConcurrently(userId, 6);
+
+        assertSummaryRowMatchesCart(userId, 6);
+    }
+
+    @Test
+    void concurrentMutationsOnAStaleSummaryKeepEveryLine() throws Exception {
+        Long userId = createUser("summary-stale@example.com").getId();
+        Product product = createProduct("Gel douche", "5.00");
+        cartService.addToCart(userId, new CartItemRequest(product.getId(), 1));
+        productService.updateProduct(product.getId(), null, null, new BigDecimal("6.00"), null, null, null, null);
+
+        addConcurrently(userId, 6);
+
+        assertSummaryRowMatchesCart(userId, 7);
+    }
+
+    /**
+     * Ajoute simultanément un produit différent par thread au panier d'un utilisateur
+     */
+    private void addConcurrently(Long userId, int threads) throws Exception {
+        List<Product> products = new ArrayList<>();
+        for (int i = 0; i < threads; i++) {
+            products.add(createProduct("Produit simultané " + i, "2.00"));
+        }
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            List<Future<?>> additions = new ArrayList<>();
+            for (Product product : products) {
+                additions.add(executor.submit(() -> {
+                    start.await();
+                    return cartService.addToCart(userId, new CartItemRequest(product.getId(), 1));
+                }));
+            }
+            start.countDown();
+            for (Future<?> addition : additions) {
+                addition.get(30, TimeUnit.SECONDS);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * Vérifie le résumé stocké lui-même, et non les totaux renvoyés par la lecture
+     */
+    private void assertSummaryRowMatchesCart(Long userId, int expectedLines) {
+        CartResponse cart = cartService.getCart(userId);
+        CartSummary summary = cartSummaryRepository.findById(userId).orElseThrow();
+        assertThat(cart.getTotalItems()).isEqualTo(expectedLines);
+        assertThat(summary.getPriceVersion()).isEqualTo(catalogPriceVersion.current());
+        assertThat(summary.getLineCount()).isEqualTo(cart.getTotalItems());
+        assertThat(summary.getTotalQuantity()).isEqualTo(cart.getTotalQuantity());
+        assertThat(summary.getTotalAmount()).isEqualByComparingTo(cart.getTotalAmount());
+    }
+
+    private void assertMatchesCart(Long userId) {
+        CartResponse cart = cartService.getCart(userId);
+        CartSummaryResponse summary = cartService.getCartSummary(userId);
+        assertThat(summary.getTotalItems()).isEqualTo(cart.getTotalItems());
+        assertThat(summary.getTotalQuantity()).isEqualTo(cart.getTotalQuantity());
+        assertThat(summary.getTotalAmount()).isEqualByComparingTo(cart.getTotalAmount());
+    }
+}
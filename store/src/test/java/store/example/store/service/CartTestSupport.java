@@ -0,0 +1,96 @@
+package store.example.store.service;
+
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.springframework.beans.factory.annotation.Autowired;
+import store.example.store.entity.Product;
+import store.example.store.entity.User;
+import store.example.store.repository.CartItemRepository;
+import store.example.store.repository.ProductRepository;
+import store.example.store.repository.UserRepository;
+
+import java.math.BigDecimal;
+
+/**
+ * Socle commun des tests du panier
+ *
+ * Fournit les services et dépôts utilisés par ces tests, la création des
+ * utilisateurs et produits de test, et le comptage des requêtes SQL (statistiques
+ * Hibernate, activées par le profil test). Chaque sous-classe déclare son propre
+ * contexte (@SpringBootTest, profils).
+ */
+abstract class CartTestSupport {
+
+    @Autowired
+    protected CartService cartService;
+
+    @Autowired
+    protected CartItemRepository cartItemRepository;
+
+    @Autowired
+    protected ProductRepository productRepository;
+
+    @Autowired
+    protected UserRepository userRepository;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    /**
+     * Récupère ou crée un utilisateur
+     *
+     * @param email Email, unique par test
+     * @return L'utilisateur enregistré
+     */
+    protected User createUser(String email) {
+        return userRepository.findByEmail(email)
+                .orElseGet(() -> userRepository.save(User.builder()
+                        .email(email)
+                        .name("Client")
+                        .password("x")
+                        .build()));
+    }
+
+    /**
+     * Crée un produit disponible à 10 €, avec 100 unités en stock
+     */
+    protected Product createProduct(String name) {
+        return createProduct(name, "10", 100, true);
+    }
+
+    /**
+     * Crée un produit disponible, avec 100 unités en stock
+     */
+    protected Product createProduct(String name, String price) {
+        return createProduct(name, price, 100, true);
+    }
+
+    /**
+     * Crée un produit de la catégorie Soins
+     *
+     * @param name      Nom
+     * @param price     Prix unitaire
+     * @param stock     Quantité en stock
+     * @param available Disponibilité
+     * @return Le produit enregistré
+     */
+    protected Product createProduct(String name, String price, int stock, boolean available) {
+        return productRepository.save(Product.builder()
+                .name(name)
+                .price(new BigDecimal(price))
+                .category("Soins")
+                .available(available)
+                .stockQuantity(stock)
+                .build());
+    }
+
+    /**
+     * Statistiques Hibernate remises à zéro, pour compter les requêtes qui suivent
+     */
+    protected Statistics clearedStatistics() {
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+        return statistics;
+    }
+}
@@ -0,0 +1,54 @@
+package store.example.store.service;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.support.TransactionTemplate;
+import store.example.store.entity.Product;
+import store.example.store.entity.User;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Vérifie la requête d'upsert MySQL (INSERT ... ON DUPLICATE KEY UPDATE)
+ *
+ * Exécutée sur H2 en mode de compatibilité MySQL (profil mysql) : la ligne est
+ * créée puis incrémentée dans la limite du stock, et rien n'est écrit pour un
+ * produit indisponible.
+ */
+@SpringBootTest
+@ActiveProfiles({"test", "mysql"})
+class CartUpsertMySqlModeTests extends CartTestSupport {
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Test
+    void upsertCreatesThenIncrementsWithinStock() {
+        User user = createUser("upsert-mysql@example.com");
+        Product product = createProduct("Sérum", "9.90", 5, true);
+
+        assertThat(upsert(user, product, 2)).isPositive();
+        assertThat(upsert(user, product, 3)).isPositive();
+        assertThat(upsert(user, product, 1)).isZero();
+
+        assertThat(cartItemRepository.findByUserIdAndProductId(user.getId(), product.getId()))
+                .hasValueSatisfying(cartItem -> assertThat(cartItem.getQuantity()).isEqualTo(5));
+        assertThat(cartItemRepository.countByUserId(user.getId())).isEqualTo(1);
+    }
+
+    @Test
+    void upsertIgnoresUnavailableProducts() {
+        User user = createUser("upsert-mysql-indisponible@example.com");
+        Product product = createProduct("Sérum", "9.90", 5, false);
+
+        assertThat(upsert(user, product, 1)).isZero();
+        assertThat(cartItemRepository.countByUserId(user.getId())).isZero();
+    }
+
+    private int upsert(User user, Product product, int quantity) {
+        return transactionTemplate.execute(status ->
+                cartItemRepository.upsertQuantity(user.getId(), product.getId(), quantity));
+    }
+}
@@ -0,0 +1,61 @@
+package store.example.store.service;
+
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.test.context.ActiveProfiles;
+import store.example.store.dto.reponse.CartDeltaResponse;
+import store.example.store.dto.request.CartItemRequest;
+import store.example.store.entity.CartItem;
+import store.example.store.entity.Product;
+import store.example.store.entity.User;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Vérifie l'ajout au panier par upsert
+ *
+ * Un produit ne doit avoir qu'une ligne par panier, dont la quantité est
+ * incrémentée dans la limite du stock, sans lecture préalable de la ligne.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+class CartUpsertTests extends CartTestSupport {
+
+    @Test
+    void addIncrementsASingleLineWithinStock() {
+        User user = createUser("upsert@example.com");
+        Product product = createProduct("Sérum", "9.90", 5, true);
+
+        CartDeltaResponse first = cartService.addToCart(user.getId(), new CartItemRequest(product.getId(), 2));
+        assertThat(first.getTotalItems()).isEqualTo(1);
+
+        Statistics statistics = clearedStatistics();
+        CartDeltaResponse second = cartService.addToCart(user.getId(), new CartItemRequest(product.getId(), 3));
+        // Verrou du résumé, upsert, relecture de la ligne, version des prix, incrément
+        // et lecture du résumé
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(6);
+        assertThat(second.getItem().getId()).isEqualTo(first.getItem().getId());
+        assertThat(second.getItem().getQuantity()).isEqualTo(5);
+        assertThat(second.getTotalItems()).isEqualTo(1);
+        assertThat(second.getTotalQuantity()).isEqualTo(5);
+
+        assertThatThrownBy(() -> cartService.addToCart(user.getId(), new CartItemRequest(product.getId(), 1)))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessage("Stock insuffisant pour la quantité demandée");
+        assertThat(cartService.getCart(user.getId()).getTotalQuantity()).isEqualTo(5);
+    }
+
+    @Test
+    void databaseRejectsDuplicateLines() {
+        User user = createUser("upsert-doublon@example.com");
+        Product product = createProduct("Sérum", "9.90", 10, true);
+        cartService.addToCart(user.getId(), new CartItemRequest(product.getId(), 1));
+
+        assertThatThrownBy(() -> cartItemRepository.save(
+                CartItem.builder().user(user).product(product).quantity(1).build()))
+                .isInstanceOf(DataIntegrityViolationException.class);
+    }
+}
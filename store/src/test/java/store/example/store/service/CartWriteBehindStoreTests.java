@@ -0,0 +1,99 @@
+package store.example.store.service;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import store.example.store.dto.reponse.OrderResponse;
+import store.example.store.dto.request.CartItemRequest;
+import store.example.store.dto.request.OrderRequest;
+import store.example.store.entity.CartItem;
+import store.example.store.entity.Product;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Vérifie le stockage des paniers en mémoire avec écriture différée
+ *
+ * L'écriture périodique est désactivée (intervalle d'une heure) : les tests
+ * déclenchent eux-mêmes l'écriture pour observer l'état de la base.
+ */
+@SpringBootTest(properties = {
+        "cart.write-behind.enabled=true",
+        "cart.write-behind.flush-interval-ms=3600000" })
+@ActiveProfiles("test")
+class CartWriteBehindStoreTests extends CartTestSupport {
+
+    @Autowired
+    private OrderService orderService;
+
+    @Autowired
+    private CartWriteBehindStore cartStore;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void changesReachTheDatabaseOnlyWhenFlushed() {
+        Long userId = createUser("write-behind@example.com").getId();
+        Product first = createProduct("Crème hydratante");
+        Product second = createProduct("Gel douche");
+
+        cartService.addToCart(userId, new CartItemRequest(first.getId(), 2));
+        cartService.addToCart(userId, new CartItemRequest(second.getId(), 1));
+
+        assertThat(cartItemRepository.findByUserId(userId)).isEmpty();
+        assertThat(cartService.getCart(userId).getTotalQuantity()).isEqualTo(3);
+
+        cartStore.flushDirty();
+        assertThat(cartItemRepository.findByUserId(userId)).hasSize(2);
+
+        cartService.updateCartItem(userId, first.getId(), 5);
+        cartService.removeFromCart(userId, second.getId());
+        cartStore.flushDirty();
+
+        List<CartItem> rows = cartItemRepository.findByUserId(userId);
+        assertThat(rows).hasSize(1);
+        assertThat(rows.get(0).getQuantity()).isEqualTo(5);
+    }
+
+    @Test
+    void checkoutOrdersTheInMemoryCart() {
+        Long userId = createUser("write-behind-order@example.com").getId();
+        Product product = createProduct("Sérum");
+
+        cartService.addToCart(userId, new CartItemRequest(product.getId(), 3));
+        OrderRequest request = new OrderRequest();
+        request.setShippingAddress("1 rue de la Paix, Paris");
+        request.setPhone("0601020304");
+        OrderResponse order = orderService.createOrder(userId, request);
+
+        assertThat(order.getTotalAmount()).isEqualByComparingTo("30");
+        assertThat(cartService.getCart(userId).getItems()).isEmpty();
+        cartStore.flushDirty();
+        assertThat(cartItemRepository.findByUserId(userId)).isEmpty();
+    }
+
+    @Test
+    void cartLoadedDuringASweepIsRewritten() {
+        Long userId = createUser("write-behind-sweep@example.com").getId();
+        Product product = createProduct("Baume lèvres");
+        jdbcTemplate.update("INSERT INTO cart_items (user_id, product_id, quantity, created_at, updated_at) "
+                + "VALUES (?, ?, 2, CURRENT_TIMESTAMP, CURRENT_TIMESTAMP)", userId, product.getId());
+
+        cartStore.sweep(() -> {
+            assertThat(cartStore.contains(userId)).isFalse();
+            // Requête concurrente : le panier est lu en base juste avant sa suppression
+            assertThat(cartService.getCart(userId).getTotalQuantity()).isEqualTo(2);
+            return jdbcTemplate.update("DELETE FROM cart_items WHERE user_id = ?", userId);
+        });
+
+        cartStore.flushDirty();
+        List<CartItem> rows = cartItemRepository.findByUserId(userId);
+        assertThat(rows).hasSize(1);
+        assertThat(rows.get(0).getQuantity()).isEqualTo(2);
+    }
+}
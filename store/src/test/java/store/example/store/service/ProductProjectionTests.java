@@ -0,0 +1,105 @@
+package store.example.store.service;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import store.example.store.dto.reponse.ProductPageResponse;
+import store.example.store.dto.reponse.ProductResponse;
+import store.example.store.dto.reponse.ProductSummaryResponse;
+import store.example.store.entity.Product;
+import store.example.store.repository.ProductRepository;
+
+import java.math.BigDecimal;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Objects;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Vérifie les listes de produits construites par projection
+ *
+ * Les expressions constructeur passent les colonnes par position : chaque champ
+ * de la réponse doit contenir la colonne correspondante, comme la conversion
+ * depuis l'entité (ProductResponse.fromEntity). Les valeurs de test sont toutes
+ * distinctes pour qu'une inversion d'arguments de même type soit détectée.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+class ProductProjectionTests {
+
+    private static final String CATEGORY = "Projection";
+
+    @Autowired
+    private ProductService productService;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Test
+    void projectionsFillEveryField() {
+        ProductResponse inStock = save("Fluide apaisant", "Peaux réactives", "https://img/fluide.png", 3);
+        ProductResponse outOfStock = save("Stick solaire", "Très haute protection", "https://img/stick.png", 0);
+
+        assertSameFields(productService.getProductsByCategory(CATEGORY), inStock, outOfStock);
+        assertSameFields(only(productService.getAllAvailableProducts(), inStock, outOfStock), inStock, outOfStock);
+        // Requêtes de secours de la liste de surveillance des stocks
+        assertSameFields(only(productRepository.findProductsWithLowStock(5), inStock, outOfStock), inStock, outOfStock);
+        assertSameFields(only(productRepository.findOutOfStockProducts(), inStock, outOfStock), outOfStock);
+
+        ProductSummaryResponse summary = findInPages(inStock.getId());
+        assertThat(summary).usingRecursiveComparison()
+                .withComparatorForType(BigDecimal::compareTo, BigDecimal.class)
+                .ignoringFields("description", "inStock")
+                .isEqualTo(inStock);
+        assertThat(summary.isInStock()).isTrue();
+    }
+
+    /**
+     * Enregistre un produit de la catégorie de test et renvoie sa conversion depuis l'entité relue
+     */
+    private ProductResponse save(String name, String description, String imageUrl, int stock) {
+        Product product = productRepository.save(Product.builder()
+                .name(name)
+                .description(description)
+                .price(new BigDecimal("17.45"))
+                .category(CATEGORY)
+                .imageUrl(imageUrl)
+                .available(true)
+                .stockQuantity(stock)
+                .build());
+        return ProductResponse.fromEntity(productRepository.findById(product.getId()).orElseThrow());
+    }
+
+    private void assertSameFields(List<ProductResponse> actual, ProductResponse... expected) {
+        assertThat(actual.stream().sorted(Comparator.comparing(ProductResponse::getId)).toList())
+                .usingRecursiveFieldByFieldElementComparator()
+                .containsExactly(expected);
+    }
+
+    /**
+     * Ne garde que les produits de ce test (la base est partagée par les autres tests)
+     */
+    private static List<ProductResponse> only(List<ProductResponse> products, ProductResponse... kept) {
+        List<Long> ids = List.of(kept).stream().map(ProductResponse::getId).toList();
+        return products.stream().filter(product -> ids.contains(product.getId())).toList();
+    }
+
+    /**
+     * Parcourt les pages du catalogue jusqu'au produit recherché
+     */
+    private ProductSummaryResponse findInPages(Long id) {
+        String cursor = null;
+        do {
+            ProductPageResponse page = productService.getAvailableProductsPage(cursor, null, null);
+            for (ProductSummaryResponse item : page.getItems()) {
+                if (Objects.equals(item.getId(), id)) {
+                    return item;
+                }
+            }
+            cursor = page.getNextCursor();
+        } while (cursor != null);
+        throw new AssertionError("Produit " + id + " absent des pages du catalogue");
+    }
+}
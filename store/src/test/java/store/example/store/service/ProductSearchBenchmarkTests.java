@@ -0,0 +1,97 @@
+package store.example.store.service;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import store.example.store.entity.Product;
+import store.example.store.repository.ProductRepository;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.IntSupplier;
+
+/**
+ * Banc de mesure de la recherche de produits
+ *
+ * Compare, sur un catalogue généré de 100 000 produits (H2 en mémoire), la
+ * recherche approximative servie par l'index inversé et la recherche en base
+ * par LIKE sur le nom (findByNameContainingIgnoreCase). Chaque requête
+ * correspond à environ 10 % du catalogue. Désactivé par défaut :
+ * mvn test -Dtest=ProductSearchBenchmarkTests -Dbenchmark=true
+ */
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+@SpringBootTest(properties = "spring.datasource.url=jdbc:h2:mem:search-benchmark;DB_CLOSE_DELAY=-1")
+@ActiveProfiles("test")
+class ProductSearchBenchmarkTests {
+
+    private static final int PRODUCTS = 100_000;
+    private static final int ITERATIONS = 50;
+    private static final int LIMIT = 20;
+
+    private static final String[] NAMES = {
+            "Crème hydratante", "Sérum réparateur", "Lait solaire", "Gel douche", "Shampooing doux",
+            "Baume lèvres", "Huile sèche", "Eau micellaire", "Masque purifiant", "Déodorant minéral"
+    };
+
+    private static final String[] QUERIES = { "creme hydratante", "crme hydratnte", "serum reparateur" };
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private ProductSearchIndex productSearchIndex;
+
+    @Test
+    void reportSearchLatency() {
+        seedCatalog();
+        productSearchIndex.rebuild();
+
+        System.out.println("requête            | index approximatif         | findByNameContainingIgnoreCase");
+        for (String query : QUERIES) {
+            IntSupplier index = () -> productSearchIndex.search(query, LIMIT, true).size();
+            IntSupplier database = () -> productRepository.findByNameContainingIgnoreCaseAndAvailableTrue(query)
+                    .stream().limit(LIMIT).toList().size();
+            System.out.printf("%-18s | %8.1f ms, %4d résultats | %8.1f ms, %4d résultats%n", "\"" + query + "\"",
+                    averageMillis(index), index.getAsInt(), averageMillis(database), database.getAsInt());
+        }
+    }
+
+    /**
+     * Durée moyenne d'un appel, après préchauffage
+     */
+    private double averageMillis(IntSupplier search) {
+        for (int i = 0; i < ITERATIONS; i++) {
+            search.getAsInt();
+        }
+        long start = System.nanoTime();
+        for (int i = 0; i < ITERATIONS; i++) {
+            search.getAsInt();
+        }
+        return (System.nanoTime() - start) / 1e6 / ITERATIONS;
+    }
+
+    private void seedCatalog() {
+        if (productRepository.count() >= PRODUCTS) {
+            return;
+        }
+        List<Product> products = new ArrayList<>(1000);
+        for (int i = 0; i < PRODUCTS; i++) {
+            products.add(Product.builder()
+                    .name(NAMES[i % NAMES.length] + " gamme " + i / NAMES.length)
+                    .description("Produit de parapharmacie généré pour le banc de recherche")
+                    .price(BigDecimal.valueOf(5 + i % 40))
+                    .category("Catégorie " + i % 8)
+                    .available(true)
+                    .stockQuantity(100)
+                    .build());
+            if (products.size() == 1000) {
+                productRepository.saveAll(products);
+                products.clear();
+            }
+        }
+        productRepository.saveAll(products);
+    }
+}
@@ -0,0 +1,133 @@
+package store.example.store.service;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Window;
+import org.springframework.test.util.ReflectionTestUtils;
+import store.example.store.dto.reponse.ProductResponse;
+import store.example.store.entity.Product;
+import store.example.store.event.ProductChangedEvent;
+import store.example.store.repository.ProductRepository;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Vérifie l'index inversé de recherche des produits
+ *
+ * La recherche doit être insensible à la casse et aux accents, exiger tous les
+ * mots de la requête, traiter le dernier mot comme un préfixe sans tronquer ses
+ * expansions, et ne perdre aucune modification reçue pendant une reconstruction.
+ */
+class ProductSearchIndexTests {
+
+    private final ProductSearchIndex index = new ProductSearchIndex();
+
+    @Test
+    void searchIgnoresCaseAccentsAndPunctuation() {
+        index.onProductChanged(created(1L, "Crème hydratante", "Peaux sèches, très sèches", "Soins"));
+
+        assertThat(ids("CREME hydratante")).containsExactly(1L);
+        assertThat(ids("seches")).containsExactly(1L);
+        assertThat(ids("  très... SÈCHES!  ")).containsExactly(1L);
+        assertThat(ids("soins")).containsExactly(1L);
+    }
+
+    @Test
+    void everyWordOfTheQueryMustMatch() {
+        index.onProductChanged(created(1L, "Crème solaire", "Haute protection", "Solaires"));
+        index.onProductChanged(created(2L, "Crème hydratante", "Peaux sèches", "Soins"));
+        index.onProductChanged(created(3L, "Lait solaire", "Après-soleil", "Solaires"));
+
+        assertThat(ids("creme solaire")).containsExactly(1L);
+        assertThat(ids("creme")).containsExactlyInAnyOrder(1L, 2L);
+        assertThat(ids("creme shampooing")).isEmpty();
+    }
+
+    @Test
+    void onlyTheLastWordIsAPrefix() {
+        index.onProductChanged(created(1L, "Crème hydratante", null, "Soins"));
+
+        assertThat(ids("hydratante cre")).containsExactly(1L);
+        assertThat(ids("cre hydratante")).isEmpty();
+    }
+
+    @Test
+    void shortPrefixesAreNotTruncated() {
+        for (long id = 1; id <= 150; id++) {
+            index.onProductChanged(created(id, "Calendula" + id, null, "Soins"));
+        }
+
+        assertThat(index.search("c", 200)).hasSize(150);
+        assertThat(index.search("cal", 200)).hasSize(150);
+        // Seul le nombre de résultats est borné, après classement
+        assertThat(index.search("c", 10)).hasSize(10);
+    }
+
+    @Test
+    void deletedAndUnavailableProductsLeaveTheIndex() {
+        index.onProductChanged(created(1L, "Shampooing doux", null, "Cheveux"));
+        index.onProductChanged(created(2L, "Shampooing sec", null, "Cheveux"));
+
+        index.onProductChanged(ProductChangedEvent.deleted(1L));
+        ProductResponse unavailable = product(2L, "Shampooing sec", null, "Cheveux");
+        unavailable.setAvailable(false);
+        index.onProductChanged(ProductChangedEvent.updated(product(2L, "Shampooing sec", null, "Cheveux"), unavailable));
+
+        assertThat(ids("shampooing")).isEmpty();
+        assertThat(index.size()).isZero();
+    }
+
+    @Test
+    void changesReceivedDuringARebuildAreKept() {
+        ProductRepository productRepository = mock(ProductRepository.class);
+        ReflectionTestUtils.setField(index, "productRepository", productRepository);
+        Product stored = Product.builder()
+                .id(1L)
+                .name("Baume lèvres")
+                .category("Soins")
+                .price(BigDecimal.ONE)
+                .available(true)
+                .stockQuantity(10)
+                .build();
+        when(productRepository.findByAvailableTrue(any(ScrollPosition.class), any(Sort.class), any(Limit.class)))
+                .thenAnswer(invocation -> {
+                    // Modification validée pendant la lecture de la base
+                    index.onProductChanged(created(2L, "Baume corps", null, "Soins"));
+                    return Window.from(List.of(stored), position -> ScrollPosition.keyset());
+                });
+
+        index.rebuild();
+
+        assertThat(index.isReady()).isTrue();
+        assertThat(ids("baume")).containsExactlyInAnyOrder(1L, 2L);
+    }
+
+    private List<Long> ids(String query) {
+        return index.search(query, 50).stream().map(ProductResponse::getId).toList();
+    }
+
+    private static ProductChangedEvent created(Long id, String name, String description, String category) {
+        return ProductChangedEvent.created(product(id, name, description, category));
+    }
+
+    private static ProductResponse product(Long id, String name, String description, String category) {
+        return ProductResponse.builder()
+                .id(id)
+                .name(name)
+                .description(description)
+                .category(category)
+                .price(BigDecimal.TEN)
+                .available(true)
+                .stockQuantity(10)
+                .inStock(true)
+                .build();
+    }
+}
@@ -0,0 +1,56 @@
+package store.example.store.service;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Vérifie la normalisation des textes et la tolérance aux fautes de frappe
+ *
+ * Les accents, ligatures et majuscules ne doivent pas distinguer deux termes ;
+ * le nombre de fautes tolérées dépend de la longueur du terme, et les termes
+ * courts ne sont jamais approchés.
+ */
+class ProductTextAnalyzerTests {
+
+    @Test
+    void tokenizeFoldsCaseAccentsAndLigatures() {
+        assertThat(ProductTextAnalyzer.tokenize("Crème ÉCLAT, sœur & Æther — Straße"))
+                .containsExactly("creme", "eclat", "soeur", "aether", "strasse");
+        assertThat(ProductTextAnalyzer.tokenize("Après-soleil SPF50+")).containsExactly("apres", "soleil", "spf50");
+        assertThat(ProductTextAnalyzer.tokenize(null)).isEmpty();
+        assertThat(ProductTextAnalyzer.tokenize("  ... ")).isEmpty();
+    }
+
+    @Test
+    void shortTermsAreNeverFuzzed() {
+        assertThat(ProductTextAnalyzer.allowedTypos("gel")).isZero();
+        assertThat(ProductTextAnalyzer.allowedTypos("spf")).isZero();
+        assertThat(ProductTextAnalyzer.allowedTypos("lait")).isEqualTo(1);
+        assertThat(ProductTextAnalyzer.allowedTypos("shampoo")).isEqualTo(1);
+        assertThat(ProductTextAnalyzer.allowedTypos("hydratant")).isEqualTo(2);
+    }
+
+    @Test
+    void editDistanceCountsTyposUpToTheBound() {
+        assertThat(ProductTextAnalyzer.editDistance("creme", "creme", 1)).isZero();
+        // Suppression, insertion, substitution, transposition : une faute chacune
+        assertThat(ProductTextAnalyzer.editDistance("crme", "creme", 1)).isEqualTo(1);
+        assertThat(ProductTextAnalyzer.editDistance("creeme", "creme", 1)).isEqualTo(1);
+        assertThat(ProductTextAnalyzer.editDistance("crame", "creme", 1)).isEqualTo(1);
+        assertThat(ProductTextAnalyzer.editDistance("cerme", "creme", 1)).isEqualTo(1);
+
+        // Deux fautes : acceptées pour un terme long, au-delà de la borne sinon
+        assertThat(ProductTextAnalyzer.editDistance("hydratnte", "hydratante", 2)).isEqualTo(1);
+        assertThat(ProductTextAnalyzer.editDistance("hidratnte", "hydratante", 2)).isEqualTo(2);
+        assertThat(ProductTextAnalyzer.editDistance("hidratnt", "hydratante", 2)).isEqualTo(3);
+        assertThat(ProductTextAnalyzer.editDistance("crmm", "creme", 1)).isEqualTo(2);
+    }
+
+    @Test
+    void trigramsArePaddedAtBothEnds() {
+        assertThat(ProductTextAnalyzer.trigrams("gel")).containsExactly("$ge", "gel", "el$");
+        assertThat(ProductTextAnalyzer.trigrams("a")).containsExactly("$a$");
+        assertThat(ProductTextAnalyzer.trigrams("")).containsExactly("$$");
+    }
+}
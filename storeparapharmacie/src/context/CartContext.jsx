@@ -5,6 +5,32 @@ import { useAuth } from './AuthContext';
 
 const CartContext = createContext();
 
+// Applique au panier la réponse d'une modification (ligne modifiée + nouveaux totaux)
+const applyCartDelta = (currentCart, delta) => {
+  const items = [...(currentCart?.items || [])];
+  if (delta.removedItemId != null) {
+    const removedIndex = items.findIndex((item) => item.id === delta.removedItemId);
+    if (removedIndex !== -1) {
+      items.splice(removedIndex, 1);
+    }
+  }
+  if (delta.item) {
+    const index = items.findIndex((item) => item.id === delta.item.id);
+    if (index === -1) {
+      items.push(delta.item);
+    } else {
+      items[index] = delta.item;
+    }
+  }
+  return {
+    ...currentCart,
+    items,
+    totalItems: delta.totalItems,
+    totalQuantity: delta.totalQuantity,
+    totalAmount: delta.totalAmount,
+  };
+};
+
 export function CartProvider({ children }) {
   const [cart, setCart] = useState(null);
   const [loading, setLoading] = useState(false);
@@ -46,15 +72,12 @@ export function CartProvider({ children }) {
   const addToCart = async (productId, quantity = 1) => {
     try {
       setLoading(true);
-      const updatedCart = await cartService.addToCart(productId, quantity);
-      setCart(updatedCart);
-      
-      // Mettre à jour le compteur d'articles
-      const totalItems = updatedCart.items?.reduce((total, item) => total + item.quantity, 0) || 0;
-      setItemCount(totalItems);
+      const delta = await cartService.addToCart(productId, quantity);
+      setCart((currentCart) => applyCartDelta(currentCart, delta));
+      setItemCount(delta.totalQuantity);
       
       toast.success('Produit ajouté au panier !');
-      return updatedCart;
+      return delta;
     } catch (error) {
       const errorMessage = error.response?.data?.error || 'Erreur lors de l\'ajout au panier';
       toast.error(errorMessage);
@@ -64,19 +87,39 @@ export function CartProvider({ children }) {
     }
   };
 
+  // Fonction pour appliquer plusieurs opérations (commande à nouveau, liste enregistrée)
+  const applyBatch = async (operations) => {
+    try {
+      setLoading(true);
+      const batch = await cartService.applyBatch(operations);
+      setCart(batch.cart);
+      setItemCount(batch.cart.totalQuantity);
+
+      if (batch.failed > 0) {
+        toast.warning(`${batch.failed} opération(s) n'ont pas pu être appliquées`);
+      } else {
+        toast.success('Panier mis à jour !');
+      }
+      return batch;
+    } catch (error) {
+      const errorMessage = error.response?.data?.error || 'Erreur lors de la mise à jour du panier';
+      toast.error(errorMessage);
+      throw error;
+    } finally {
+      setLoading(false);
+    }
+  };
+
   // Fonction pour mettre à jour la quantité d'un article
   const updateCartItem = async (itemId, quantity) => {
     try {
       setLoading(true);
-      const updatedCart = await cartService.updateCartItem(itemId, quantity);
-      setCart(updatedCart);
-      
-      // Mettre à jour le compteur d'articles
-      const totalItems = updatedCart.items?.reduce((total, item) => total + item.quantity, 0) || 0;
-      setItemCount(totalItems);
+      const delta = await cartService.updateCartItem(itemId, quantity);
+      setCart((currentCart) => applyCartDelta(currentCart, delta));
+      setItemCount(delta.totalQuantity);
       
       toast.success('Quantité mise à jour !');
-      return updatedCart;
+      return delta;
     } catch (error) {
       const errorMessage = error.response?.data?.error || 'Erreur lors de la mise à jour';
       toast.error(errorMessage);
@@ -90,15 +133,12 @@ export function CartProvider({ children }) {
   const removeFromCart = async (itemId) => {
     try {
       setLoading(true);
-      const updatedCart = await cartService.removeFromCart(itemId);
-      setCart(updatedCart);
-      
-      // Mettre à jour le compteur d'articles
-      const totalItems = updatedCart.items?.reduce((total, item) => total + item.quantity, 0) || 0;
-      setItemCount(totalItems);
+      const delta = await cartService.removeFromCart(itemId);
+      setCart((currentCart) => applyCartDelta(currentCart, delta));
+      setItemCount(delta.totalQuantity);
       
       toast.success('Produit supprimé du panier !');
-      return updatedCart;
+      return delta;
     } catch (error) {
       const errorMessage = error.response?.data?.error || 'Erreur lors de la suppression';
       toast.error(errorMessage);
@@ -148,6 +188,7 @@ export function CartProvider({ children }) {
     itemCount,
     loadCart,
     addToCart,
+    applyBatch,
     updateCartItem,
     removeFromCart,
     clearCart,
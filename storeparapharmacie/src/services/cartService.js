@@ -11,7 +11,7 @@ class CartService {
     }
   }
 
-  // Ajouter un article au panier
+  // Ajouter un article au panier (renvoie la ligne modifiée et les nouveaux totaux)
   async addToCart(productId, quantity = 1) {
     try {
       const response = await api.post('/cart/items', {
@@ -24,7 +24,20 @@ class CartService {
     }
   }
 
-  // Mettre à jour la quantité d'un article dans le panier
+  // Appliquer plusieurs opérations en une requête : [{ type: 'ADD' | 'UPDATE' | 'REMOVE', productId, quantity }]
+  // (renvoie le panier final et le résultat de chaque opération)
+  async applyBatch(operations) {
+    try {
+      const response = await api.post('/cart/items/batch', {
+        operations
+      });
+      return response.data;
+    } catch (error) {
+      throw error;
+    }
+  }
+
+  // Mettre à jour la quantité d'un article dans le panier (renvoie la ligne modifiée et les nouveaux totaux)
   async updateCartItem(itemId, quantity) {
     try {
       const response = await api.put(`/cart/items/${itemId}`, {
@@ -36,7 +49,7 @@ class CartService {
     }
   }
 
-  // Supprimer un article du panier
+  // Supprimer un article du panier (renvoie l'ID de la ligne supprimée et les nouveaux totaux)
   async removeFromCart(itemId) {
     try {
       const response = await api.delete(`/cart/items/${itemId}`);
@@ -56,6 +69,16 @@ class CartService {
     }
   }
 
+  // Récupérer le résumé du panier en une requête (nombre d'articles, quantité et montant totaux)
+  async getCartSummary() {
+    try {
+      const response = await api.get('/cart/summary');
+      return response.data;
+    } catch (error) {
+      throw error;
+    }
+  }
+
   // Récupérer le nombre d'articles dans le panier
   async getCartItemCount() {
     try {
@@ -11,6 +11,18 @@ class ProductService {
     }
   }
 
+  // Récupérer une page de produits (pagination par curseur)
+  async getProductsPage({ cursor, size, sort } = {}) {
+    try {
+      const response = await api.get('/products/page', {
+        params: { cursor, size, sort }
+      });
+      return response.data;
+    } catch (error) {
+      throw error;
+    }
+  }
+
   // Récupérer un produit par son ID
   async getProductById(id) {
     try {
@@ -21,6 +33,16 @@ class ProductService {
     }
   }
 
+  // Récupérer plusieurs produits en une seule requête
+  async getProductsByIds(ids) {
+    try {
+      const response = await api.post('/products/batch', { ids });
+      return response.data;
+    } catch (error) {
+      throw error;
+    }
+  }
+
   // Récupérer les produits par catégorie
   async getProductsByCategory(category) {
     try {
@@ -43,6 +65,18 @@ class ProductService {
     }
   }
 
+  // Suggestions d'autocomplétion pour la saisie en cours
+  async suggestProducts(prefix, limit = 10) {
+    try {
+      const response = await api.get('/products/suggest', {
+        params: { prefix, limit }
+      });
+      return response.data;
+    } catch (error) {
+      throw error;
+    }
+  }
+
   // Récupérer toutes les catégories
   async getAllCategories() {
     try {